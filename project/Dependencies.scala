@@ -58,6 +58,7 @@ object Dependencies {
   val jacksonJdk8 = "com.fasterxml.jackson.datatype" % "jackson-datatype-jdk8" % JacksonVersion
   val jacksonJsr310 = "com.fasterxml.jackson.datatype" % "jackson-datatype-jsr310" % JacksonVersion
   val jacksonParameterNames = "com.fasterxml.jackson.module" % "jackson-module-parameter-names" % JacksonVersion
+  val jacksonBlackbird = "com.fasterxml.jackson.module" % "jackson-module-blackbird" % JacksonVersion
   val jacksonScala = "com.fasterxml.jackson.module" %% "jackson-module-scala" % JacksonVersion
   val jacksonDataFormatProto = "com.fasterxml.jackson.dataformat" % "jackson-dataformat-protobuf" % JacksonVersion
 
@@ -121,7 +122,8 @@ object Dependencies {
     jacksonDatabind,
     jacksonJdk8,
     jacksonJsr310,
-    jacksonParameterNames) ++ prometheusDeps
+    jacksonParameterNames,
+    jacksonBlackbird) ++ prometheusDeps
 
   val devTools = deps ++= Seq(scalaCollectionCompat, "com.typesafe" % "config" % "1.4.5", scalaTest % Test)
 
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package kalix.javasdk.benchmarks
+
+import java.util.concurrent.TimeUnit
+
+import scala.concurrent.Await
+import scala.concurrent.Future
+
+import akka.NotUsed
+import akka.actor.ActorSystem
+import akka.stream.javadsl.Source
+import kalix.javasdk.action.Action
+import kalix.javasdk.action.MessageEnvelope
+import kalix.javasdk.actionspec.ActionspecApi
+import kalix.javasdk.impl.ActionFactory
+import kalix.javasdk.impl.AnySupport
+import kalix.javasdk.impl.action.ActionEffectImpl
+import kalix.javasdk.impl.action.ActionRouter
+import kalix.javasdk.impl.action.ActionService
+import kalix.javasdk.impl.action.ActionsImpl
+import kalix.protocol.action.ActionCommand
+import kalix.protocol.action.ActionResponse
+import org.openjdk.jmh.annotations._
+
+object ActionBenchmark {
+  private val serviceDescriptor = ActionspecApi.getDescriptor.findServiceByName("ActionSpecService")
+  val ServiceName: String = serviceDescriptor.getFullName
+
+  final class BenchmarkAction extends Action
+
+  /** Replies with the incoming field, either directly or, when `async`, through an already completed future. */
+  final class BenchmarkActionRouter(async: Boolean) extends ActionRouter[BenchmarkAction](new BenchmarkAction) {
+
+    override def handleUnary(commandName: String, message: MessageEnvelope[Any]): Action.Effect[_] = {
+      val in = message.payload().asInstanceOf[ActionspecApi.In]
+      val reply = ActionEffectImpl.ReplyEffect(ActionspecApi.Out.newBuilder().setField(in.getField).build(), None, Nil)
+      if (async) ActionEffectImpl.AsyncEffect(Future.successful(reply), Nil)
+      else reply
+    }
+
+    override def handleStreamedOut(
+        commandName: String,
+        message: MessageEnvelope[Any]): Source[Action.Effect[_], NotUsed] =
+      throw new IllegalStateException("not used by this benchmark")
+
+    override def handleStreamedIn(
+        commandName: String,
+        stream: Source[MessageEnvelope[Any], NotUsed]): Action.Effect[_] =
+      throw new IllegalStateException("not used by this benchmark")
+
+    override def handleStreamed(
+        commandName: String,
+        stream: Source[MessageEnvelope[Any], NotUsed]): Source[Action.Effect[_], NotUsed] =
+      throw new IllegalStateException("not used by this benchmark")
+  }
+
+  def createActions(system: ActorSystem, async: Boolean): ActionsImpl = {
+    val anySupport = new AnySupport(Array(ActionspecApi.getDescriptor), getClass.getClassLoader)
+    val actionFactory: ActionFactory = _ => new BenchmarkActionRouter(async)
+    val service = new ActionService(actionFactory, serviceDescriptor, Array(), anySupport, None)
+    new ActionsImpl(system, Map(ServiceName -> service))
+  }
+
+  def command(name: String): ActionCommand =
+    ActionCommand(
+      ServiceName,
+      name,
+      Some(BenchmarkSupport.protobufAny(ActionspecApi.In.newBuilder().setField("benchmark").build())))
+}
+
+/**
+ * Unary action calls, with a reply effect and with an async effect (which is raced against the action timeout).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.Throughput, Mode.SampleTime))
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = Array("-Xms1G", "-Xmx1G", "-Dlogback.configurationFile=logback-benchmarks.xml"))
+class ActionBenchmark {
+  import ActionBenchmark._
+
+  private var system: ActorSystem = _
+  private var actions: ActionsImpl = _
+  private var asyncActions: ActionsImpl = _
+  private val unaryCommand = command("Unary")
+
+  @Setup
+  def setup(): Unit = {
+    system = BenchmarkSupport.createSystem("ActionBenchmark")
+    actions = createActions(system, async = false)
+    asyncActions = createActions(system, async = true)
+  }
+
+  @TearDown
+  def tearDown(): Unit =
+    BenchmarkSupport.terminate(system)
+
+  @Benchmark
+  def unary(): ActionResponse =
+    Await.result(actions.handleUnary(unaryCommand), BenchmarkSupport.Timeout)
+
+  @Benchmark
+  def unaryAsyncEffect(): ActionResponse =
+    Await.result(asyncActions.handleUnary(unaryCommand), BenchmarkSupport.Timeout)
+}
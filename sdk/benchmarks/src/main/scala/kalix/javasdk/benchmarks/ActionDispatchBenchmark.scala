@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package kalix.javasdk.benchmarks
+
+import java.util.concurrent.TimeUnit
+
+import scala.concurrent.Await
+
+import akka.NotUsed
+import akka.actor.ActorSystem
+import akka.stream.javadsl.Source
+import com.google.protobuf.DescriptorProtos
+import com.google.protobuf.Descriptors
+import kalix.javasdk.action.Action
+import kalix.javasdk.action.MessageEnvelope
+import kalix.javasdk.actionspec.ActionspecApi
+import kalix.javasdk.impl.ActionFactory
+import kalix.javasdk.impl.AnySupport
+import kalix.javasdk.impl.action.ActionEffectImpl
+import kalix.javasdk.impl.action.ActionRouter
+import kalix.javasdk.impl.action.ActionService
+import kalix.javasdk.impl.action.ActionsImpl
+import kalix.protocol.action.ActionCommand
+import kalix.protocol.action.ActionResponse
+import org.openjdk.jmh.annotations._
+
+object ActionDispatchBenchmark {
+
+  /** A service with `methods` unary methods, `Method0` to `Method<n>`, taking and returning the actionspec types. */
+  def serviceDescriptor(serviceIndex: Int, methods: Int): Descriptors.ServiceDescriptor = {
+    val service = DescriptorProtos.ServiceDescriptorProto.newBuilder().setName(s"DispatchService$serviceIndex")
+    (0 until methods).foreach { n =>
+      service.addMethod(
+        DescriptorProtos.MethodDescriptorProto
+          .newBuilder()
+          .setName(s"Method$n")
+          .setInputType(".actionspec.In")
+          .setOutputType(".actionspec.Out"))
+    }
+    val file = DescriptorProtos.FileDescriptorProto
+      .newBuilder()
+      .setName(s"dispatch$serviceIndex.proto")
+      .setPackage("kalix.javasdk.benchmarks")
+      .setSyntax("proto3")
+      .addDependency(ActionspecApi.getDescriptor.getName)
+      .addService(service)
+      .build()
+    Descriptors.FileDescriptor.buildFrom(file, Array(ActionspecApi.getDescriptor)).getServices.get(0)
+  }
+
+  final class DispatchAction extends Action
+
+  /** Replies with the incoming field for any of the methods, so that only the dispatch differs between calls. */
+  final class DispatchActionRouter extends ActionRouter[DispatchAction](new DispatchAction) {
+
+    override def handleUnary(commandName: String, message: MessageEnvelope[Any]): Action.Effect[_] = {
+      val in = message.payload().asInstanceOf[ActionspecApi.In]
+      ActionEffectImpl.ReplyEffect(ActionspecApi.Out.newBuilder().setField(in.getField).build(), None, Nil)
+    }
+
+    override def handleStreamedOut(
+        commandName: String,
+        message: MessageEnvelope[Any]): Source[Action.Effect[_], NotUsed] =
+      throw new IllegalStateException("not used by this benchmark")
+
+    override def handleStreamedIn(
+        commandName: String,
+        stream: Source[MessageEnvelope[Any], NotUsed]): Action.Effect[_] =
+      throw new IllegalStateException("not used by this benchmark")
+
+    override def handleStreamed(
+        commandName: String,
+        stream: Source[MessageEnvelope[Any], NotUsed]): Source[Action.Effect[_], NotUsed] =
+      throw new IllegalStateException("not used by this benchmark")
+  }
+}
+
+/**
+ * Unary action calls spread over all methods of several services, to show the cost of resolving the service and method
+ * of a command as the number of methods grows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.Throughput))
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = Array("-Xms1G", "-Xmx1G", "-Dlogback.configurationFile=logback-benchmarks.xml"))
+class ActionDispatchBenchmark {
+  import ActionDispatchBenchmark._
+
+  @Param(Array("4", "64"))
+  var methods: Int = _
+
+  @Param(Array("1", "8"))
+  var services: Int = _
+
+  private var system: ActorSystem = _
+  private var actions: ActionsImpl = _
+  private var commands: Array[ActionCommand] = _
+  private var next = 0
+
+  @Setup
+  def setup(): Unit = {
+    system = BenchmarkSupport.createSystem("ActionDispatchBenchmark")
+    val anySupport = new AnySupport(Array(ActionspecApi.getDescriptor), getClass.getClassLoader)
+    val actionFactory: ActionFactory = _ => new DispatchActionRouter
+    val descriptors = (0 until services).map(serviceDescriptor(_, methods))
+    actions = new ActionsImpl(
+      system,
+      descriptors.map { descriptor =>
+        descriptor.getFullName -> new ActionService(actionFactory, descriptor, Array(), anySupport, None)
+      }.toMap)
+
+    val payload = Some(BenchmarkSupport.protobufAny(ActionspecApi.In.newBuilder().setField("benchmark").build()))
+    commands = (for {
+      descriptor <- descriptors
+      n <- 0 until methods
+    } yield ActionCommand(descriptor.getFullName, s"Method$n", payload)).toArray
+  }
+
+  @TearDown
+  def tearDown(): Unit =
+    BenchmarkSupport.terminate(system)
+
+  @Benchmark
+  def unary(): ActionResponse = {
+    val command = commands(next)
+    next = if (next + 1 == commands.length) 0 else next + 1
+    Await.result(actions.handleUnary(command), BenchmarkSupport.Timeout)
+  }
+}
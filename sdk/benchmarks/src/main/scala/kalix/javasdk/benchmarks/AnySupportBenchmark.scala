@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package kalix.javasdk.benchmarks
+
+import java.util.concurrent.TimeUnit
+
+import com.example.shoppingcart.ShoppingCartApi
+import com.google.protobuf.any.{ Any => ScalaPbAny }
+import com.google.protobuf.{ Any => JavaPbAny }
+import kalix.javasdk.impl.AnySupport
+import kalix.protocol.discovery.DiscoveryProto
+import kalix.protocol.discovery.UserFunctionError
+import org.openjdk.jmh.annotations._
+
+/**
+ * Encoding and decoding of protobuf messages wrapped in `Any`, for both Java and ScalaPB generated messages.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.Throughput, Mode.SampleTime))
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = Array("-Xms1G", "-Xmx1G", "-Dlogback.configurationFile=logback-benchmarks.xml"))
+class AnySupportBenchmark {
+
+  private val anySupport =
+    new AnySupport(Array(ShoppingCartApi.getDescriptor, DiscoveryProto.javaDescriptor), getClass.getClassLoader)
+
+  private val javaMessage = ShoppingCartApi.AddLineItem
+    .newBuilder()
+    .setCartId("cart")
+    .setProductId("product")
+    .setName("Product")
+    .setQuantity(10)
+    .build()
+
+  private val scalaMessage = UserFunctionError("error")
+
+  private var encodedJava: ScalaPbAny = _
+  private var encodedScala: ScalaPbAny = _
+
+  @Setup
+  def setup(): Unit = {
+    encodedJava = anySupport.encodeScala(javaMessage)
+    encodedScala = anySupport.encodeScala(scalaMessage)
+  }
+
+  @Benchmark
+  def encodeJavaMessage(): ScalaPbAny =
+    anySupport.encodeScala(javaMessage)
+
+  @Benchmark
+  def encodeJavaMessageToJavaAny(): JavaPbAny =
+    anySupport.encodeJava(javaMessage)
+
+  @Benchmark
+  def encodeScalaMessage(): ScalaPbAny =
+    anySupport.encodeScala(scalaMessage)
+
+  @Benchmark
+  def decodeJavaMessage(): Any =
+    anySupport.decodeMessage(encodedJava)
+
+  @Benchmark
+  def decodeJavaMessageFreshTypeUrl(): Any =
+    // incoming messages carry a freshly parsed type url string, not the one the cache was populated with
+    anySupport.decodeMessage(encodedJava.withTypeUrl(new String(encodedJava.typeUrl.toCharArray)))
+
+  @Benchmark
+  def decodeScalaMessage(): Any =
+    anySupport.decodeMessage(encodedScala)
+}
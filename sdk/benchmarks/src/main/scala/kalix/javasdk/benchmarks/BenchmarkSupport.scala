@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package kalix.javasdk.benchmarks
+
+import scala.concurrent.Await
+import scala.concurrent.duration._
+
+import akka.NotUsed
+import akka.actor.ActorSystem
+import akka.stream.QueueOfferResult
+import akka.stream.scaladsl.Sink
+import akka.stream.scaladsl.Source
+import com.google.protobuf.any.{ Any => ScalaPbAny }
+import com.google.protobuf.{ Any => JavaPbAny }
+import com.google.protobuf.{ Message => JavaPbMessage }
+import com.typesafe.config.ConfigFactory
+import kalix.javasdk.KalixRunner
+import kalix.javasdk.impl.ProxyInfoHolder
+
+/**
+ * Shared setup for the SDK benchmarks. The component implementations are driven directly with protocol messages, the
+ * same way the Kalix Runtime drives them, but without a runtime or any gRPC transport in between.
+ */
+object BenchmarkSupport {
+
+  val Timeout: FiniteDuration = 10.seconds
+
+  def createSystem(name: String, extraConfig: String = ""): ActorSystem = {
+    val config = ConfigFactory
+      .parseString(extraConfig)
+      .withFallback(ConfigFactory.parseString("""
+        akka.loglevel = WARNING
+        akka.coordinated-shutdown.exit-jvm = off
+        """))
+      .withFallback(ConfigFactory.load())
+    val system = ActorSystem(name, config)
+    // tracing disabled, emulating that is discovered from the runtime
+    ProxyInfoHolder(system).overrideTracingCollectorEndpoint("")
+    system
+  }
+
+  def configuration(system: ActorSystem): KalixRunner.Configuration =
+    new KalixRunner.Configuration(system.settings.config.getConfig("kalix"))
+
+  def terminate(system: ActorSystem): Unit =
+    Await.result(system.terminate(), Timeout)
+
+  def protobufAny(message: JavaPbMessage): ScalaPbAny =
+    ScalaPbAny.fromJavaProto(JavaPbAny.pack(message))
+
+  /**
+   * Runs a finite stream of messages through a component and waits for all the replies.
+   */
+  def runToCompletion[In, Out](messages: Seq[In], handle: Source[In, NotUsed] => Source[Out, NotUsed])(implicit
+      system: ActorSystem): Seq[Out] =
+    Await.result(handle(Source(messages)).runWith(Sink.seq), Timeout)
+
+  /**
+   * A long-lived, full-duplex stream against a component, like the one the runtime keeps open per active entity or
+   * workflow. Messages are sent one at a time and the reply is awaited before the next message is sent.
+   */
+  final class StreamSession[In, Out](handle: Source[In, NotUsed] => Source[Out, NotUsed])(implicit
+      system: ActorSystem) {
+
+    private val (queue, in) = Source.queue[In](16).preMaterialize()
+    private val out = handle(in).runWith(Sink.queue[Out]())
+
+    def send(message: In): Unit =
+      queue.offer(message) match {
+        case QueueOfferResult.Enqueued => ()
+        case other                     => throw new IllegalStateException(s"Could not send message: $other")
+      }
+
+    def receive(): Out =
+      Await.result(out.pull(), Timeout).getOrElse(throw new IllegalStateException("Stream completed unexpectedly"))
+
+    def request(message: In): Out = {
+      send(message)
+      receive()
+    }
+
+    def close(): Unit = {
+      queue.complete()
+      out.cancel()
+    }
+  }
+}
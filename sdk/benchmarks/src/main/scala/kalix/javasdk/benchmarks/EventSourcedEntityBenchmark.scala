@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package kalix.javasdk.benchmarks
+
+import java.util.concurrent.TimeUnit
+
+import akka.actor.ActorSystem
+import com.example.shoppingcart.ShoppingCartApi
+import com.example.shoppingcart.domain.ShoppingCartDomain
+import kalix.javasdk.benchmarks.BenchmarkSupport.StreamSession
+import kalix.javasdk.eventsourcedentity.CartEntity
+import kalix.javasdk.eventsourcedentity.CartEntityProvider
+import kalix.javasdk.impl.AnySupport
+import kalix.javasdk.impl.eventsourcedentity.EventSourcedEntitiesImpl
+import kalix.javasdk.impl.eventsourcedentity.EventSourcedEntityService
+import kalix.javasdk.impl.eventsourcedentity.ResolvedEventSourcedEntityFactory
+import kalix.protocol.event_sourced_entity.EventSourcedStreamIn
+import kalix.protocol.event_sourced_entity.EventSourcedStreamOut
+import kalix.testkit.eventsourcedentity.EventSourcedMessages
+import org.openjdk.jmh.annotations._
+
+object EventSourcedEntityBenchmark {
+  val EntityId = "cart"
+
+  private val provider = CartEntityProvider.of(new CartEntity(_))
+  val ServiceName: String = provider.serviceDescriptor.getFullName
+
+  def createEntities(system: ActorSystem): EventSourcedEntitiesImpl = {
+    val anySupport = new AnySupport(provider.additionalDescriptors, getClass.getClassLoader)
+    val service = new EventSourcedEntityService(
+      new ResolvedEventSourcedEntityFactory(
+        context => provider.newRouter(context),
+        anySupport.resolveServiceDescriptor(provider.serviceDescriptor)),
+      provider.serviceDescriptor,
+      provider.additionalDescriptors,
+      anySupport,
+      provider.typeId,
+      provider.options.snapshotEvery,
+      provider.options)
+    new EventSourcedEntitiesImpl(system, Map(ServiceName -> service), BenchmarkSupport.configuration(system))
+  }
+
+  def init: EventSourcedStreamIn =
+    EventSourcedStreamIn(EventSourcedMessages.init(ServiceName, EntityId))
+
+  def addItem(commandId: Long): EventSourcedStreamIn =
+    EventSourcedStreamIn(
+      EventSourcedMessages.command(
+        commandId,
+        EntityId,
+        "AddItem",
+        ShoppingCartApi.AddLineItem
+          .newBuilder()
+          .setCartId(EntityId)
+          .setProductId("product")
+          .setName("Product")
+          .setQuantity(1)
+          .build()))
+
+  def getCart(commandId: Long): EventSourcedStreamIn =
+    EventSourcedStreamIn(
+      EventSourcedMessages.command(
+        commandId,
+        EntityId,
+        "GetCart",
+        ShoppingCartApi.GetShoppingCart.newBuilder().setCartId(EntityId).build()))
+
+  def itemAdded(sequence: Long): EventSourcedStreamIn =
+    EventSourcedStreamIn(
+      EventSourcedMessages.event(
+        sequence,
+        ShoppingCartDomain.ItemAdded
+          .newBuilder()
+          .setItem(ShoppingCartDomain.LineItem.newBuilder().setProductId("product").setName("Product").setQuantity(1))
+          .build()))
+}
+
+/**
+ * Commands against an already running event sourced entity, one command at a time over a single entity stream.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.Throughput, Mode.SampleTime))
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = Array("-Xms1G", "-Xmx1G", "-Dlogback.configurationFile=logback-benchmarks.xml"))
+class EventSourcedEntityBenchmark {
+  import EventSourcedEntityBenchmark._
+
+  private var system: ActorSystem = _
+  private var session: StreamSession[EventSourcedStreamIn, EventSourcedStreamOut] = _
+  private var commandId = 0L
+
+  @Setup
+  def setup(): Unit = {
+    system = BenchmarkSupport.createSystem("EventSourcedEntityBenchmark")
+    val entities = createEntities(system)
+    session = new StreamSession(entities.handle)(system)
+    session.send(init)
+  }
+
+  @TearDown
+  def tearDown(): Unit = {
+    session.close()
+    BenchmarkSupport.terminate(system)
+  }
+
+  @Benchmark
+  def emitEventCommand(): EventSourcedStreamOut = {
+    commandId += 1
+    session.request(addItem(commandId))
+  }
+
+  @Benchmark
+  def readOnlyCommand(): EventSourcedStreamOut = {
+    commandId += 1
+    session.request(getCart(commandId))
+  }
+}
+
+/**
+ * Recovery of an event sourced entity: init, replay of the journal and the first command, one entity stream per
+ * invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.Throughput, Mode.SampleTime))
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = Array("-Xms1G", "-Xmx1G", "-Dlogback.configurationFile=logback-benchmarks.xml"))
+class EventSourcedEntityReplayBenchmark {
+  import EventSourcedEntityBenchmark._
+
+  @Param(Array("10", "1000"))
+  var events: Int = _
+
+  private var system: ActorSystem = _
+  private var entities: EventSourcedEntitiesImpl = _
+  private var messages: Seq[EventSourcedStreamIn] = _
+
+  @Setup
+  def setup(): Unit = {
+    system = BenchmarkSupport.createSystem("EventSourcedEntityReplayBenchmark")
+    entities = createEntities(system)
+    messages = (init +: (1 to events).map(seq => itemAdded(seq.toLong))) :+ getCart(1)
+  }
+
+  @TearDown
+  def tearDown(): Unit =
+    BenchmarkSupport.terminate(system)
+
+  @Benchmark
+  def recover(): Seq[EventSourcedStreamOut] =
+    BenchmarkSupport.runToCompletion(messages, entities.handle)(system)
+}
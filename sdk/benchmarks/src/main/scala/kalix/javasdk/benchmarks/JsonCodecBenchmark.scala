@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package kalix.javasdk.benchmarks
+
+import java.time.Instant
+import java.util.concurrent.TimeUnit
+
+import scala.beans.BeanProperty
+
+import com.fasterxml.jackson.databind.ObjectReader
+import com.fasterxml.jackson.databind.ObjectWriter
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule
+import kalix.javasdk.JsonSupport
+import org.openjdk.jmh.annotations._
+
+// a typical event, a handful of scalar fields
+class JsonItemAdded {
+  @BeanProperty var cartId: String = _
+  @BeanProperty var productId: String = _
+  @BeanProperty var name: String = _
+  @BeanProperty var quantity: Int = _
+  @BeanProperty var price: Double = _
+}
+
+class JsonLineItem {
+  @BeanProperty var productId: String = _
+  @BeanProperty var name: String = _
+  @BeanProperty var quantity: Int = _
+}
+
+// a typical state, nested objects in a collection
+class JsonCart {
+  @BeanProperty var cartId: String = _
+  @BeanProperty var items: java.util.List[JsonLineItem] = _
+  @BeanProperty var checkedOut: Boolean = _
+  @BeanProperty var updated: Instant = _
+}
+
+/**
+ * Encoding and decoding of typical event and state classes as JSON, with the default object mapper of [[JsonSupport]]
+ * compared to the same mapper with the accelerated codec that is enabled with `Kalix.withAcceleratedJsonCodec`.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.Throughput))
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = Array("-Xms1G", "-Xmx1G", "-Dlogback.configurationFile=logback-benchmarks.xml"))
+class JsonCodecBenchmark {
+
+  @Param(Array("default", "accelerated"))
+  var codec: String = _
+
+  @Param(Array("20"))
+  var cartItems: Int = _
+
+  private var eventWriter: ObjectWriter = _
+  private var eventReader: ObjectReader = _
+  private var stateWriter: ObjectWriter = _
+  private var stateReader: ObjectReader = _
+
+  private var event: JsonItemAdded = _
+  private var state: JsonCart = _
+  private var eventBytes: Array[Byte] = _
+  private var stateBytes: Array[Byte] = _
+
+  @Setup
+  def setup(): Unit = {
+    // a copy, to not change the shared mapper for other benchmarks in the same JVM
+    val mapper = JsonSupport.getObjectMapper.copy()
+    if (codec == "accelerated") mapper.registerModule(new BlackbirdModule())
+
+    eventWriter = mapper.writerFor(classOf[JsonItemAdded])
+    eventReader = mapper.readerFor(classOf[JsonItemAdded])
+    stateWriter = mapper.writerFor(classOf[JsonCart])
+    stateReader = mapper.readerFor(classOf[JsonCart])
+
+    event = new JsonItemAdded
+    event.cartId = "cart-1"
+    event.productId = "product-1"
+    event.name = "Product one"
+    event.quantity = 3
+    event.price = 12.5
+
+    state = new JsonCart
+    state.cartId = "cart-1"
+    state.items = new java.util.ArrayList[JsonLineItem]()
+    (1 to cartItems).foreach { n =>
+      val item = new JsonLineItem
+      item.productId = s"product-$n"
+      item.name = s"Product $n"
+      item.quantity = n
+      state.items.add(item)
+    }
+    state.updated = Instant.parse("2024-01-01T12:00:00Z")
+
+    eventBytes = eventWriter.writeValueAsBytes(event)
+    stateBytes = stateWriter.writeValueAsBytes(state)
+  }
+
+  @Benchmark
+  def encodeEvent(): Array[Byte] =
+    eventWriter.writeValueAsBytes(event)
+
+  @Benchmark
+  def decodeEvent(): JsonItemAdded =
+    eventReader.readValue[JsonItemAdded](eventBytes)
+
+  @Benchmark
+  def encodeState(): Array[Byte] =
+    stateWriter.writeValueAsBytes(state)
+
+  @Benchmark
+  def decodeState(): JsonCart =
+    stateReader.readValue[JsonCart](stateBytes)
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package kalix.javasdk.benchmarks
+
+import java.lang
+import java.util
+import java.util.Optional
+import java.util.concurrent.TimeUnit
+
+import scala.jdk.CollectionConverters._
+
+import kalix.javasdk.JwtClaims
+import kalix.javasdk.impl.MetadataImpl
+import kalix.protocol.component.MetadataEntry
+import org.openjdk.jmh.annotations._
+
+/**
+ * An authorization check reading the roles list and the tenant id claims of a command, a few times per command like
+ * when several checks are done in the command handler, with the claims of the metadata compared to claims that only
+ * implement the required methods of [[JwtClaims]] and parse the JSON claims on every call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.Throughput))
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = Array("-Xms1G", "-Xmx1G", "-Dlogback.configurationFile=logback-benchmarks.xml"))
+class JwtClaimsBenchmark {
+
+  @Param(Array("metadata", "uncached"))
+  var claims: String = _
+
+  @Param(Array("3"))
+  var checksPerCommand: Int = _
+
+  private var entries: Seq[MetadataEntry] = _
+
+  @Setup
+  def setup(): Unit = {
+    def entry(key: String, value: String) = MetadataEntry(key, MetadataEntry.Value.StringValue(value))
+    val jwtClaims = Seq(
+      "iss" -> "https://auth.example.com",
+      "sub" -> "user-1",
+      "aud" -> "shopping-cart",
+      "exp" -> "1893456000",
+      "iat" -> "1704067200",
+      "jti" -> "a1b2c3d4",
+      "email" -> "user-1@example.com",
+      "tenant" -> "tenant-1",
+      "roles" -> """["viewer","editor","admin"]""",
+      "scopes" -> """["cart:read","cart:write"]""")
+    entries = Seq(
+      entry(":authority", "shopping-cart.example.com"),
+      entry("content-type", "application/grpc"),
+      entry("traceparent", "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01")) ++
+      jwtClaims.map { case (name, value) => entry(MetadataImpl.JwtClaimPrefix + name, value) }
+  }
+
+  private def newClaims(): JwtClaims = {
+    // metadata is created for every command
+    val metadata = MetadataImpl.of(entries)
+    if (claims == "metadata") metadata.jwtClaims
+    else
+      new JwtClaims {
+        override def allClaimNames(): lang.Iterable[String] = metadata.allJwtClaimNames.asJava
+        override def asMap(): util.Map[String, String] = metadata.jwtClaimsAsMap.asJava
+        override def getString(name: String): Optional[String] =
+          Optional.ofNullable(metadata.getJwtClaim(name).orNull)
+      }
+  }
+
+  @Benchmark
+  def checkRolesAndTenant(): Boolean = {
+    val jwtClaims = newClaims()
+    var allowed = true
+    var check = 0
+    while (check < checksPerCommand) {
+      allowed &= jwtClaims.getStringList("roles").map[Boolean](_.contains("editor")).orElse(false) &&
+        jwtClaims.getString("tenant").map[Boolean](_ == "tenant-1").orElse(false)
+      check += 1
+    }
+    allowed
+  }
+}
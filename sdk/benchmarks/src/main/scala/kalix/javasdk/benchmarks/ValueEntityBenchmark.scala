@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package kalix.javasdk.benchmarks
+
+import java.util.concurrent.TimeUnit
+
+import akka.actor.ActorSystem
+import com.example.valueentity.shoppingcart.ShoppingCartApi
+import kalix.javasdk.benchmarks.BenchmarkSupport.StreamSession
+import kalix.javasdk.impl.AnySupport
+import kalix.javasdk.impl.valueentity.ResolvedValueEntityFactory
+import kalix.javasdk.impl.valueentity.ValueEntitiesImpl
+import kalix.javasdk.impl.valueentity.ValueEntityService
+import kalix.javasdk.valueentity.CartEntity
+import kalix.javasdk.valueentity.CartEntityProvider
+import kalix.protocol.value_entity.ValueEntityStreamIn
+import kalix.protocol.value_entity.ValueEntityStreamOut
+import kalix.testkit.valueentity.ValueEntityMessages
+import org.openjdk.jmh.annotations._
+
+object ValueEntityBenchmark {
+  val EntityId = "cart"
+
+  private val provider = CartEntityProvider.of(new CartEntity(_))
+  val ServiceName: String = provider.serviceDescriptor.getFullName
+
+  def createEntities(system: ActorSystem): ValueEntitiesImpl = {
+    val anySupport = new AnySupport(provider.additionalDescriptors, getClass.getClassLoader)
+    val service = new ValueEntityService(
+      new ResolvedValueEntityFactory(
+        context => provider.newRouter(context),
+        anySupport.resolveServiceDescriptor(provider.serviceDescriptor)),
+      provider.serviceDescriptor,
+      provider.additionalDescriptors,
+      anySupport,
+      provider.typeId,
+      provider.options)
+    new ValueEntitiesImpl(system, Map(ServiceName -> service), BenchmarkSupport.configuration(system))
+  }
+
+  def init: ValueEntityStreamIn =
+    ValueEntityStreamIn(ValueEntityMessages.init(ServiceName, EntityId))
+
+  def addItem(commandId: Long): ValueEntityStreamIn =
+    ValueEntityStreamIn(
+      ValueEntityMessages.command(
+        commandId,
+        EntityId,
+        "AddItem",
+        ShoppingCartApi.AddLineItem
+          .newBuilder()
+          .setCartId(EntityId)
+          .setProductId("product")
+          .setName("Product")
+          .setQuantity(1)
+          .build()))
+
+  def getCart(commandId: Long): ValueEntityStreamIn =
+    ValueEntityStreamIn(
+      ValueEntityMessages.command(
+        commandId,
+        EntityId,
+        "GetCart",
+        ShoppingCartApi.GetShoppingCart.newBuilder().setCartId(EntityId).build()))
+}
+
+/**
+ * Commands against an already running value entity, one command at a time over a single entity stream.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.Throughput, Mode.SampleTime))
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = Array("-Xms1G", "-Xmx1G", "-Dlogback.configurationFile=logback-benchmarks.xml"))
+class ValueEntityBenchmark {
+  import ValueEntityBenchmark._
+
+  private var system: ActorSystem = _
+  private var session: StreamSession[ValueEntityStreamIn, ValueEntityStreamOut] = _
+  private var commandId = 0L
+
+  @Setup
+  def setup(): Unit = {
+    system = BenchmarkSupport.createSystem("ValueEntityBenchmark")
+    val entities = createEntities(system)
+    session = new StreamSession(entities.handle)(system)
+    session.send(init)
+  }
+
+  @TearDown
+  def tearDown(): Unit = {
+    session.close()
+    BenchmarkSupport.terminate(system)
+  }
+
+  @Benchmark
+  def updateStateCommand(): ValueEntityStreamOut = {
+    commandId += 1
+    session.request(addItem(commandId))
+  }
+
+  @Benchmark
+  def readOnlyCommand(): ValueEntityStreamOut = {
+    commandId += 1
+    session.request(getCart(commandId))
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package kalix.javasdk.benchmarks
+
+import java.util.Optional
+import java.util.concurrent.TimeUnit
+
+import akka.actor.ActorSystem
+import kalix.javasdk.impl.AnySupport
+import kalix.javasdk.impl.ViewFactory
+import kalix.javasdk.impl.view.UpdateHandlerNotFound
+import kalix.javasdk.impl.view.ViewRouter
+import kalix.javasdk.impl.view.ViewService
+import kalix.javasdk.impl.view.ViewsImpl
+import kalix.javasdk.shoppingcart.ShoppingCart
+import kalix.javasdk.shoppingcart.ShoppingCartViewModel
+import kalix.javasdk.shoppingcart.ShoppingCartViewModel.CartViewState
+import kalix.javasdk.view.View
+import kalix.protocol.{ view => pv }
+import org.openjdk.jmh.annotations._
+
+object ViewBenchmark {
+  private val serviceDescriptor = ShoppingCartViewModel.getDescriptor.findServiceByName("ShoppingCartViewService")
+  val ServiceName: String = serviceDescriptor.getFullName
+
+  final class CartView extends View[CartViewState] {
+    override def emptyState(): CartViewState = CartViewState.getDefaultInstance
+
+    def processAdded(state: CartViewState, added: ShoppingCart.ItemAdded): View.UpdateEffect[CartViewState] =
+      effects().updateState(
+        state.toBuilder.setNumberOfItems(state.getNumberOfItems + added.getItem.getQuantity).build())
+  }
+
+  final class CartViewRouter extends ViewRouter[CartViewState, CartView](new CartView) {
+    override def handleUpdate(commandName: String, state: CartViewState, event: Any): View.UpdateEffect[CartViewState] =
+      commandName match {
+        case "ProcessAdded" => view.processAdded(state, event.asInstanceOf[ShoppingCart.ItemAdded])
+        case other          => throw UpdateHandlerNotFound(other)
+      }
+  }
+
+  def createViews(system: ActorSystem): ViewsImpl = {
+    val anySupport = new AnySupport(Array(ShoppingCartViewModel.getDescriptor), getClass.getClassLoader)
+    val factory: ViewFactory = _ => new CartViewRouter
+    val service = new ViewService(Optional.of(factory), serviceDescriptor, Array(), anySupport, "carts", None)
+    new ViewsImpl(system, Map(ServiceName -> service))
+  }
+
+  val receiveEvent: pv.ViewStreamIn = {
+    val itemAdded = ShoppingCart.ItemAdded
+      .newBuilder()
+      .setItem(ShoppingCart.LineItem.newBuilder().setProductId("product").setName("Product").setQuantity(1))
+      .build()
+    val existingRow = CartViewState.newBuilder().setUserId("user").setNumberOfItems(3).build()
+    pv.ViewStreamIn(
+      pv.ViewStreamIn.Message.Receive(
+        pv.ReceiveEvent(
+          serviceName = ServiceName,
+          commandName = "ProcessAdded",
+          payload = Some(BenchmarkSupport.protobufAny(itemAdded)),
+          bySubjectLookupResult = Some(pv.Row(value = Some(BenchmarkSupport.protobufAny(existingRow)))))))
+  }
+}
+
+/**
+ * View updates, one view stream per incoming event, which is how the runtime currently drives a view update.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.Throughput, Mode.SampleTime))
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = Array("-Xms1G", "-Xmx1G", "-Dlogback.configurationFile=logback-benchmarks.xml"))
+class ViewBenchmark {
+  import ViewBenchmark._
+
+  private var system: ActorSystem = _
+  private var views: ViewsImpl = _
+  private val updates = List(receiveEvent)
+
+  @Setup
+  def setup(): Unit = {
+    system = BenchmarkSupport.createSystem("ViewBenchmark")
+    views = createViews(system)
+  }
+
+  @TearDown
+  def tearDown(): Unit =
+    BenchmarkSupport.terminate(system)
+
+  @Benchmark
+  def update(): Seq[pv.ViewStreamOut] =
+    BenchmarkSupport.runToCompletion(updates, views.handle)(system)
+}
+
+/**
+ * A high rate projection, a batch of view updates handled either with one view stream per event or with all of them on
+ * one long-lived stream, with `kalix.view.multi-event-streams` enabled.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.Throughput))
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@OperationsPerInvocation(ViewStreamBenchmark.Events)
+@Warmup(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = Array("-Xms1G", "-Xmx1G", "-Dlogback.configurationFile=logback-benchmarks.xml"))
+class ViewStreamBenchmark {
+  import ViewBenchmark._
+
+  @Param(Array("stream-per-event", "multi-event-stream"))
+  var streams: String = _
+
+  private var system: ActorSystem = _
+  private var views: ViewsImpl = _
+  private val events = List.fill(ViewStreamBenchmark.Events)(receiveEvent)
+
+  @Setup
+  def setup(): Unit = {
+    val multiEventStreams = streams == "multi-event-stream"
+    system =
+      BenchmarkSupport.createSystem("ViewStreamBenchmark", s"kalix.view.multi-event-streams = $multiEventStreams")
+    views = createViews(system)
+  }
+
+  @TearDown
+  def tearDown(): Unit =
+    BenchmarkSupport.terminate(system)
+
+  @Benchmark
+  def projection(): Seq[pv.ViewStreamOut] =
+    if (streams == "multi-event-stream") BenchmarkSupport.runToCompletion(events, views.handle)(system)
+    else events.flatMap(event => BenchmarkSupport.runToCompletion(event :: Nil, views.handle)(system))
+}
+
+object ViewStreamBenchmark {
+  final val Events = 100
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package kalix.javasdk.benchmarks
+
+import java.util.concurrent.TimeUnit
+
+import akka.actor.ActorSystem
+import com.example.workflow.transfer.MoneyTransferApi
+import com.google.protobuf.Empty
+import kalix.javasdk.benchmarks.BenchmarkSupport.StreamSession
+import kalix.javasdk.impl.AnySupport
+import kalix.javasdk.impl.workflow.ResolvedWorkflowFactory
+import kalix.javasdk.impl.workflow.WorkflowImpl
+import kalix.javasdk.impl.workflow.WorkflowService
+import kalix.javasdk.workflow.TransferWorkflow
+import kalix.javasdk.workflow.TransferWorkflowProvider
+import kalix.protocol.workflow_entity.ExecuteStep
+import kalix.protocol.workflow_entity.GetNextStep
+import kalix.protocol.workflow_entity.WorkflowStreamIn
+import kalix.protocol.workflow_entity.WorkflowStreamOut
+import kalix.testkit.workflow.WorkflowMessages
+import org.openjdk.jmh.annotations._
+
+object WorkflowBenchmark {
+  val WorkflowId = "transfer"
+
+  private val provider = TransferWorkflowProvider.of(_ => new TransferWorkflow)
+  val ServiceName: String = provider.serviceDescriptor.getFullName
+
+  def createWorkflows(system: ActorSystem): WorkflowImpl = {
+    val anySupport = new AnySupport(provider.additionalDescriptors, getClass.getClassLoader)
+    val service = new WorkflowService(
+      new ResolvedWorkflowFactory(
+        context => provider.newRouter(context),
+        anySupport.resolveServiceDescriptor(provider.serviceDescriptor)),
+      provider.serviceDescriptor,
+      provider.additionalDescriptors,
+      anySupport,
+      provider.typeId,
+      provider.options)
+    new WorkflowImpl(system, Map(ServiceName -> service), BenchmarkSupport.configuration(system))
+  }
+
+  def init: WorkflowStreamIn =
+    WorkflowStreamIn(WorkflowMessages.init(ServiceName, WorkflowId))
+
+  def start(commandId: Long): WorkflowStreamIn =
+    WorkflowStreamIn(
+      WorkflowMessages.command(
+        commandId,
+        WorkflowId,
+        "Start",
+        MoneyTransferApi.Transfer
+          .newBuilder()
+          .setWorkflowId(WorkflowId)
+          .setFrom("a")
+          .setTo("b")
+          .setAmount(10)
+          .build()))
+
+  private val state = BenchmarkSupport.protobufAny(
+    MoneyTransferApi.State.newBuilder().setFrom("a").setTo("b").setAmount(10).setLog("started").build())
+
+  def withdrawStep(commandId: Long): WorkflowStreamIn =
+    WorkflowStreamIn(
+      WorkflowStreamIn.Message.Step(
+        ExecuteStep(
+          commandId = commandId,
+          stepName = "withdraw",
+          input = Some(
+            BenchmarkSupport.protobufAny(MoneyTransferApi.Withdraw.newBuilder().setAccount("a").setAmount(10).build())),
+          userState = Some(state))))
+
+  def withdrawTransition(commandId: Long): WorkflowStreamIn =
+    WorkflowStreamIn(
+      WorkflowStreamIn.Message.Transition(
+        GetNextStep(
+          commandId = commandId,
+          stepName = "withdraw",
+          result = Some(BenchmarkSupport.protobufAny(Empty.getDefaultInstance)))))
+}
+
+/**
+ * Workflow commands, step executions and step transitions, one at a time over a single workflow stream.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.Throughput, Mode.SampleTime))
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = Array("-Xms1G", "-Xmx1G", "-Dlogback.configurationFile=logback-benchmarks.xml"))
+class WorkflowBenchmark {
+  import WorkflowBenchmark._
+
+  private var system: ActorSystem = _
+  private var session: StreamSession[WorkflowStreamIn, WorkflowStreamOut] = _
+  private var commandId = 0L
+
+  @Setup
+  def setup(): Unit = {
+    system = BenchmarkSupport.createSystem("WorkflowBenchmark")
+    val workflows = createWorkflows(system)
+    session = new StreamSession(workflows.handle)(system)
+    // workflow config is sent back on init
+    session.request(init)
+    commandId += 1
+    session.request(start(commandId))
+  }
+
+  @TearDown
+  def tearDown(): Unit = {
+    session.close()
+    BenchmarkSupport.terminate(system)
+  }
+
+  @Benchmark
+  def command(): WorkflowStreamOut = {
+    commandId += 1
+    session.request(start(commandId))
+  }
+
+  @Benchmark
+  def step(): WorkflowStreamOut = {
+    commandId += 1
+    session.request(withdrawStep(commandId))
+  }
+
+  @Benchmark
+  def transition(): WorkflowStreamOut = {
+    commandId += 1
+    session.request(withdrawTransition(commandId))
+  }
+}
@@ -12,6 +12,7 @@ import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationConfig;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonDeserializer;
@@ -19,9 +20,14 @@ import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationConfig;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.SerializerFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
 import com.google.protobuf.Any;
 import com.google.protobuf.ByteString;
 import com.google.protobuf.UnsafeByteOperations;
@@ -30,9 +36,9 @@ import kalix.javasdk.impl.AnySupport;
 import kalix.javasdk.impl.ByteStringEncoding;
 
 import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
 import java.util.Collection;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 public final class JsonSupport {
 
@@ -40,6 +46,15 @@ public final class JsonSupport {
 
   private static final ObjectMapper objectMapper = new ObjectMapper();
 
+  // Readers and writers are resolved once per class. They capture the configuration of the object
+  // mapper when created, so they are created again if the object mapper has been reconfigured.
+  private static final ConcurrentHashMap<Class<?>, CachedReader> readers =
+      new ConcurrentHashMap<>();
+  private static final ConcurrentHashMap<Class<?>, CachedWriter> writers =
+      new ConcurrentHashMap<>();
+  private static final ConcurrentHashMap<Class<?>, Optional<MigrationInfo>> migrations =
+      new ConcurrentHashMap<>();
+
   static {
     // Date/time in ISO-8601 (rfc3339) yyyy-MM-dd'T'HH:mm:ss.SSSZ format
     // as defined by com.fasterxml.jackson.databind.util.StdDateFormat
@@ -78,6 +93,15 @@ public final class JsonSupport {
 
   private JsonSupport() {}
 
+  /**
+   * Use generated accessors instead of reflection for the properties and constructors of JSON
+   * serialized classes, see {@link Kalix#withAcceleratedJsonCodec()}.
+   */
+  static void registerAcceleratedCodec() {
+    // registering the module more than once has no effect
+    objectMapper.registerModule(new BlackbirdModule());
+  }
+
   /**
    * Encode the given value as JSON using Jackson and put the encoded string as bytes in a protobuf
    * Any with the type URL {@code "json.kalix.io/[valueClassName]"}.
@@ -117,8 +141,7 @@ public final class JsonSupport {
   }
 
   public static <T> ByteString encodeToBytes(T value) throws JsonProcessingException {
-    return UnsafeByteOperations.unsafeWrap(
-        objectMapper.writerFor(value.getClass()).writeValueAsBytes(value));
+    return UnsafeByteOperations.unsafeWrap(writerFor(value.getClass()).writeValueAsBytes(value));
   }
 
   /**
@@ -144,18 +167,18 @@ public final class JsonSupport {
     } else {
       try {
         ByteString decodedBytes = ByteStringEncoding.decodePrimitiveBytes(any.getValue());
-        if (valueClass.getAnnotation(Migration.class) != null) {
-          JsonMigration migration =
-              valueClass.getAnnotation(Migration.class).value().getConstructor().newInstance();
+        Optional<MigrationInfo> migrationInfo = migrationFor(valueClass);
+        if (migrationInfo.isPresent()) {
+          JsonMigration migration = migrationInfo.get().migration;
           int fromVersion = parseVersion(any.getTypeUrl());
           int currentVersion = migration.currentVersion();
           int supportedForwardVersion = migration.supportedForwardVersion();
           if (fromVersion < currentVersion) {
-            return migrate(valueClass, decodedBytes, fromVersion, migration);
+            return migrate(valueClass, decodedBytes, fromVersion, migrationInfo.get());
           } else if (fromVersion == currentVersion) {
-            return parseBytes(decodedBytes.toByteArray(), valueClass);
+            return parseBytes(decodedBytes, valueClass);
           } else if (fromVersion <= supportedForwardVersion) {
-            return migrate(valueClass, decodedBytes, fromVersion, migration);
+            return migrate(valueClass, decodedBytes, fromVersion, migrationInfo.get());
           } else {
             throw new IllegalStateException(
                 "Migration version "
@@ -168,22 +191,99 @@ public final class JsonSupport {
                     + "]");
           }
         } else {
-          return parseBytes(decodedBytes.toByteArray(), valueClass);
+          return parseBytes(decodedBytes, valueClass);
         }
       } catch (JsonProcessingException e) {
         throw jsonProcessingException(valueClass, any, e);
-      } catch (IOException
-          | NoSuchMethodException
-          | InstantiationException
-          | IllegalAccessException
-          | InvocationTargetException e) {
+      } catch (IOException | ReflectiveOperationException e) {
         throw genericDecodeException(valueClass, any, e);
       }
     }
   }
 
   public static <T> T parseBytes(byte[] bytes, Class<T> valueClass) throws IOException {
-    return objectMapper.readValue(bytes, valueClass);
+    return readerFor(valueClass).readValue(bytes);
+  }
+
+  // reads straight from the bytes, without copying them to an array first
+  private static <T> T parseBytes(ByteString bytes, Class<T> valueClass) throws IOException {
+    return readerFor(valueClass).readValue(bytes.newInput());
+  }
+
+  private static ObjectReader readerFor(Class<?> valueClass) {
+    CachedReader cached = readers.get(valueClass);
+    if (cached == null || !cached.isCurrent()) {
+      cached = new CachedReader(valueClass);
+      readers.put(valueClass, cached);
+    }
+    return cached.reader;
+  }
+
+  private static ObjectWriter writerFor(Class<?> valueClass) {
+    CachedWriter cached = writers.get(valueClass);
+    if (cached == null || !cached.isCurrent()) {
+      cached = new CachedWriter(valueClass);
+      writers.put(valueClass, cached);
+    }
+    return cached.writer;
+  }
+
+  private static Optional<MigrationInfo> migrationFor(Class<?> valueClass)
+      throws ReflectiveOperationException {
+    Optional<MigrationInfo> cached = migrations.get(valueClass);
+    if (cached == null) {
+      Migration annotation = valueClass.getAnnotation(Migration.class);
+      if (annotation == null) {
+        cached = Optional.empty();
+      } else {
+        cached = Optional.of(new MigrationInfo(annotation.value().getConstructor().newInstance()));
+      }
+      migrations.put(valueClass, cached);
+    }
+    return cached;
+  }
+
+  private static final class CachedReader {
+    final DeserializationConfig config = objectMapper.getDeserializationConfig();
+    final DeserializationContext context = objectMapper.getDeserializationContext();
+    final ObjectReader reader;
+
+    CachedReader(Class<?> valueClass) {
+      this.reader = objectMapper.readerFor(valueClass);
+    }
+
+    boolean isCurrent() {
+      return config == objectMapper.getDeserializationConfig()
+          && context == objectMapper.getDeserializationContext();
+    }
+  }
+
+  private static final class CachedWriter {
+    final SerializationConfig config = objectMapper.getSerializationConfig();
+    final SerializerFactory factory = objectMapper.getSerializerFactory();
+    final ObjectWriter writer;
+
+    CachedWriter(Class<?> valueClass) {
+      this.writer = objectMapper.writerFor(valueClass);
+    }
+
+    boolean isCurrent() {
+      return config == objectMapper.getSerializationConfig()
+          && factory == objectMapper.getSerializerFactory();
+    }
+  }
+
+  private static final class MigrationInfo {
+    final JsonMigration migration;
+    // migrations that only change versions or class names don't need the JSON tree
+    final boolean transformsJson;
+
+    MigrationInfo(JsonMigration migration) throws NoSuchMethodException {
+      this.migration = migration;
+      this.transformsJson =
+          migration.getClass().getMethod("transform", int.class, JsonNode.class).getDeclaringClass()
+              != JsonMigration.class;
+    }
   }
 
   private static <T> IllegalArgumentException jsonProcessingException(
@@ -209,11 +309,16 @@ public final class JsonSupport {
   }
 
   private static <T> T migrate(
-      Class<T> valueClass, ByteString decodedBytes, int fromVersion, JsonMigration jsonMigration)
+      Class<T> valueClass, ByteString decodedBytes, int fromVersion, MigrationInfo migrationInfo)
       throws IOException {
-    JsonNode jsonNode = objectMapper.readTree(decodedBytes.toByteArray());
-    JsonNode newJsonNode = jsonMigration.transform(fromVersion, jsonNode);
-    return objectMapper.treeToValue(newJsonNode, valueClass);
+    if (!migrationInfo.transformsJson) {
+      // nothing to transform, parse the value directly from the token stream
+      return parseBytes(decodedBytes, valueClass);
+    } else {
+      JsonNode jsonNode = objectMapper.readTree(decodedBytes.newInput());
+      JsonNode newJsonNode = migrationInfo.migration.transform(fromVersion, jsonNode);
+      return readerFor(valueClass).readValue(newJsonNode);
+    }
   }
 
   private static int parseVersion(String typeUrl) {
@@ -242,7 +347,7 @@ public final class JsonSupport {
         ByteString decodedBytes = ByteStringEncoding.decodePrimitiveBytes(any.getValue());
         var typeRef =
             objectMapper.getTypeFactory().constructCollectionType(collectionType, valueClass);
-        return objectMapper.readValue(decodedBytes.toByteArray(), typeRef);
+        return objectMapper.readValue(decodedBytes.newInput(), typeRef);
       } catch (JsonProcessingException e) {
         throw jsonProcessingException(valueClass, any, e);
       } catch (IOException e) {
@@ -378,6 +378,22 @@ public final class Kalix {
     return this;
   }
 
+  /**
+   * Use an accelerated codec for JSON serialized messages, events and state. Instead of accessing
+   * the properties and constructors of the serialized classes through reflection, accessors are
+   * generated for them the first time a class is serialized or deserialized. This makes encoding
+   * and decoding faster once warmed up, at the cost of a slower first use of each class.
+   *
+   * <p>The codec is registered with the shared {@link JsonSupport#getObjectMapper()}, so it is
+   * used for all JSON in the service.
+   *
+   * @return This Kalix instance.
+   */
+  public Kalix withAcceleratedJsonCodec() {
+    JsonSupport.registerAcceleratedCodec();
+    return this;
+  }
+
   /**
    * INTERNAL API - subject to change without notice
    *
@@ -4,6 +4,9 @@
 
 package kalix.javasdk;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import kalix.javasdk.impl.effect.SideEffectImpl;
 
 /** A side effect. */
@@ -35,4 +38,37 @@ public interface SideEffect {
   static SideEffect of(DeferredCall serviceCall) {
     return new SideEffectImpl(serviceCall, false);
   }
+
+  /**
+   * Create side effects of the given service calls, all passing the same metadata. The metadata is
+   * shared by all the side effects and only encoded once, which makes a difference when a command
+   * fans out to many calls.
+   *
+   * @param serviceCalls The service calls to effect.
+   * @param metadata The metadata to pass with every call, replacing the metadata of the calls.
+   * @param synchronous Whether these effects should be executed synchronously.
+   * @return The side effects, in the order of the service calls.
+   */
+  static List<SideEffect> batch(
+      Collection<? extends DeferredCall<?, ?>> serviceCalls, Metadata metadata, boolean synchronous) {
+    List<SideEffect> sideEffects = new ArrayList<>(serviceCalls.size());
+    for (DeferredCall<?, ?> serviceCall : serviceCalls) {
+      sideEffects.add(new SideEffectImpl(serviceCall.withMetadata(metadata), synchronous));
+    }
+    return sideEffects;
+  }
+
+  /**
+   * Create side effects of the given service calls, all passing the same metadata. The metadata is
+   * shared by all the side effects and only encoded once, which makes a difference when a command
+   * fans out to many calls.
+   *
+   * @param serviceCalls The service calls to effect.
+   * @param metadata The metadata to pass with every call, replacing the metadata of the calls.
+   * @return The side effects, in the order of the service calls.
+   */
+  static List<SideEffect> batch(
+      Collection<? extends DeferredCall<?, ?>> serviceCalls, Metadata metadata) {
+    return batch(serviceCalls, metadata, false);
+  }
 }
@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package kalix.javasdk.timer;
+
+import kalix.javasdk.DeferredCall;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * A timer to start or to cancel, as one of many timer operations executed together with {@link
+ * TimerScheduler#execute(java.util.List)}.
+ */
+public interface TimerOperation {
+
+  /** The name of the timer to start or to cancel. */
+  String name();
+
+  /**
+   * Start a single timer, like {@link TimerScheduler#startSingleTimer(String, Duration,
+   * DeferredCall)}.
+   *
+   * @param name unique name for the timer
+   * @param delay delay, starting from now, in which the timer should be triggered
+   * @param deferredCall a call to component that will be executed when the timer is triggered
+   */
+  static <I, O> TimerOperation startSingleTimer(
+      String name, Duration delay, DeferredCall<I, O> deferredCall) {
+    return new StartSingleTimer(name, delay, 0, deferredCall);
+  }
+
+  /**
+   * Start a single timer, like {@link TimerScheduler#startSingleTimer(String, Duration, int,
+   * DeferredCall)}.
+   *
+   * @param name unique name for the timer
+   * @param delay delay, starting from now, in which the timer should be triggered
+   * @param maxRetries Retry up to this many times before giving up
+   * @param deferredCall a call to component that will be executed when the timer is triggered
+   */
+  static <I, O> TimerOperation startSingleTimer(
+      String name, Duration delay, int maxRetries, DeferredCall<I, O> deferredCall) {
+    return new StartSingleTimer(name, delay, maxRetries, deferredCall);
+  }
+
+  /** Cancel an existing timer, like {@link TimerScheduler#cancel(String)}. */
+  static TimerOperation cancel(String name) {
+    return new Cancel(name);
+  }
+
+  final class StartSingleTimer implements TimerOperation {
+    private final String name;
+    private final Duration delay;
+    private final int maxRetries;
+    private final DeferredCall<?, ?> deferredCall;
+
+    private StartSingleTimer(
+        String name, Duration delay, int maxRetries, DeferredCall<?, ?> deferredCall) {
+      this.name = Objects.requireNonNull(name, "name must not be null");
+      this.delay = Objects.requireNonNull(delay, "delay must not be null");
+      this.maxRetries = maxRetries;
+      this.deferredCall = Objects.requireNonNull(deferredCall, "deferredCall must not be null");
+    }
+
+    @Override
+    public String name() {
+      return name;
+    }
+
+    public Duration delay() {
+      return delay;
+    }
+
+    public int maxRetries() {
+      return maxRetries;
+    }
+
+    public DeferredCall<?, ?> deferredCall() {
+      return deferredCall;
+    }
+
+    @Override
+    public String toString() {
+      return "StartSingleTimer(" + name + ", " + delay + ", " + maxRetries + ")";
+    }
+  }
+
+  final class Cancel implements TimerOperation {
+    private final String name;
+
+    private Cancel(String name) {
+      this.name = Objects.requireNonNull(name, "name must not be null");
+    }
+
+    @Override
+    public String name() {
+      return name;
+    }
+
+    @Override
+    public String toString() {
+      return "Cancel(" + name + ")";
+    }
+  }
+}
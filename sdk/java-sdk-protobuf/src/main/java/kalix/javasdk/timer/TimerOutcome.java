@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package kalix.javasdk.timer;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/** The outcome of one of the timer operations executed with {@link TimerScheduler#execute}. */
+public final class TimerOutcome {
+  private final TimerOperation operation;
+  private final Optional<Throwable> failure;
+
+  private TimerOutcome(TimerOperation operation, Optional<Throwable> failure) {
+    this.operation = Objects.requireNonNull(operation, "operation must not be null");
+    this.failure = failure;
+  }
+
+  public static TimerOutcome success(TimerOperation operation) {
+    return new TimerOutcome(operation, Optional.empty());
+  }
+
+  public static TimerOutcome failure(TimerOperation operation, Throwable cause) {
+    return new TimerOutcome(operation, Optional.of(cause));
+  }
+
+  /** The timer operation this is the outcome of. */
+  public TimerOperation operation() {
+    return operation;
+  }
+
+  /** Whether the timer was started or cancelled. */
+  public boolean isSuccess() {
+    return failure.isEmpty();
+  }
+
+  /** The reason the timer could not be started or cancelled, if it failed. */
+  public Optional<Throwable> failure() {
+    return failure;
+  }
+
+  @Override
+  public String toString() {
+    return failure
+        .map(cause -> "TimerOutcome(" + operation + ", failed: " + cause + ")")
+        .orElseGet(() -> "TimerOutcome(" + operation + ", succeeded)");
+  }
+}
@@ -8,6 +8,10 @@ import akka.Done;
 import kalix.javasdk.DeferredCall;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
 
 public interface TimerScheduler {
@@ -60,4 +64,62 @@ public interface TimerScheduler {
    * name.
    */
   CompletionStage<Done> cancel(String name);
+
+  /**
+   * Start and cancel many timers at once, for example one timer for each item of an order.
+   *
+   * <p>The timer scheduler provided by Kalix sends the operations without waiting for each one to
+   * complete, with a limited number of operations in flight at any time (configured with {@code
+   * kalix.timer.batch-parallelism}). Operations for the same timer name are not ordered relative to
+   * each other, so each name should appear at most once. The default implementation runs the
+   * operations one after the other with {@link #startSingleTimer(String, Duration, int,
+   * DeferredCall)} and {@link #cancel(String)}.
+   *
+   * @param operations the timers to start or to cancel
+   * @return a {@link CompletionStage} that completes when all operations have completed, with the
+   *     outcome of each operation in the same order as the operations. The stage itself does not
+   *     fail when individual operations fail.
+   */
+  default CompletionStage<List<TimerOutcome>> execute(List<TimerOperation> operations) {
+    CompletionStage<List<TimerOutcome>> result =
+        CompletableFuture.completedFuture(new ArrayList<>(operations.size()));
+    for (TimerOperation operation : operations) {
+      result =
+          result.thenCompose(
+              outcomes ->
+                  startOrCancel(operation)
+                      .handle(
+                          (done, failure) -> {
+                            if (failure == null) {
+                              outcomes.add(TimerOutcome.success(operation));
+                            } else {
+                              Throwable cause =
+                                  failure instanceof CompletionException
+                                      ? failure.getCause()
+                                      : failure;
+                              outcomes.add(TimerOutcome.failure(operation, cause));
+                            }
+                            return outcomes;
+                          }));
+    }
+    return result;
+  }
+
+  private CompletionStage<Done> startOrCancel(TimerOperation operation) {
+    try {
+      if (operation instanceof TimerOperation.StartSingleTimer) {
+        TimerOperation.StartSingleTimer start = (TimerOperation.StartSingleTimer) operation;
+        return startSingleTimer(
+            start.name(), start.delay(), start.maxRetries(), start.deferredCall());
+      } else if (operation instanceof TimerOperation.Cancel) {
+        return cancel(operation.name());
+      } else {
+        return CompletableFuture.failedFuture(
+            new IllegalArgumentException(
+                "Unknown TimerOperation implementation " + operation.getClass()));
+      }
+    } catch (RuntimeException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+  }
 }
@@ -15,10 +15,10 @@ import kalix.javasdk.workflow.AbstractWorkflow.RecoverStrategy.MaxRetries;
 
 import java.time.Duration;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
 import java.util.concurrent.CompletionStage;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -335,7 +335,7 @@ public abstract class AbstractWorkflow<S> {
 
     private final List<Step> steps = new ArrayList<>();
     private final List<StepConfig> stepConfigs = new ArrayList<>();
-    private final Set<String> uniqueNames = new HashSet<>();
+    private final Map<String, Step> stepsByName = new HashMap<>();
     private Optional<Duration> workflowTimeout = Optional.empty();
     private Optional<String> failoverStepName = Optional.empty();
     private Optional<Object> failoverStepInput = Optional.empty();
@@ -346,7 +346,7 @@ public abstract class AbstractWorkflow<S> {
     private WorkflowDef() {}
 
     public Optional<Step> findByName(String name) {
-      return steps.stream().filter(s -> s.name().equals(name)).findFirst();
+      return Optional.ofNullable(stepsByName.get(name));
     }
 
     /**
@@ -378,12 +378,12 @@ public abstract class AbstractWorkflow<S> {
     }
 
     private void addStepWithValidation(Step step) {
-      if (uniqueNames.contains(step.name()))
+      if (stepsByName.containsKey(step.name()))
         throw new IllegalArgumentException(
             "Name '" + step.name() + "' is already in use by another step in this workflow");
 
       this.steps.add(step);
-      this.uniqueNames.add(step.name());
+      this.stepsByName.put(step.name(), step);
     }
 
     /**
@@ -25,7 +25,9 @@ import com.typesafe.config.Config
 import com.typesafe.config.ConfigFactory
 import kalix.devtools.impl.DevModeSettings
 import kalix.devtools.impl.DockerComposeUtils
+import kalix.javasdk.impl.DeferredCallCoalescing
 import kalix.javasdk.impl.DiscoveryImpl
+import kalix.javasdk.impl.ExecutionMode
 import kalix.javasdk.impl.Service
 import kalix.javasdk.impl.telemetry.PrometheusExporter
 import kalix.javasdk.impl.action.ActionService
@@ -81,7 +83,7 @@ object KalixRunner {
 
   private[kalix] def prepareConfig(config: Config): Config = {
     val mainConfig = config.getConfig("kalix.system").withFallback(config)
-    DevModeSettings.addDevModeConfig(mainConfig)
+    ExecutionMode.addExecutionModeConfig(DevModeSettings.addDevModeConfig(mainConfig))
   }
 
   private def loadPreparedConfig(): Config = prepareConfig(ConfigFactory.load())
@@ -223,6 +225,8 @@ final class KalixRunner private[javasdk] (
     logJvmInfo()
 
     PrometheusExporter.start(system)
+    ExecutionMode.start(system)
+    DeferredCallCoalescing.start(system)
 
     // start containers if application (only possible when running locally)
     dockerComposeUtils.foreach { dcu =>
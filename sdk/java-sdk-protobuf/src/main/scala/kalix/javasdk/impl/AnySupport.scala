@@ -6,6 +6,7 @@ package kalix.javasdk.impl
 
 import java.io.ByteArrayOutputStream
 import java.util.Locale
+import java.util.concurrent.ConcurrentHashMap
 import scala.collection.concurrent.TrieMap
 import scala.jdk.CollectionConverters._
 import scala.reflect.ClassTag
@@ -147,19 +148,17 @@ object AnySupport {
       UnsafeByteOperations.unsafeWrap(baos.toByteArray)
     } else ByteString.EMPTY
 
-  private def bytesToPrimitive[T](primitive: Primitive[T], bytes: ByteString) = {
+  private def bytesToPrimitive[T](primitive: Primitive[T], bytes: ByteString): T = {
     val stream = bytes.newCodedInput()
-    if (LazyList
-        .continually(stream.readTag())
-        .takeWhile(_ != 0)
-        .exists { tag =>
-          if (primitive.tag != tag) {
-            stream.skipField(tag)
-            false
-          } else true
-        }) {
-      primitive.read(stream)
-    } else primitive.defaultValue
+    // read bytes values as a view of the input rather than a copy
+    stream.enableAliasing(true)
+    var tag = stream.readTag()
+    while (tag != 0 && tag != primitive.tag) {
+      stream.skipField(tag)
+      tag = stream.readTag()
+    }
+    if (tag != 0) primitive.read(stream)
+    else primitive.defaultValue
   }
 
   /**
@@ -212,6 +211,10 @@ class AnySupport(
 
   private val reflectionCache = TrieMap.empty[String, Try[ResolvedType[Any]]]
 
+  // Resolved types by full type url, as seen in incoming messages. String.equals checks identity before comparing the
+  // contents, so a type url instance that has been seen before is found without looking at the characters.
+  private val typeUrlCache = new ConcurrentHashMap[String, ResolvedType[Any]]()
+
   private def strippedFileName(fileName: String) =
     fileName.split(Array('/', '\\')).last.stripSuffix(".proto")
 
@@ -336,9 +339,41 @@ class AnySupport(
         resolveTypeDescriptor(method.getOutputType))
     }.toMap
 
-  private def resolveTypeUrl(typeName: String): Option[ResolvedType[_]] =
+  private def resolveTypeUrl(typeName: String): Option[ResolvedType[Any]] =
     allTypes.get(typeName).map(resolveTypeDescriptor)
 
+  private def resolveFullTypeUrl(typeUrl: String): ResolvedType[Any] = {
+    val cached = typeUrlCache.get(typeUrl)
+    if (cached ne null) cached
+    else {
+      // only types that could be resolved are cached, so that unknown type urls can't grow the cache
+      val typeName = typeUrl.split("/", 2) match {
+        case Array(host, typeName) =>
+          if (host != typeUrlPrefix) {
+            log.warn(
+              "Message type [{}] does not match configured type url prefix [{}]",
+              typeUrl: Any,
+              typeUrlPrefix: Any)
+          }
+          typeName
+        case _ =>
+          log.warn(
+            "Message type [{}] does not have a url prefix, it should have one that matches the configured type url prefix [{}]",
+            typeUrl: Any,
+            typeUrlPrefix: Any)
+          typeUrl
+      }
+
+      resolveTypeUrl(typeName) match {
+        case Some(resolvedType) =>
+          typeUrlCache.putIfAbsent(typeUrl, resolvedType)
+          resolvedType
+        case None =>
+          throw SerializationException("Unable to find descriptor for type: " + typeUrl)
+      }
+    }
+  }
+
   def encodeJava(value: Any): JavaPbAny =
     value match {
       case javaPbAny: JavaPbAny   => javaPbAny
@@ -446,33 +481,12 @@ class AnySupport(
       any
     } else {
       // wrapped concrete protobuf message, parse into the right type
-      val typeName = typeUrl.split("/", 2) match {
-        case Array(host, typeName) =>
-          if (host != typeUrlPrefix) {
-            log.warn(
-              "Message type [{}] does not match configured type url prefix [{}]",
-              typeUrl: Any,
-              typeUrlPrefix: Any)
-          }
-          typeName
-        case _ =>
-          log.warn(
-            "Message type [{}] does not have a url prefix, it should have one that matches the configured type url prefix [{}]",
-            typeUrl: Any,
-            typeUrlPrefix: Any)
-          typeUrl
-      }
-
-      resolveTypeUrl(typeName) match {
-        case Some(parser) =>
-          try {
-            parser.parseFrom(any.value)
-          } catch {
-            case ex: scalapb.validate.FieldValidationException =>
-              throw BadRequestException(ex.getMessage)
-          }
-        case None =>
-          throw SerializationException("Unable to find descriptor for type: " + typeUrl)
+      val parser = resolveFullTypeUrl(typeUrl)
+      try {
+        parser.parseFrom(any.value)
+      } catch {
+        case ex: scalapb.validate.FieldValidationException =>
+          throw BadRequestException(ex.getMessage)
       }
     }
   }
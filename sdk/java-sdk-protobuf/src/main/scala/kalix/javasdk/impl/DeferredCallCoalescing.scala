@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package kalix.javasdk.impl
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionStage
+import java.util.concurrent.ConcurrentHashMap
+
+import scala.concurrent.duration.FiniteDuration
+import scala.jdk.CollectionConverters._
+import scala.jdk.DurationConverters._
+import scala.util.control.NonFatal
+
+import akka.actor.ActorSystem
+import com.google.protobuf.ByteString
+import com.google.protobuf.MessageLite
+import com.typesafe.config.Config
+import io.prometheus.client.Counter
+import kalix.javasdk.impl.telemetry.TraceInstrumentation
+import kalix.protocol.component.MetadataEntry
+import org.slf4j.LoggerFactory
+import scalapb.GeneratedMessage
+
+/**
+ * INTERNAL API
+ *
+ * Shares one call between identical deferred calls executed concurrently, for the methods configured in
+ * `kalix.deferred-call.coalesce`. Calls are identical when they are to the same method with the same encoded message
+ * and metadata, apart from the trace context. A successful result can also be reused for a short time after the call
+ * completed.
+ */
+private[kalix] final class DeferredCallCoalescing(
+    private val methods: Map[String, FiniteDuration],
+    cacheMaxEntries: Int) {
+  import DeferredCallCoalescing._
+
+  private val inFlight = new ConcurrentHashMap[CallKey, CompletableFuture[AnyRef]]()
+  private val cache = new ConcurrentHashMap[CallKey, CachedResult]()
+  private val ttls = methods.map { case (method, ttl) => method -> ttl.toNanos }
+
+  def isEnabled: Boolean = methods.nonEmpty
+
+  def execute[O](call: GrpcDeferredCall[_, O])(run: => CompletionStage[O]): CompletionStage[O] = {
+    val method = s"${call.fullServiceName}.${call.methodName}"
+    val coalescible = if (ttls.contains(method)) callKey(method, call) else None
+    coalescible match {
+      case Some(key) =>
+        coalesce(key, ttls(method), () => run.asInstanceOf[CompletionStage[AnyRef]]).asInstanceOf[CompletionStage[O]]
+      case None => run
+    }
+  }
+
+  private def coalesce(key: CallKey, ttl: Long, run: () => CompletionStage[AnyRef]): CompletionStage[AnyRef] = {
+    val cached = if (ttl > 0) cache.get(key) else null
+    if (cached != null && cached.expires - System.nanoTime() > 0) {
+      Calls.labels(key.method, "cached").inc()
+      CompletableFuture.completedFuture(cached.result)
+    } else {
+      val promise = new CompletableFuture[AnyRef]()
+      val existing = inFlight.putIfAbsent(key, promise)
+      if (existing ne null) {
+        Calls.labels(key.method, "coalesced").inc()
+        // a copy, so that callers can't complete the shared call
+        existing.copy()
+      } else {
+        Calls.labels(key.method, "executed").inc()
+        val result =
+          try run()
+          catch {
+            case NonFatal(ex) => CompletableFuture.failedFuture[AnyRef](ex)
+          }
+        result.whenComplete { (value: AnyRef, error: Throwable) =>
+          if (error eq null) {
+            if (ttl > 0) cacheResult(key, value, System.nanoTime() + ttl)
+            inFlight.remove(key, promise)
+            promise.complete(value)
+          } else {
+            inFlight.remove(key, promise)
+            promise.completeExceptionally(error)
+          }
+        }
+        promise.copy()
+      }
+    }
+  }
+
+  private def cacheResult(key: CallKey, result: AnyRef, expires: Long): Unit = {
+    if (cache.size >= cacheMaxEntries) {
+      val now = System.nanoTime()
+      cache.entrySet().removeIf(_.getValue.expires - now <= 0)
+    }
+    if (cache.size < cacheMaxEntries) cache.put(key, CachedResult(result, expires))
+  }
+}
+
+/**
+ * INTERNAL API
+ */
+private[kalix] object DeferredCallCoalescing {
+  val ConfigPath = "kalix.deferred-call"
+
+  private val log = LoggerFactory.getLogger(classOf[DeferredCallCoalescing])
+
+  val Disabled = new DeferredCallCoalescing(Map.empty, 0)
+
+  private val Calls: Counter = Counter
+    .build()
+    .name("kalix_deferred_call_coalescing_total")
+    .help("Number of deferred calls to methods with coalescing, by whether they were executed, coalesced with an " +
+    "identical call in flight, or answered from the cache.")
+    .labelNames("method", "result")
+    .register()
+
+  final private case class CallKey(method: String, message: ByteString, metadata: Seq[MetadataEntry])
+
+  final private case class CachedResult(result: AnyRef, expires: Long)
+
+  /**
+   * The deferred calls are created by generated code that doesn't have access to the actor system, so the coalescing
+   * for the running service is kept here.
+   */
+  @volatile private var _current: DeferredCallCoalescing = Disabled
+
+  def current: DeferredCallCoalescing = _current
+
+  def apply(config: Config): DeferredCallCoalescing = {
+    val coalesce = config.getConfig(s"$ConfigPath.coalesce")
+    val methods = coalesce.root.keySet.asScala.map { method =>
+      method -> coalesce.getDuration(s""""$method"""").toScala
+    }.toMap
+    new DeferredCallCoalescing(methods, config.getInt(s"$ConfigPath.cache-max-entries"))
+  }
+
+  def start(system: ActorSystem): Unit = {
+    val coalescing = DeferredCallCoalescing(system.settings.config)
+    if (coalescing.isEnabled) {
+      log.debug("Coalescing identical deferred calls to [{}]", coalescing.methods.keys.mkString(", "))
+      _current = coalescing
+      system.registerOnTermination {
+        if (_current eq coalescing) _current = Disabled
+      }
+    }
+  }
+
+  /** The key for calls that can be coalesced, only calls with a protobuf message can. */
+  private def callKey(method: String, call: GrpcDeferredCall[_, _]): Option[CallKey] = {
+    val message = call.message match {
+      case javaMessage: MessageLite       => javaMessage.toByteString
+      case scalaMessage: GeneratedMessage => scalaMessage.toByteString
+      case _                              => null
+    }
+    if (message eq null) None
+    else Some(CallKey(method, message, call.metadata.entries.filterNot(entry => isTraceContext(entry.key))))
+  }
+
+  private def isTraceContext(key: String): Boolean =
+    key.equalsIgnoreCase(TraceInstrumentation.TRACE_PARENT_KEY) ||
+    key.equalsIgnoreCase(TraceInstrumentation.TRACE_STATE_KEY)
+}
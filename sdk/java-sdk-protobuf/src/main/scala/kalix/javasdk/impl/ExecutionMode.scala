@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package kalix.javasdk.impl
+
+import java.util.function.Consumer
+
+import scala.util.control.NonFatal
+
+import akka.actor.ActorSystem
+import com.typesafe.config.Config
+import com.typesafe.config.ConfigFactory
+import io.prometheus.client.Counter
+import io.prometheus.client.Gauge
+import kalix.javasdk.impl.telemetry.PrometheusExporter
+import org.slf4j.LoggerFactory
+
+/**
+ * INTERNAL API
+ *
+ * How blocking user code is run. Entity, workflow and view streams always run on the `kalix.sdk-dispatcher`, a small
+ * platform thread pool, since their handlers are expected to be short and must not block. Action handlers, which often
+ * block on calls to other systems, run on the `kalix.sdk-action-dispatcher`, which uses virtual threads when the
+ * execution mode is [[ExecutionMode.VirtualThreads]].
+ */
+private[kalix] sealed abstract class ExecutionMode(val name: String)
+
+/**
+ * INTERNAL API
+ */
+private[kalix] object ExecutionMode {
+  case object PlatformThreads extends ExecutionMode("platform-threads")
+  case object VirtualThreads extends ExecutionMode("virtual-threads")
+
+  val ConfigPath = "kalix.execution-mode"
+  private val ActionDispatcherExecutorPath = s"${SdkExecutionContext.ActionDispatcherName}.executor"
+  private val SdkDispatcherExecutorPath = s"${SdkExecutionContext.DispatcherName}.executor"
+  private val VirtualThreadExecutor = "virtual-thread-executor"
+
+  /** The first JDK with virtual threads. */
+  private val VirtualThreadsJdk = 21
+
+  /** The first JDK where blocking in a synchronized block no longer pins the carrier thread, see JEP 491. */
+  private val NoSynchronizedPinningJdk = 24
+
+  private val log = LoggerFactory.getLogger(getClass)
+
+  private val Mode: Gauge = Gauge
+    .build()
+    .name("kalix_execution_mode")
+    .help("The execution mode for blocking user code, 1 for the mode in use.")
+    .labelNames("mode", "jdk_version")
+    .register()
+
+  private val PinnedThreads: Counter = Counter
+    .build()
+    .name("kalix_virtual_thread_pinned_total")
+    .help("Number of times a virtual thread blocked while pinned to its carrier thread.")
+    .register()
+
+  def jdkVersion: Int = Runtime.version().feature()
+
+  /**
+   * The mode for the configured `kalix.execution-mode` on the given JDK. `auto` only picks virtual threads when there
+   * is no risk of pinning carrier threads in synchronized blocks, which a lot of blocking libraries, like JDBC drivers,
+   * still use.
+   */
+  def resolve(configured: String, jdkVersion: Int): ExecutionMode =
+    configured match {
+      case "auto"               => if (jdkVersion >= NoSynchronizedPinningJdk) VirtualThreads else PlatformThreads
+      case PlatformThreads.name => PlatformThreads
+      case VirtualThreads.name  => if (jdkVersion >= VirtualThreadsJdk) VirtualThreads else PlatformThreads
+      case other =>
+        throw new IllegalArgumentException(
+          s"Unknown $ConfigPath [$other], must be one of [auto, ${PlatformThreads.name}, ${VirtualThreads.name}]")
+    }
+
+  def apply(config: Config): ExecutionMode =
+    resolve(configuredMode(config), jdkVersion)
+
+  /**
+   * The configured mode, with `auto` taken as `virtual-threads` when the `kalix.sdk-dispatcher` was switched to virtual
+   * threads, which is how actions were run on virtual threads before there was an execution mode.
+   */
+  private[impl] def configuredMode(config: Config): String = {
+    val configured = if (config.hasPath(ConfigPath)) config.getString(ConfigPath) else PlatformThreads.name
+    if (configured == "auto" && legacyVirtualThreads(config)) VirtualThreads.name
+    else configured
+  }
+
+  private def legacyVirtualThreads(config: Config): Boolean =
+    config.hasPath(SdkDispatcherExecutorPath) && config.getString(SdkDispatcherExecutorPath) == VirtualThreadExecutor
+
+  /**
+   * Switches the action dispatcher to virtual threads if that is the resolved mode, to be applied to the config before
+   * the actor system is created.
+   */
+  def addExecutionModeConfig(config: Config): Config =
+    ExecutionMode(config) match {
+      case VirtualThreads =>
+        ConfigFactory.parseString(s"""$ActionDispatcherExecutorPath = "$VirtualThreadExecutor"""").withFallback(config)
+      case PlatformThreads =>
+        config
+    }
+
+  /**
+   * Logs the execution mode, exposes it as a metric and, when running on virtual threads with metrics enabled, starts
+   * counting carrier thread pinning.
+   */
+  def start(system: ActorSystem): Unit = {
+    val config = system.settings.config
+    val jdk = jdkVersion
+    val mode = ExecutionMode(config)
+    if (legacyVirtualThreads(config))
+      log.warn(
+        "{} = {} is deprecated, set {} = {} to run actions on virtual threads. The {} now only runs entity, " +
+        "workflow and view streams, which run on virtual threads with this setting.",
+        SdkDispatcherExecutorPath,
+        VirtualThreadExecutor,
+        ConfigPath,
+        VirtualThreads.name,
+        SdkExecutionContext.DispatcherName)
+    if (configuredMode(config) == VirtualThreads.name && mode != VirtualThreads)
+      log.warn(
+        "{} requires JDK {} or later, running on JDK {} with platform threads",
+        ConfigPath,
+        VirtualThreadsJdk,
+        jdk)
+    else if (mode == VirtualThreads && jdk < NoSynchronizedPinningJdk)
+      log.warn(
+        "Running actions on virtual threads on JDK {}, blocking in synchronized blocks pins the carrier thread " +
+        "until JDK {}, check the kalix_virtual_thread_pinned_total metric",
+        jdk,
+        NoSynchronizedPinningJdk)
+    log.debug("Execution mode [{}] on JDK {}", mode.name, jdk)
+
+    Mode.labels(mode.name, jdk.toString).set(1)
+    if (mode == VirtualThreads && PrometheusExporter.Settings(config).enabled)
+      startPinnedThreadCounter(system)
+  }
+
+  /**
+   * Counts the JFR `jdk.VirtualThreadPinned` events. The JFR streaming API is looked up reflectively since the SDK is
+   * compiled for JDK 11.
+   */
+  private def startPinnedThreadCounter(system: ActorSystem): Unit =
+    try {
+      val streamClass = Class.forName("jdk.jfr.consumer.RecordingStream")
+      val stream = streamClass.getConstructor().newInstance().asInstanceOf[AutoCloseable]
+      streamClass.getMethod("enable", classOf[String]).invoke(stream, "jdk.VirtualThreadPinned")
+      val onPinned: Consumer[AnyRef] = _ => PinnedThreads.inc()
+      streamClass
+        .getMethod("onEvent", classOf[String], classOf[Consumer[_]])
+        .invoke(stream, "jdk.VirtualThreadPinned", onPinned)
+      streamClass.getMethod("startAsync").invoke(stream)
+      system.registerOnTermination(stream.close())
+    } catch {
+      case NonFatal(ex) =>
+        log.warn("Could not start counting virtual thread pinning: {}", ex.toString)
+    }
+}
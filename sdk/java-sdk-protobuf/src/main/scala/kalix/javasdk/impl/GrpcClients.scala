@@ -6,10 +6,12 @@ package kalix.javasdk.impl
 
 import java.util.concurrent.ConcurrentHashMap
 import java.util.concurrent.Executor
+import java.util.concurrent.atomic.AtomicInteger
 import scala.concurrent.ExecutionContext
 import scala.concurrent.Future
 import scala.jdk.CollectionConverters._
 import scala.jdk.FutureConverters._
+import scala.util.control.NonFatal
 import akka.Done
 import akka.actor.ActorSystem
 import akka.actor.ClassicActorSystemProvider
@@ -18,11 +20,21 @@ import akka.actor.ExtendedActorSystem
 import akka.actor.Extension
 import akka.actor.ExtensionId
 import akka.actor.ExtensionIdProvider
+import akka.grpc.GrpcChannel
 import akka.grpc.GrpcClientSettings
 import akka.grpc.javadsl.{ AkkaGrpcClient => AkkaGrpcJavaClient }
 import akka.grpc.scaladsl.{ AkkaGrpcClient => AkkaGrpcScalaClient }
 import io.grpc.CallCredentials
+import io.grpc.CallOptions
+import io.grpc.Channel
+import io.grpc.ClientCall
+import io.grpc.ClientInterceptor
+import io.grpc.ForwardingClientCall
+import io.grpc.ForwardingClientCallListener
 import io.grpc.Metadata
+import io.grpc.MethodDescriptor
+import io.grpc.Status
+import io.prometheus.client.Gauge
 import kalix.javasdk.impl.backoffice.BackofficeServiceSupport
 import kalix.protocol.discovery.{ BackofficeService, BackofficeSettings }
 import org.slf4j.LoggerFactory
@@ -40,6 +52,109 @@ object GrpcClients extends ExtensionId[GrpcClients] with ExtensionIdProvider {
   override def lookup: ExtensionId[_ <: Extension] = this
 
   final private case class Key(serviceClass: Class[_], service: String, port: Int, addHeader: Option[(String, String)])
+
+  /** The channels to one target are shared by the clients for all gRPC services of that target. */
+  final private case class ChannelKey(service: String, port: Int, addHeader: Option[(String, String)])
+
+  private val InFlightCalls: Gauge = Gauge
+    .build()
+    .name("kalix_grpc_client_in_flight_calls")
+    .help("Number of gRPC calls in flight on each channel to another service or the Kalix Runtime.")
+    .labelNames("target", "channel")
+    .register()
+
+  private[impl] sealed trait ChannelSelection
+  private[impl] object ChannelSelection {
+    case object RoundRobin extends ChannelSelection
+    case object LeastOutstanding extends ChannelSelection
+
+    def apply(name: String): ChannelSelection =
+      name match {
+        case "round-robin"       => RoundRobin
+        case "least-outstanding" => LeastOutstanding
+        case other =>
+          throw new IllegalArgumentException(
+            s"Unknown kalix.cross-service.channel-selection [$other], must be one of [round-robin, least-outstanding]")
+      }
+  }
+
+  /**
+   * The index of the channel with the fewest calls in flight, out of `size` channels. Ties go to the first channel
+   * from `start` on, so that idle channels are still picked in turn.
+   */
+  private[impl] def leastOutstanding(size: Int, start: Int)(inFlight: Int => Int): Int = {
+    var selected = start
+    var i = 1
+    while (i < size) {
+      val candidate = (start + i) % size
+      if (inFlight(candidate) < inFlight(selected)) selected = candidate
+      i += 1
+    }
+    selected
+  }
+
+  private final class PooledChannel(val channel: GrpcChannel, val inFlight: AtomicInteger) {
+    private val clients = new ConcurrentHashMap[Class[_], AnyRef]()
+
+    def client(serviceClass: Class[_], create: GrpcChannel => AnyRef): AnyRef =
+      clients.computeIfAbsent(serviceClass, _ => create(channel))
+  }
+
+  private final class ChannelPool(channels: Vector[PooledChannel], selection: ChannelSelection) {
+    private val next = new AtomicInteger()
+
+    def select(): PooledChannel =
+      if (channels.size == 1) channels.head
+      else {
+        val start = (next.getAndIncrement() & Int.MaxValue) % channels.size
+        selection match {
+          case ChannelSelection.RoundRobin => channels(start)
+          case ChannelSelection.LeastOutstanding =>
+            channels(leastOutstanding(channels.size, start)(channels(_).inFlight.get))
+        }
+      }
+
+    def closed(implicit ec: ExecutionContext): Future[Done] =
+      Future.firstCompletedOf(channels.map(_.channel.closed()))
+
+    def close()(implicit ec: ExecutionContext): Future[Done] =
+      Future.traverse(channels)(_.channel.close()).map(_ => Done)
+  }
+
+  /** Counts the calls started on a channel until they are closed. */
+  private final class InFlightInterceptor(inFlight: AtomicInteger, gauge: Gauge.Child) extends ClientInterceptor {
+    override def interceptCall[ReqT, RespT](
+        method: MethodDescriptor[ReqT, RespT],
+        callOptions: CallOptions,
+        next: Channel): ClientCall[ReqT, RespT] =
+      new ForwardingClientCall.SimpleForwardingClientCall[ReqT, RespT](next.newCall(method, callOptions)) {
+        override def start(responseListener: ClientCall.Listener[RespT], headers: Metadata): Unit = {
+          started()
+          val listener = new ForwardingClientCallListener.SimpleForwardingClientCallListener[RespT](responseListener) {
+            override def onClose(status: Status, trailers: Metadata): Unit = {
+              completed()
+              super.onClose(status, trailers)
+            }
+          }
+          try super.start(listener, headers)
+          catch {
+            case NonFatal(ex) =>
+              completed()
+              throw ex
+          }
+        }
+      }
+
+    private def started(): Unit = {
+      inFlight.incrementAndGet()
+      gauge.inc()
+    }
+
+    private def completed(): Unit = {
+      inFlight.decrementAndGet()
+      gauge.dec()
+    }
+  }
 }
 
 /**
@@ -52,8 +167,16 @@ final class GrpcClients(system: ExtendedActorSystem) extends Extension {
   private val proxyInfoHolder = ProxyInfoHolder(system)
   private implicit val ec: ExecutionContext = system.dispatcher
   private val clients = new ConcurrentHashMap[Key, AnyRef]()
+  private val channelPools = new ConcurrentHashMap[ChannelKey, ChannelPool]()
+  private val channelClientFactories = new ConcurrentHashMap[Class[_], Option[GrpcChannel => AnyRef]]()
   private val MaxCrossServiceResponseContentLength =
     system.settings.config.getBytes("kalix.cross-service.max-content-length").toInt
+  private val ChannelsPerTarget = system.settings.config.getInt("kalix.cross-service.channels-per-target")
+  private val Selection = ChannelSelection(system.settings.config.getString("kalix.cross-service.channel-selection"))
+
+  if (ChannelsPerTarget < 1)
+    throw new IllegalArgumentException(
+      s"kalix.cross-service.channels-per-target must be at least 1, was [$ChannelsPerTarget]")
 
   @volatile
   private var _backofficeServiceConfig: Option[Map[String, BackofficeService]] = None
@@ -67,6 +190,7 @@ final class GrpcClients(system: ExtendedActorSystem) extends Extension {
           // should never happen, but needs to make compiler happy
           throw new IllegalStateException("Unknown gRPC client")
       }
+      .zip(Future.traverse(channelPools.values().asScala)(_.close()))
       .map(_ => Done))
 
   def getComponentGrpcClient[T](serviceClass: Class[T]): T = {
@@ -120,43 +244,53 @@ final class GrpcClients(system: ExtendedActorSystem) extends Extension {
   def getGrpcClient[T](serviceClass: Class[T], service: String, port: Int, impersonate: String): T =
     getGrpcClient(serviceClass, service, port, Some("impersonate-kalix-service" -> impersonate))
 
+  /**
+   * Clients are created on one of the pooled channels to the target, picked on each lookup. Clients that can't be
+   * created on a channel get their own channel, one per service class and target.
+   */
   private def getGrpcClient[T](
       serviceClass: Class[T],
       service: String,
       port: Int,
       addHeader: Option[(String, String)]) = {
-    clients.computeIfAbsent(Key(serviceClass, service, port, addHeader), createClient(_)).asInstanceOf[T]
+    channelClientFactories.computeIfAbsent(serviceClass, channelClientFactory(_)) match {
+      case Some(create) =>
+        val pool = channelPools.computeIfAbsent(ChannelKey(service, port, addHeader), createChannelPool(_))
+        pool.select().client(serviceClass, create).asInstanceOf[T]
+      case None =>
+        clients.computeIfAbsent(Key(serviceClass, service, port, addHeader), createClient(_)).asInstanceOf[T]
+    }
   }
 
-  private def createClient(key: Key): AnyRef = {
-    val settings = _backofficeServiceConfig.flatMap(_.get(key.service)) match {
-      case Some(service) =>
+  private def clientSettings(service: String, port: Int, addHeader: Option[(String, String)]): GrpcClientSettings =
+    _backofficeServiceConfig.flatMap(_.get(service)) match {
+      case Some(backofficeService) =>
         log.debug(
           "Creating gRPC client for Kalix service [{}] through backoffice [{}] for service [{}] in project [{}]",
-          key.service,
-          service.backofficeProxyHost,
-          service.serviceName,
-          service.projectId)
+          service,
+          backofficeService.backofficeProxyHost,
+          backofficeService.serviceName,
+          backofficeService.projectId)
         BackofficeServiceSupport
-          .grpcClientFor(key.service, service, system)
+          .grpcClientFor(service, backofficeService, system)
           .withChannelBuilderOverrides(channelBuilder =>
             channelBuilder.maxInboundMessageSize(MaxCrossServiceResponseContentLength))
       case None =>
-        val settings = if (!system.settings.config.hasPath(s"""akka.grpc.client."${key.service}"""")) {
+        val settings = if (!system.settings.config.hasPath(s"""akka.grpc.client."$service"""")) {
           // "service" is not present in the config, treat it as an Akka gRPC inter-service call
-          log.debug("Creating gRPC client for Kalix service [{}:{}]", key.service, key.port)
+          log.debug("Creating gRPC client for Kalix service [{}:{}]", service, port)
           GrpcClientSettings
-            .connectToServiceAt(key.service, key.port)(system)
+            .connectToServiceAt(service, port)(system)
             // (TLS is handled for us by Kalix infra)
             .withTls(false)
             .withChannelBuilderOverrides(channelBuilder =>
               channelBuilder.maxInboundMessageSize(MaxCrossServiceResponseContentLength))
         } else {
-          log.debug("Creating gRPC client for external service [{}]", key.service)
+          log.debug("Creating gRPC client for external service [{}]", service)
           // external service, defined in config
-          GrpcClientSettings.fromConfig(key.service)(system)
+          GrpcClientSettings.fromConfig(service)(system)
         }
-        key.addHeader match {
+        addHeader match {
           case Some((key, value)) =>
             val headers = new Metadata()
             headers.put(Metadata.Key.of(key, Metadata.ASCII_STRING_MARSHALLER), value)
@@ -173,6 +307,54 @@ final class GrpcClients(system: ExtendedActorSystem) extends Extension {
         }
     }
 
+  /**
+   * Generated clients can be created on a channel they don't own, look up that factory method through reflection.
+   * Returns None for clients without one, which are then created from the settings instead.
+   */
+  private def channelClientFactory(serviceClass: Class[_]): Option[GrpcChannel => AnyRef] = {
+    val clientClass = system.dynamicAccess.getClassFor[AnyRef](serviceClass.getName + "Client").get
+    try {
+      if (classOf[AkkaGrpcJavaClient].isAssignableFrom(clientClass)) {
+        // Java API - static create
+        val create = clientClass.getMethod("create", classOf[GrpcChannel], classOf[ClassicActorSystemProvider])
+        Some((channel: GrpcChannel) => create.invoke(null, channel, system))
+      } else if (classOf[AkkaGrpcScalaClient].isAssignableFrom(clientClass)) {
+        // Scala API - companion object apply
+        val companion = system.dynamicAccess.getObjectFor[AnyRef](serviceClass.getName + "Client").get
+        val create =
+          companion.getClass.getMethod("apply", classOf[GrpcChannel], classOf[ClassicActorSystemProvider])
+        Some((channel: GrpcChannel) => create.invoke(companion, channel, system))
+      } else {
+        None
+      }
+    } catch {
+      case _: NoSuchMethodException => None
+    }
+  }
+
+  private def createChannelPool(key: ChannelKey): ChannelPool = {
+    val settings = clientSettings(key.service, key.port, key.addHeader)
+    val target = s"${key.service}:${key.port}"
+    log.debug("Creating {} gRPC channel(s) to [{}]", ChannelsPerTarget, target)
+    val channels = Vector.tabulate(ChannelsPerTarget) { n =>
+      val inFlight = new AtomicInteger()
+      val interceptor = new InFlightInterceptor(inFlight, InFlightCalls.labels(target, n.toString))
+      val channelSettings =
+        settings.withChannelBuilderOverrides(settings.channelBuilderOverrides.andThen(_.intercept(interceptor)))
+      new PooledChannel(GrpcChannel(channelSettings)(system), inFlight)
+    }
+    val pool = new ChannelPool(channels, Selection)
+    pool.closed.foreach { _ =>
+      // if a channel is closed, remove the pool and close its other channels
+      log.debug("gRPC channel to [{}] was closed", target)
+      if (channelPools.remove(key, pool)) pool.close()
+    }
+    pool
+  }
+
+  private def createClient(key: Key): AnyRef = {
+    val settings = clientSettings(key.service, key.port, key.addHeader)
+
     // expected to have a ServiceNameClient generated in the same package, so look that up through reflection
     val clientClass = system.dynamicAccess.getClassFor[AnyRef](key.serviceClass.getName + "Client").get
     val client =
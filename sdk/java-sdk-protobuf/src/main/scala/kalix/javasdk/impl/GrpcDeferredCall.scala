@@ -20,7 +20,13 @@ final case class GrpcDeferredCall[I, O](
     methodName: String,
     asyncCall: Metadata => CompletionStage[O])
     extends DeferredCall[I, O] {
-  override def execute(): CompletionStage[O] = asyncCall(metadata).exceptionally {
+  override def execute(): CompletionStage[O] = {
+    val coalescing = DeferredCallCoalescing.current
+    if (coalescing.isEnabled) coalescing.execute(this)(call())
+    else call()
+  }
+
+  private def call(): CompletionStage[O] = asyncCall(metadata).exceptionally {
     case sre: StatusRuntimeException =>
       throw new StatusRuntimeException(
         sre.getStatus
@@ -4,10 +4,14 @@
 
 package kalix.javasdk.impl
 
+import com.fasterxml.jackson.core.JsonProcessingException
+import com.fasterxml.jackson.databind.JsonNode
+import com.fasterxml.jackson.databind.`type`.TypeFactory
 import com.google.protobuf.ByteString
 import io.opentelemetry.api.trace.Span
 import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator
 import kalix.javasdk.CloudEvent
+import kalix.javasdk.JsonSupport
 import kalix.javasdk.JwtClaims
 import kalix.javasdk.Metadata
 import kalix.javasdk.Principal
@@ -27,20 +31,39 @@ import java.nio.ByteBuffer
 import java.time.ZonedDateTime
 import java.time.format.DateTimeFormatter
 import java.util
+import java.util.Locale
 import java.util.Objects
 import java.util.Optional
+import java.util.concurrent.ConcurrentHashMap
 import scala.jdk.CollectionConverters._
 import scala.jdk.OptionConverters._
 
-private[kalix] class MetadataImpl private (val entries: Seq[MetadataEntry]) extends Metadata with CloudEvent {
+private[kalix] class MetadataImpl private (rawEntries: Seq[MetadataEntry]) extends Metadata with CloudEvent {
 
-  override def has(key: String): Boolean = entries.exists(_.key.equalsIgnoreCase(key))
+  /**
+   * The entries with any alternative CloudEvent key format mapped to the default format. Metadata is created for every
+   * message but often never read, so this is only done on first use.
+   */
+  lazy val entries: Seq[MetadataEntry] = MetadataImpl.normalizeKeys(rawEntries)
+
+  // case-insensitive index of the entries, built on the first lookup, and only when a linear scan would be slower
+  private lazy val index: Map[String, Seq[MetadataEntry]] =
+    entries.groupBy(_.key.toLowerCase(Locale.ROOT))
+
+  /**
+   * The entries that may match the key. Callers must still compare the keys, the result can contain other entries.
+   */
+  private def candidates(key: String): Seq[MetadataEntry] =
+    if (entries.lengthCompare(MetadataImpl.IndexThreshold) <= 0) entries
+    else index.getOrElse(key.toLowerCase(Locale.ROOT), Nil)
+
+  override def has(key: String): Boolean = candidates(key).exists(_.key.equalsIgnoreCase(key))
 
   override def get(key: String): Optional[String] =
     getScala(key).toJava
 
   private[kalix] def getScala(key: String): Option[String] =
-    entries.collectFirst {
+    candidates(key).collectFirst {
       case MetadataEntry(k, MetadataEntry.Value.StringValue(value), _) if key.equalsIgnoreCase(k) =>
         value
     }
@@ -49,7 +72,7 @@ private[kalix] class MetadataImpl private (val entries: Seq[MetadataEntry]) exte
     getAllScala(key).asJava
 
   private[kalix] def getAllScala(key: String): Seq[String] =
-    entries.collect {
+    candidates(key).collect {
       case MetadataEntry(k, MetadataEntry.Value.StringValue(value), _) if key.equalsIgnoreCase(k) =>
         value
     }
@@ -58,7 +81,7 @@ private[kalix] class MetadataImpl private (val entries: Seq[MetadataEntry]) exte
     getBinaryScala(key).toJava
 
   private[kalix] def getBinaryScala(key: String): Option[ByteBuffer] =
-    entries.collectFirst {
+    candidates(key).collectFirst {
       case MetadataEntry(k, MetadataEntry.Value.BytesValue(value), _) if key.equalsIgnoreCase(k) =>
         value.asReadOnlyByteBuffer()
     }
@@ -67,7 +90,7 @@ private[kalix] class MetadataImpl private (val entries: Seq[MetadataEntry]) exte
     getBinaryAllScala(key).asJava
 
   private[kalix] def getBinaryAllScala(key: String): Seq[ByteBuffer] =
-    entries.collect {
+    candidates(key).collect {
       case MetadataEntry(k, MetadataEntry.Value.BytesValue(value), _) if key.equalsIgnoreCase(k) =>
         value.asReadOnlyByteBuffer()
     }
@@ -118,7 +141,27 @@ private[kalix] class MetadataImpl private (val entries: Seq[MetadataEntry]) exte
 
   private def removeKey(key: String) = entries.filterNot(_.key.equalsIgnoreCase(key))
 
-  def isCloudEvent: Boolean = MetadataImpl.CeRequired.forall(h => has(h))
+  /**
+   * The metadata with the `traceparent` and `tracestate` entries replaced by the given trace context entries, in the
+   * position of the entries they replace, without copying the other entries.
+   */
+  private[kalix] def withTraceContext(traceContext: Seq[MetadataEntry]): MetadataImpl = {
+    def replace(current: Seq[MetadataEntry], key: String): Seq[MetadataEntry] = {
+      val replacement = traceContext.find(_.key == key)
+      val index = current.indexWhere(_.key == key)
+      if (index < 0) replacement.fold(current)(current :+ _)
+      else if (current.lastIndexWhere(_.key == key) != index) current.filterNot(_.key == key) ++ replacement
+      else
+        replacement match {
+          case Some(entry) => current.updated(index, entry)
+          case None        => current.patch(index, Nil, 1)
+        }
+    }
+    MetadataImpl.of(
+      replace(replace(entries, TraceInstrumentation.TRACE_PARENT_KEY), TraceInstrumentation.TRACE_STATE_KEY))
+  }
+
+  override lazy val isCloudEvent: Boolean = MetadataImpl.CeRequired.forall(h => has(h))
 
   override def asCloudEvent(): MetadataImpl =
     if (!isCloudEvent) {
@@ -135,14 +178,9 @@ private[kalix] class MetadataImpl private (val entries: Seq[MetadataEntry]) exte
         MetadataEntry(MetadataImpl.CeType, MetadataEntry.Value.StringValue(`type`))))
 
   private def getRequiredCloudEventField(key: String) =
-    entries
-      .collectFirst {
-        case MetadataEntry(k, MetadataEntry.Value.StringValue(value), _) if key.equalsIgnoreCase(k) =>
-          value
-      }
-      .getOrElse {
-        throw new IllegalStateException(s"Metadata is not a CloudEvent because it does not have required field $key")
-      }
+    getScala(key).getOrElse {
+      throw new IllegalStateException(s"Metadata is not a CloudEvent because it does not have required field $key")
+    }
 
   override def specversion(): String = getRequiredCloudEventField(MetadataImpl.CeSpecversion)
 
@@ -204,11 +242,7 @@ private[kalix] class MetadataImpl private (val entries: Seq[MetadataEntry]) exte
   override def asMetadata(): Metadata = this
 
   // The reason we don't just implement JwtClaims ourselves is that some of the methods clash with CloudEvent
-  override lazy val jwtClaims: JwtClaims = new JwtClaims {
-    override def allClaimNames(): lang.Iterable[String] = allJwtClaimNames.asJava
-    override def asMap(): util.Map[String, String] = jwtClaimsAsMap.asJava
-    override def getString(name: String): Optional[String] = getJwtClaim(name).toJava
-  }
+  override lazy val jwtClaims: JwtClaims = new MetadataImpl.CachedJwtClaims(this)
 
   override lazy val principals: Principals = new Principals {
     private def src: Option[String] = getScala(MetadataImpl.PrincipalsSource)
@@ -251,18 +285,27 @@ private[kalix] class MetadataImpl private (val entries: Seq[MetadataEntry]) exte
       case MetadataEntry(key, MetadataEntry.Value.StringValue(_), _) if key.startsWith(JwtClaimPrefix) => key
     }
 
-  private[kalix] def jwtClaimsAsMap: Map[String, String] =
+  private[kalix] lazy val jwtClaimsAsMap: Map[String, String] =
     entries.view.collect {
       case MetadataEntry(key, MetadataEntry.Value.StringValue(value), _) if key.startsWith(JwtClaimPrefix) =>
         key -> value
     }.toMap
 
-  private[kalix] def getJwtClaim(name: String): Option[String] = {
-    val prefixedName = JwtClaimPrefix + name
-    entries.collectFirst {
-      case MetadataEntry(key, MetadataEntry.Value.StringValue(value), _) if key == prefixedName => value
+  // claim values by unprefixed claim name, collected in one pass on the first claim lookup, the first entry wins
+  private lazy val jwtClaimValues: Map[String, String] = {
+    val claims = Map.newBuilder[String, String]
+    val seen = new util.HashSet[String]()
+    entries.foreach {
+      case MetadataEntry(key, MetadataEntry.Value.StringValue(value), _) if key.startsWith(JwtClaimPrefix) =>
+        val name = key.substring(JwtClaimPrefix.length)
+        if (seen.add(name)) claims += name -> value
+      case _ =>
     }
+    claims.result()
   }
+
+  private[kalix] def getJwtClaim(name: String): Option[String] =
+    jwtClaimValues.get(name)
 }
 
 object MetadataImpl {
@@ -289,7 +332,10 @@ object MetadataImpl {
     (key, attr)
   }.toMap
 
-  val Empty: MetadataImpl = MetadataImpl.of(Vector.empty)
+  /** Metadata with more entries than this is indexed on first lookup, smaller metadata is scanned. */
+  private val IndexThreshold = 8
+
+  val Empty: MetadataImpl = new MetadataImpl(Vector.empty)
 
   val JwtClaimPrefix = "_kalix-jwt-claim-"
 
@@ -305,17 +351,86 @@ object MetadataImpl {
         throw new RuntimeException(s"Unknown metadata implementation: ${other.getClass}, cannot send")
     }
 
-  def of(entries: Seq[MetadataEntry]): MetadataImpl = {
-    val transformedEntries =
+  def of(entries: Seq[MetadataEntry]): MetadataImpl =
+    if (entries.isEmpty) Empty
+    else new MetadataImpl(entries)
+
+  /**
+   * Wraps the metadata of an incoming protocol message, without copying the entries.
+   */
+  def fromProtocol(metadata: Option[component.Metadata]): MetadataImpl =
+    metadata match {
+      case Some(md) => of(md.entries)
+      case None     => Empty
+    }
+
+  private def normalizeKeys(entries: Seq[MetadataEntry]): Seq[MetadataEntry] =
+    // is incoming ce key in one of the alternative formats?
+    // if so, convert key to our internal default key format
+    if (entries.exists(entry => alternativeKeyFormats.contains(entry.key)))
       entries.map { entry =>
-        // is incoming ce key in one of the alternative formats?
-        // if so, convert key to our internal default key format
         alternativeKeyFormats.get(entry.key) match {
           case Some(defaultKey) => MetadataEntry(defaultKey, entry.value)
           case _                => entry
         }
       }
+    else entries
+
+  /**
+   * Claims parsed from JSON are parsed at most once per claim and type, and the parsed value is copied for each caller
+   * since the JSON nodes and lists are mutable. Authorization checks often read the same claims for every command.
+   */
+  private final class CachedJwtClaims(metadata: MetadataImpl) extends JwtClaims {
+    private lazy val parsed = new ConcurrentHashMap[(String, String), Optional[AnyRef]]()
+
+    override def allClaimNames(): lang.Iterable[String] = metadata.allJwtClaimNames.asJava
+    override def asMap(): util.Map[String, String] = asJavaMap
+    override def getString(name: String): Optional[String] = metadata.getJwtClaim(name).toJava
+
+    private lazy val asJavaMap = metadata.jwtClaimsAsMap.asJava
+
+    override def getObject(name: String): Optional[JsonNode] =
+      parse(name, "object")(JsonSupport.getObjectMapper.readTree(_)).map(_.deepCopy[JsonNode]())
+
+    override def getStringList(name: String): Optional[util.List[String]] = parseList(name, classOf[String])
+    override def getIntegerList(name: String): Optional[util.List[Integer]] = parseList(name, classOf[Integer])
+    override def getLongList(name: String): Optional[util.List[lang.Long]] = parseList(name, classOf[lang.Long])
+    override def getDoubleList(name: String): Optional[util.List[lang.Double]] = parseList(name, classOf[lang.Double])
+    override def getBooleanList(name: String): Optional[util.List[lang.Boolean]] =
+      parseList(name, classOf[lang.Boolean])
+
+    override def getObjectList(name: String): Optional[util.List[JsonNode]] =
+      parse(name, "list:object")(readList(_, classOf[JsonNode])).map { nodes =>
+        val copy = new util.ArrayList[JsonNode](nodes.size)
+        nodes.forEach(node => copy.add(node.deepCopy[JsonNode]()))
+        copy: util.List[JsonNode]
+      }
 
-    new MetadataImpl(transformedEntries)
+    private def parseList[T](name: String, elementType: Class[T]): Optional[util.List[T]] =
+      parse(name, s"list:${elementType.getName}")(readList(_, elementType))
+        .map(list => new util.ArrayList[T](list): util.List[T])
+
+    private def readList[T](value: String, elementType: Class[T]): util.List[T] = {
+      val listType = TypeFactory.defaultInstance().constructCollectionType(classOf[util.List[_]], elementType)
+      JsonSupport.getObjectMapper.readValue[util.List[T]](value, listType)
+    }
+
+    private def parse[T <: AnyRef](name: String, kind: String)(parseValue: String => T): Optional[T] = {
+      val key = (name, kind)
+      val cached = parsed.get(key)
+      if (cached ne null) cached.asInstanceOf[Optional[T]]
+      else {
+        val result = metadata.getJwtClaim(name) match {
+          case Some(value) =>
+            try Optional.of(parseValue(value))
+            catch {
+              case _: JsonProcessingException => Optional.empty[T]()
+            }
+          case None => Optional.empty[T]()
+        }
+        parsed.put(key, result.asInstanceOf[Optional[AnyRef]])
+        result
+      }
+    }
   }
 }
@@ -5,6 +5,7 @@
 package kalix.javasdk.impl
 
 import com.google.protobuf.ByteString
+import com.google.protobuf.CodedInputStream
 import com.google.protobuf.Descriptors
 import com.google.protobuf.Parser
 import com.google.protobuf.{ Message => JavaMessage }
@@ -35,13 +36,26 @@ trait ResolvedType[T] {
 
 }
 
+private object ResolvedType {
+
+  /**
+   * A coded input reading directly from the byte string. Byte strings are immutable, so bytes fields of the parsed
+   * message can share the underlying buffer instead of being copied out of it.
+   */
+  def codedInput(bytes: ByteString): CodedInputStream = {
+    val input = bytes.newCodedInput()
+    input.enableAliasing(true)
+    input
+  }
+}
+
 private final class JavaPbResolvedType[T <: JavaMessage](parser: Parser[T]) extends ResolvedType[T] {
-  override def parseFrom(bytes: ByteString): T = parser.parseFrom(bytes)
+  override def parseFrom(bytes: ByteString): T = parser.parseFrom(ResolvedType.codedInput(bytes))
 }
 
 private final class ScalaPbResolvedType[T <: scalapb.GeneratedMessage](companion: scalapb.GeneratedMessageCompanion[_])
     extends ResolvedType[T] {
-  override def parseFrom(bytes: ByteString): T = companion.parseFrom(bytes.newCodedInput()).asInstanceOf[T]
+  override def parseFrom(bytes: ByteString): T = companion.parseFrom(ResolvedType.codedInput(bytes)).asInstanceOf[T]
 }
 
 trait ResolvedEntityFactory {
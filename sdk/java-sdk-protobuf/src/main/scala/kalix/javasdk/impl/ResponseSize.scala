@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package kalix.javasdk.impl
+
+import com.google.protobuf.any.{ Any => ScalaPbAny }
+import kalix.protocol.component
+
+/**
+ * INTERNAL API
+ *
+ * Cheap estimates of the size of component responses, used to avoid computing the exact serialized size of every
+ * response just to check it against `kalix.max-response-size`. The estimate is the sum of the sizes of the already
+ * encoded payloads and metadata, which dominate the size of a response. Field tags, ids and names are left out, so the
+ * estimate is a bit lower than the real size, the exact size is only computed once the estimate gets near the limit.
+ */
+private[kalix] object ResponseSize {
+
+  /**
+   * Estimates below this fraction of the max response size are used as is, the part of a response that is not included
+   * in the estimate is much smaller than the remaining margin.
+   */
+  private val ExactSizeThreshold = 0.5
+
+  /**
+   * The size of a response, the `estimate` if it is well below `maxResponseSize`, otherwise the exact size.
+   */
+  def apply(estimate: Long, maxResponseSize: Int)(exactSize: => Int): Long =
+    if (estimate < maxResponseSize * ExactSizeThreshold) estimate
+    else exactSize.toLong
+
+  def payload(any: ScalaPbAny): Long =
+    any.typeUrl.length.toLong + any.value.size()
+
+  def payload(any: Option[ScalaPbAny]): Long =
+    any match {
+      case Some(value) => payload(value)
+      case None        => 0L
+    }
+
+  def payloads(anys: Seq[ScalaPbAny]): Long = {
+    var size = 0L
+    anys.foreach(any => size += payload(any))
+    size
+  }
+
+  def metadata(metadata: component.Metadata): Long = {
+    var size = 0L
+    metadata.entries.foreach { entry =>
+      size += utf8Length(entry.key)
+      entry.value match {
+        case component.MetadataEntry.Value.StringValue(value) => size += utf8Length(value)
+        case component.MetadataEntry.Value.BytesValue(value)  => size += value.size()
+        case _                                                =>
+      }
+    }
+    size
+  }
+
+  def metadata(metadata: Option[component.Metadata]): Long =
+    metadata match {
+      case Some(value) => ResponseSize.metadata(value)
+      case None        => 0L
+    }
+
+  def metadata(metadata: Seq[component.Metadata]): Long = {
+    var size = 0L
+    metadata.foreach(m => size += ResponseSize.metadata(m))
+    size
+  }
+
+  def reply(reply: component.Reply): Long =
+    payload(reply.payload) + metadata(reply.metadata)
+
+  def forward(forward: component.Forward): Long =
+    payload(forward.payload) + metadata(forward.metadata)
+
+  def clientAction(clientAction: Option[component.ClientAction]): Long =
+    clientAction match {
+      case Some(action) =>
+        action.action match {
+          case component.ClientAction.Action.Reply(value)   => reply(value)
+          case component.ClientAction.Action.Forward(value) => forward(value)
+          case component.ClientAction.Action.Failure(value) => utf8Length(value.description)
+          case _                                            => 0L
+        }
+      case None => 0L
+    }
+
+  def sideEffects(sideEffects: Seq[component.SideEffect]): Long = {
+    var size = 0L
+    sideEffects.foreach(effect => size += payload(effect.payload) + metadata(effect.metadata))
+    size
+  }
+
+  /** The number of bytes of a string encoded as UTF-8, as it is in the serialized response. */
+  private[impl] def utf8Length(string: String): Long = {
+    var size = 0L
+    var i = 0
+    while (i < string.length) {
+      val c = string.charAt(i)
+      if (c < 0x80) size += 1
+      else if (c < 0x800) size += 2
+      else if (!Character.isSurrogate(c)) size += 3
+      else if (i + 1 < string.length && Character.isSurrogatePair(c, string.charAt(i + 1))) {
+        // a supplementary code point, two chars encoded as four bytes
+        size += 4
+        i += 1
+      } else size += 1 // an unpaired surrogate is encoded as '?'
+      i += 1
+    }
+    size
+  }
+}
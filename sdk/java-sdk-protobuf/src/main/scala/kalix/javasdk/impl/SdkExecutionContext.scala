@@ -21,4 +21,10 @@ object SdkExecutionContext {
 
   val streamDispatcher: Attributes = ActorAttributes.dispatcher(DispatcherName)
 
+  /** Dispatcher for action handlers, which may block, using virtual threads depending on the [[ExecutionMode]]. */
+  val ActionDispatcherName: String = "kalix.sdk-action-dispatcher"
+  def actions(system: ActorSystem): ExecutionContext = system.dispatchers.lookup(ActionDispatcherName)
+
+  val actionStreamDispatcher: Attributes = ActorAttributes.dispatcher(ActionDispatcherName)
+
 }
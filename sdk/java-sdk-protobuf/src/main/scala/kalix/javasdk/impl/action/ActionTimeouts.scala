@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package kalix.javasdk.impl.action
+
+import java.util.concurrent.ConcurrentHashMap
+
+import scala.concurrent.duration.FiniteDuration
+import scala.jdk.CollectionConverters._
+import scala.jdk.DurationConverters.JavaDurationOps
+import scala.util.control.NonFatal
+
+import akka.actor.ActorSystem
+import akka.actor.ClassicActorSystemProvider
+import akka.actor.ExtendedActorSystem
+import akka.actor.Extension
+import akka.actor.ExtensionId
+import akka.actor.ExtensionIdProvider
+import com.typesafe.config.Config
+import com.typesafe.config.ConfigUtil
+import io.prometheus.client.Counter
+import org.slf4j.LoggerFactory
+
+/**
+ * INTERNAL API
+ */
+private[kalix] object ActionTimeouts extends ExtensionId[ActionTimeouts] with ExtensionIdProvider {
+  override def get(system: ActorSystem): ActionTimeouts = super.get(system)
+
+  override def get(system: ClassicActorSystemProvider): ActionTimeouts = super.get(system)
+
+  override def createExtension(system: ExtendedActorSystem): ActionTimeouts =
+    new ActionTimeouts(system)
+
+  override def lookup: ExtensionId[_ <: Extension] = this
+
+  private val TimedOut: Counter = Counter
+    .build()
+    .name("kalix_action_timeouts_total")
+    .help("Number of action commands that did not complete within their timeout.")
+    .labelNames("service", "method")
+    .register()
+
+  /**
+   * A timeout that is pending until it is either cancelled or its deadline has passed.
+   */
+  final class PendingTimeout private[action] (
+      private[action] val deadline: Long,
+      private[action] val onTimeout: () => Unit,
+      owner: ActionTimeouts) {
+
+    /** Cancel the timeout, has no effect if it has already fired. */
+    def cancel(): Unit = {
+      owner.pending.remove(this)
+    }
+  }
+
+  /**
+   * Per method timeout overrides from `kalix.action.method-timeouts`, keyed by service name and then method name.
+   */
+  private[action] def methodTimeouts(config: Config): Map[String, Map[String, FiniteDuration]] = {
+    val overrides = config.getConfig("kalix.action.method-timeouts")
+    overrides
+      .root()
+      .keySet()
+      .asScala
+      .toSeq
+      .map { fullMethodName =>
+        val separator = fullMethodName.lastIndexOf('.')
+        if (separator <= 0)
+          throw new IllegalArgumentException(
+            s"Action method timeout override [$fullMethodName] must be a fully qualified method name, " +
+            "for example [com.example.MyAction.MyMethod]")
+        val timeout = overrides.getDuration(ConfigUtil.joinPath(fullMethodName)).toScala
+        (fullMethodName.substring(0, separator), fullMethodName.substring(separator + 1), timeout)
+      }
+      .groupBy(_._1)
+      .map { case (service, methods) =>
+        service -> methods.map { case (_, method, timeout) => method -> timeout }.toMap
+      }
+  }
+}
+
+/**
+ * INTERNAL API
+ *
+ * Timeouts for asynchronous action effects, shared by all actions of the actor system. Instead of scheduling a task
+ * for each command, pending timeouts are kept in a set that is swept every `kalix.action.timeout-check-interval`.
+ * Completing a command only removes its entry from the set, and the sweep only has to look at the commands that are in
+ * flight, so the cost does not grow with the number of commands handled.
+ */
+private[kalix] final class ActionTimeouts(system: ActorSystem) extends Extension {
+  import ActionTimeouts._
+
+  private val config = system.settings.config
+  private val checkInterval = config.getDuration("kalix.action.timeout-check-interval").toScala
+
+  val defaultTimeout: FiniteDuration = config.getDuration("kalix.action.timeout").toScala
+  private val methodTimeouts = ActionTimeouts.methodTimeouts(config)
+
+  private val log = LoggerFactory.getLogger(classOf[ActionTimeouts])
+
+  private val pending = ConcurrentHashMap.newKeySet[PendingTimeout]()
+
+  system.scheduler.scheduleWithFixedDelay(checkInterval, checkInterval)(() => sweep())(system.dispatcher)
+
+  /**
+   * The timeout for the given action method, the method specific override if there is one, otherwise the default.
+   */
+  def timeoutFor(serviceName: String, methodName: String): FiniteDuration =
+    if (methodTimeouts.isEmpty) defaultTimeout
+    else
+      methodTimeouts.get(serviceName) match {
+        case Some(methods) => methods.getOrElse(methodName, defaultTimeout)
+        case None          => defaultTimeout
+      }
+
+  /**
+   * Run `onTimeout` once the timeout has passed, unless cancelled before that. Note that the timeout is only checked
+   * every `kalix.action.timeout-check-interval`, so it may fire up to that much later than requested.
+   */
+  def schedule(timeout: FiniteDuration)(onTimeout: () => Unit): PendingTimeout = {
+    val entry = new PendingTimeout(System.nanoTime() + timeout.toNanos, onTimeout, this)
+    pending.add(entry)
+    entry
+  }
+
+  /**
+   * Count a timed out command for the given action method.
+   */
+  def timedOut(serviceName: String, methodName: String): Unit =
+    TimedOut.labels(serviceName, methodName).inc()
+
+  private def sweep(): Unit =
+    if (!pending.isEmpty) {
+      val now = System.nanoTime()
+      val it = pending.iterator()
+      while (it.hasNext) {
+        val entry = it.next()
+        // only fire if this sweep is the one removing the entry, it may have been cancelled concurrently
+        if (entry.deadline - now <= 0 && pending.remove(entry)) {
+          try entry.onTimeout()
+          catch {
+            case NonFatal(ex) => log.error("Failed to time out action command", ex)
+          }
+        }
+      }
+    }
+}
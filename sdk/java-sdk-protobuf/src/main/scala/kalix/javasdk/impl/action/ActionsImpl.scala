@@ -6,10 +6,12 @@ package kalix.javasdk.impl.action
 
 import akka.NotUsed
 import akka.actor.ActorSystem
-import akka.actor.Cancellable
+import akka.stream.OverflowStrategy
 import akka.stream.scaladsl.{ Sink, Source }
 import com.google.protobuf.Descriptors
 import com.google.protobuf.any.Any
+import com.typesafe.config.Config
+import com.typesafe.config.ConfigUtil
 import io.grpc.Status
 import io.opentelemetry.api.trace.{ Span, SpanContext, Tracer }
 import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator
@@ -18,20 +20,28 @@ import kalix.javasdk.action._
 import kalix.javasdk.impl.ErrorHandling.BadRequestException
 import kalix.javasdk.impl._
 import kalix.javasdk.impl.effect.EffectSupport.asProtocol
-import kalix.javasdk.impl.telemetry.TraceInstrumentation.{ TRACE_PARENT_KEY, TRACE_STATE_KEY }
-import kalix.javasdk.impl.telemetry.{ ActionCategory, Instrumentation, Telemetry, TraceInstrumentation }
+import kalix.javasdk.impl.telemetry.{
+  ActionCategory,
+  ComponentMetrics,
+  Instrumentation,
+  Telemetry,
+  TraceInstrumentation
+}
 import kalix.protocol.action.{ ActionCommand, ActionResponse, Actions }
 import kalix.protocol.component
 import kalix.protocol.component.{ Failure, MetadataEntry }
 import org.slf4j.{ Logger, LoggerFactory, MDC }
 
 import java.util.Optional
+import scala.collection.mutable
 import scala.concurrent.ExecutionContext
 import scala.concurrent.Future
 import scala.concurrent.Promise
 import scala.concurrent.TimeoutException
+import scala.concurrent.duration.FiniteDuration
+import scala.jdk.CollectionConverters.ListHasAsScala
+import scala.jdk.CollectionConverters.SetHasAsScala
 import scala.jdk.CollectionConverters.SeqHasAsJava
-import scala.jdk.DurationConverters.JavaDurationOps
 import scala.jdk.OptionConverters._
 import scala.util.control.NonFatal
 
@@ -100,6 +110,35 @@ private[javasdk] object ActionsImpl {
     ActionResponse(ActionResponse.Response.Failure(Failure(0, s"Unexpected error [$correlationId]")))
   }
 
+  /**
+   * Per method decode parallelism for streamed in messages from `kalix.action.decode-parallelism`, keyed by service
+   * name and then method name.
+   */
+  private[action] def decodeParallelism(config: Config): Map[String, Map[String, Int]] = {
+    val overrides = config.getConfig("kalix.action.decode-parallelism")
+    overrides
+      .root()
+      .keySet()
+      .asScala
+      .toSeq
+      .map { fullMethodName =>
+        val separator = fullMethodName.lastIndexOf('.')
+        if (separator <= 0)
+          throw new IllegalArgumentException(
+            s"Action decode parallelism [$fullMethodName] must be for a fully qualified method name, " +
+            "for example [com.example.MyAction.MyMethod]")
+        val parallelism = overrides.getInt(ConfigUtil.joinPath(fullMethodName))
+        if (parallelism < 1)
+          throw new IllegalArgumentException(
+            s"Action decode parallelism [$fullMethodName] must be at least 1, was [$parallelism]")
+        (fullMethodName.substring(0, separator), fullMethodName.substring(separator + 1), parallelism)
+      }
+      .groupBy(_._1)
+      .map { case (service, methods) =>
+        service -> methods.map { case (_, method, parallelism) => method -> parallelism }.toMap
+      }
+  }
+
 }
 
 private[javasdk] final class ActionsImpl(_system: ActorSystem, services: Map[String, ActionService]) extends Actions {
@@ -107,20 +146,58 @@ private[javasdk] final class ActionsImpl(_system: ActorSystem, services: Map[Str
   import ActionsImpl._
   import _system.dispatcher
   private implicit val system: ActorSystem = _system
-  private val sdkEc: ExecutionContext = SdkExecutionContext(system)
+  private val sdkEc: ExecutionContext = SdkExecutionContext.actions(system)
   private val telemetry = Telemetry(system)
-  private lazy val telemetries: Map[String, Instrumentation] = services.values.map { s =>
-    (s.serviceName, telemetry.traceInstrumentation(s.serviceName, ActionCategory))
-  }.toMap
 
-  private val actionTimeout = system.settings.config.getDuration("kalix.action.timeout").toScala
+  /**
+   * Everything needed to dispatch a command to one action service, so that a command only needs a single lookup by
+   * service name.
+   */
+  private final class ServiceDispatch(val service: ActionService) {
+    lazy val instrumentation: Instrumentation = telemetry.traceInstrumentation(service.serviceName, ActionCategory)
+    val metrics: ComponentMetrics = ComponentMetrics(ComponentMetrics.Action, service.serviceName)
+    private val methodDecodeParallelism: Map[String, Int] =
+      serviceDecodeParallelism.getOrElse(service.serviceName, Map.empty)
+    private val methodMetrics: Map[String, ComponentMetrics.MethodMetrics] =
+      service.descriptor.getMethods.asScala.map(m => m.getName -> metrics.method(m.getName)).toMap
+
+    def method(name: String): ComponentMetrics.MethodMetrics =
+      methodMetrics.get(name) match {
+        case Some(m) => m
+        case None    => metrics.method(name)
+      }
+
+    /** The number of streamed in messages of the method to decode concurrently. */
+    def decodeParallelism(name: String): Int =
+      methodDecodeParallelism.getOrElse(name, 1)
+  }
+
+  private val serviceDecodeParallelism = ActionsImpl.decodeParallelism(system.settings.config)
+
+  private val dispatchers: Map[String, ServiceDispatch] = services.map { case (name, service) =>
+    name -> new ServiceDispatch(service)
+  }
+
+  private val actionTimeouts = ActionTimeouts(system)
+
+  private val decodeBufferSize = system.settings.config.getInt("kalix.action.decode-buffer-size")
+  // decoding is CPU bound, run it on the platform threads of the sdk dispatcher
+  private val decodeEc: ExecutionContext = SdkExecutionContext(system)
 
   private val maxResponseSize =
     system.settings.config.getBytes("kalix.max-response-size").toInt
 
   private def validateResponseSize(response: ActionResponse, serviceName: String, commandName: String): Unit = {
-    val responseSize = response.serializedSize
+    val estimatedSize = ResponseSize.sideEffects(response.sideEffects) + (response.response match {
+      case ActionResponse.Response.Reply(reply)     => ResponseSize.reply(reply)
+      case ActionResponse.Response.Forward(forward) => ResponseSize.forward(forward)
+      case _                                        => 0L
+    })
+    val responseSize = ResponseSize(estimatedSize, maxResponseSize)(response.serializedSize)
+    val methodMetrics = dispatchers.get(serviceName).map(_.method(commandName))
+    methodMetrics.foreach(_.responseSize(responseSize))
     if (responseSize > maxResponseSize) {
+      methodMetrics.foreach(_.responseSizeRejected())
       throw new IllegalStateException(
         s"Response size ($responseSize bytes) exceeds maximum allowed size ($maxResponseSize bytes) for service '$serviceName', command '$commandName'")
     }
@@ -155,11 +232,8 @@ private[javasdk] final class ActionsImpl(_system: ActorSystem, services: Map[Str
         Future.successful(
           ActionResponse(ActionResponse.Response.Forward(response), toProtocol(messageCodec, sideEffects)))
       case AsyncEffect(futureEffect, sideEffects) =>
-        val (timeoutCancellable, timeoutFuture) = timeout(service, command)
-        Future
-          .firstCompletedOf(Seq(futureEffect, timeoutFuture))
+        withTimeout(service, command, futureEffect)
           .flatMap { effect =>
-            timeoutCancellable.cancel()
             val withSurroundingSideEffects =
               if (sideEffects.isEmpty) effect
               else if (!effect.canHaveSideEffects) {
@@ -171,7 +245,6 @@ private[javasdk] final class ActionsImpl(_system: ActorSystem, services: Map[Str
             effectToResponse(service, command, withSurroundingSideEffects, messageCodec)
           }
           .recover { case NonFatal(ex) =>
-            timeoutCancellable.cancel()
             handleUnexpectedException(service, command, ex)
           }
       case ErrorEffect(description, status, sideEffects) =>
@@ -192,24 +265,42 @@ private[javasdk] final class ActionsImpl(_system: ActorSystem, services: Map[Str
   }
 
   private def toProtocol(messageCodec: MessageCodec, sideEffects: Seq[SideEffect]): Seq[component.SideEffect] =
-    sideEffects.map(asProtocol(messageCodec, _))
-
-  private def timeout(service: ActionService, command: ActionCommand): (Cancellable, Future[Action.Effect[Any]]) = {
-    val p = Promise[Action.Effect[Any]]()
-    val cancellable = system.scheduler.scheduleOnce(actionTimeout) {
-      val additionalDetails =
-        command.metadata match {
-          case Some(metadata) =>
-            val cloudEvent = MetadataImpl.of(metadata.entries).asCloudEvent()
-            ", " + Seq(
-              cloudEvent.subjectScala.map(s => s"subject: [$s]"),
-              cloudEvent.getScala("ce-sequence").map(s => s"sequence: [$s]")).flatten.mkString(", ")
-          case None => Map.empty
-        }
-      p.failure(new TimeoutException(
-        s"Command to action [${service.actionClass.getOrElse(service.serviceName)}] method [${command.name}]$additionalDetails did not complete within ${actionTimeout.toCoarsest}"))
+    asProtocol(messageCodec, sideEffects, maxResponseSize)
+
+  private def withTimeout[T](
+      service: ActionService,
+      command: ActionCommand,
+      futureEffect: Future[Action.Effect[T]]): Future[Action.Effect[T]] =
+    if (futureEffect.isCompleted) futureEffect
+    else {
+      val timeout = actionTimeouts.timeoutFor(command.serviceName, command.name)
+      val promise = Promise[Action.Effect[T]]()
+      val pendingTimeout = actionTimeouts.schedule(timeout) { () =>
+        if (promise.tryFailure(timeoutException(service, command, timeout)))
+          actionTimeouts.timedOut(command.serviceName, command.name)
+      }
+      futureEffect.onComplete { result =>
+        pendingTimeout.cancel()
+        promise.tryComplete(result)
+      }(ExecutionContext.parasitic)
+      promise.future
     }
-    (cancellable, p.future)
+
+  private def timeoutException(
+      service: ActionService,
+      command: ActionCommand,
+      timeout: FiniteDuration): TimeoutException = {
+    val additionalDetails =
+      command.metadata match {
+        case Some(metadata) =>
+          val cloudEvent = MetadataImpl.of(metadata.entries).asCloudEvent()
+          ", " + Seq(
+            cloudEvent.subjectScala.map(s => s"subject: [$s]"),
+            cloudEvent.getScala("ce-sequence").map(s => s"sequence: [$s]")).flatten.mkString(", ")
+        case None => Map.empty
+      }
+    new TimeoutException(
+      s"Command to action [${service.actionClass.getOrElse(service.serviceName)}] method [${command.name}]$additionalDetails did not complete within ${timeout.toCoarsest}")
   }
 
   /**
@@ -218,22 +309,31 @@ private[javasdk] final class ActionsImpl(_system: ActorSystem, services: Map[Str
    * effects.
    */
   override def handleUnary(in: ActionCommand): Future[ActionResponse] =
-    services.get(in.serviceName) match {
-      case Some(service) =>
-        val span = telemetries(service.serviceName).buildSpan(service, in)
+    dispatchers.get(in.serviceName) match {
+      case Some(dispatch) =>
+        val service = dispatch.service
+        val metadata = MetadataImpl.fromProtocol(in.metadata)
+        val span = dispatch.instrumentation.buildSpan(service, in, metadata)
+        val methodMetrics = dispatch.method(in.name)
+        val start = System.nanoTime()
 
         val fut =
           // Note: invocation in future to guarantee create and invocation is running on sdk dispatcher with virtual thread support
           Future {
             try {
               span.foreach(s => MDC.put(Telemetry.TRACE_ID, s.getSpanContext.getTraceId))
-              val context = createContext(in, service.messageCodec, span.map(_.getSpanContext), service.serviceName)
+              val decodeStart = System.nanoTime()
+              val context = createContext(metadata, service.messageCodec, span.map(_.getSpanContext), dispatch)
               val decodedPayload = service.messageCodec.decodeMessage(
                 in.payload.getOrElse(throw new IllegalArgumentException("No command payload")))
+              val decoded = methodMetrics.decoded(decodeStart)
               val effect = service.factory
                 .create(context)
                 .handleUnary(in.name, MessageEnvelope.of(decodedPayload, context.metadata()), context)
-              effectToResponse(service, in, effect, service.messageCodec)
+              val handled = methodMetrics.handled(decoded)
+              val response = effectToResponse(service, in, effect, service.messageCodec)
+              methodMetrics.encoded(handled)
+              response
             } catch {
               case NonFatal(ex) =>
                 // command handler threw an "unexpected" error
@@ -244,8 +344,10 @@ private[javasdk] final class ActionsImpl(_system: ActorSystem, services: Map[Str
             }
           }(sdkEc).flatten
 
-        fut.andThen { case _ =>
+        fut.andThen { case result =>
           span.foreach(_.end())
+          if (result.fold(_ => true, _.response.isFailure)) methodMetrics.failed()
+          methodMetrics.completed(start)
         }
       case None =>
         Future.successful(
@@ -271,20 +373,18 @@ private[javasdk] final class ActionsImpl(_system: ActorSystem, services: Map[Str
             0,
             "Kalix protocol failure: expected command message with service name and command name, but got empty stream"))))
         case (Seq(call), messages) =>
-          services.get(call.serviceName) match {
-            case Some(service) =>
+          dispatchers.get(call.serviceName) match {
+            case Some(dispatch) =>
+              val service = dispatch.service
+              dispatch.method(call.name).command()
               try {
-                val context = createContext(call, service.messageCodec, None, service.serviceName)
+                val context =
+                  createContext(MetadataImpl.fromProtocol(call.metadata), service.messageCodec, None, dispatch)
                 val effect = service.factory
                   .create(context)
                   .handleStreamedIn(
                     call.name,
-                    messages.map { message =>
-                      val metadata = MetadataImpl.of(message.metadata.map(_.entries.toVector).getOrElse(Nil))
-                      val decodedPayload = service.messageCodec.decodeMessage(
-                        message.payload.getOrElse(throw new IllegalArgumentException("No command payload")))
-                      MessageEnvelope.of(decodedPayload, metadata)
-                    }.asJava,
+                    decodeMessages(messages, service, dispatch.decodeParallelism(call.name)).asJava,
                     context)
                 effectToResponse(service, call, effect, service.messageCodec)
               } catch {
@@ -306,13 +406,15 @@ private[javasdk] final class ActionsImpl(_system: ActorSystem, services: Map[Str
    * at any time, cancellation is indicated through an HTTP2 stream RST message.
    */
   override def handleStreamedOut(in: ActionCommand): Source[ActionResponse, NotUsed] =
-    services.get(in.serviceName) match {
-      case Some(service) =>
+    dispatchers.get(in.serviceName) match {
+      case Some(dispatch) =>
+        val service = dispatch.service
+        dispatch.method(in.name).command()
         // Note: invocation in future to guarantee create and invocation is running on sdk dispatcher with virtual thread support
         Source
           .futureSource(Future {
             try {
-              val context = createContext(in, service.messageCodec, None, service.serviceName)
+              val context = createContext(MetadataImpl.fromProtocol(in.metadata), service.messageCodec, None, dispatch)
               val decodedPayload = service.messageCodec.decodeMessage(
                 in.payload.getOrElse(throw new IllegalArgumentException("No command payload")))
               service.factory
@@ -325,7 +427,7 @@ private[javasdk] final class ActionsImpl(_system: ActorSystem, services: Map[Str
                   handleUnexpectedException(service, in, ex)
                 }
                 // run the stream itself on the virtual thread dispatcher in case the user blocks in stream
-                .addAttributes(SdkExecutionContext.streamDispatcher)
+                .addAttributes(SdkExecutionContext.actionStreamDispatcher)
             } catch {
               case NonFatal(ex) =>
                 // command handler threw an "unexpected" error
@@ -358,23 +460,21 @@ private[javasdk] final class ActionsImpl(_system: ActorSystem, services: Map[Str
             0,
             "Kalix protocol failure: expected command message with service name and command name, but got empty stream"))))
         case (Seq(call), messages) =>
-          services.get(call.serviceName) match {
-            case Some(service) =>
+          dispatchers.get(call.serviceName) match {
+            case Some(dispatch) =>
+              val service = dispatch.service
+              dispatch.method(call.name).command()
               // Note: invocation in future to guarantee create and invocation is running on sdk dispatcher with virtual thread support
               try {
                 Source
                   .futureSource(Future {
-                    val context = createContext(call, service.messageCodec, None, service.serviceName)
+                    val context =
+                      createContext(MetadataImpl.fromProtocol(call.metadata), service.messageCodec, None, dispatch)
                     service.factory
                       .create(context)
                       .handleStreamed(
                         call.name,
-                        messages.map { message =>
-                          val metadata = MetadataImpl.of(message.metadata.map(_.entries.toVector).getOrElse(Nil))
-                          val decodedPayload = service.messageCodec.decodeMessage(
-                            message.payload.getOrElse(throw new IllegalArgumentException("No command payload")))
-                          MessageEnvelope.of(decodedPayload, metadata)
-                        }.asJava,
+                        decodeMessages(messages, service, dispatch.decodeParallelism(call.name)).asJava,
                         context)
                       .asScala
                       .mapAsync(1)(effect => effectToResponse(service, call, effect, service.messageCodec))
@@ -383,7 +483,7 @@ private[javasdk] final class ActionsImpl(_system: ActorSystem, services: Map[Str
                         handleUnexpectedException(service, call, ex)
                       }
                       // run the stream itself on the virtual thread dispatcher in case the user blocks in stream
-                      .addAttributes(SdkExecutionContext.streamDispatcher)
+                      .addAttributes(SdkExecutionContext.actionStreamDispatcher)
                   }(sdkEc))
                   .mapMaterializedValue(_ => NotUsed)
               } catch {
@@ -400,29 +500,52 @@ private[javasdk] final class ActionsImpl(_system: ActorSystem, services: Map[Str
           }
       }
 
+  /**
+   * Decodes the streamed in messages of a command, with a `parallelism` above 1 that many messages are decoded
+   * concurrently, after buffering up to `kalix.action.decode-buffer-size` received messages. The messages are passed on
+   * in the order they were received either way.
+   */
+  private def decodeMessages(
+      messages: Source[ActionCommand, NotUsed],
+      service: ActionService,
+      parallelism: Int): Source[MessageEnvelope[scala.Any], NotUsed] = {
+    def decode(message: ActionCommand): MessageEnvelope[scala.Any] = {
+      val metadata = MetadataImpl.fromProtocol(message.metadata)
+      val decodedPayload = service.messageCodec.decodeMessage(
+        message.payload.getOrElse(throw new IllegalArgumentException("No command payload")))
+      MessageEnvelope.of(decodedPayload, metadata)
+    }
+
+    if (parallelism == 1) messages.map(decode)
+    else
+      messages
+        .buffer(decodeBufferSize, OverflowStrategy.backpressure)
+        .mapAsync(parallelism)(message => Future(decode(message))(decodeEc))
+  }
+
   private def createContext(
-      in: ActionCommand,
+      metadata: MetadataImpl,
       messageCodec: MessageCodec,
       spanContext: Option[SpanContext],
-      serviceName: String): ActionContext = {
-    val metadata = MetadataImpl.of(in.metadata.map(_.entries.toVector).getOrElse(Nil))
+      dispatch: ServiceDispatch): ActionContext = {
     val updatedMetadata = spanContext.map(metadataWithTracing(metadata, _)).getOrElse(metadata)
-    new ActionContextImpl(updatedMetadata, messageCodec, system, telemetries(serviceName))
+    new ActionContextImpl(updatedMetadata, messageCodec, system, dispatch.instrumentation)
   }
 
   private def metadataWithTracing(metadata: MetadataImpl, spanContext: SpanContext): Metadata = {
-    // remove parent traceparent and tracestate from the metadata so they can be reinjected with current span context
-    val l = metadata.entries.filter(m => m.key != TRACE_PARENT_KEY && m.key != TRACE_STATE_KEY).toBuffer
+    // replace the parent traceparent and tracestate in the metadata with the current span context
+    val traceContext = mutable.ArrayBuffer.empty[MetadataEntry]
 
     W3CTraceContextPropagator
       .getInstance()
-      .inject(io.opentelemetry.context.Context.current().`with`(Span.wrap(spanContext)), l, TraceInstrumentation.setter)
+      .inject(
+        io.opentelemetry.context.Context.current().`with`(Span.wrap(spanContext)),
+        traceContext,
+        TraceInstrumentation.setter)
 
     if (log.isTraceEnabled)
-      log.trace(
-        "Updated metadata with trace context: [{}]",
-        l.toList.filter(m => m.key == TRACE_PARENT_KEY || m.key == TRACE_STATE_KEY))
-    MetadataImpl.of(l.toSeq)
+      log.trace("Updated metadata with trace context: [{}]", traceContext.toList)
+    metadata.withTraceContext(traceContext.toSeq)
   }
 
 }
@@ -6,15 +6,25 @@ package kalix.javasdk.impl.effect
 
 import com.google.protobuf.any.{ Any => ScalaPbAny }
 import com.google.protobuf.{ Any => JavaPbAny }
+import kalix.javasdk.Metadata
 import kalix.javasdk.SideEffect
 import kalix.javasdk.impl.GrpcDeferredCall
 import kalix.javasdk.impl.MessageCodec
 import kalix.javasdk.impl.MetadataImpl
+import kalix.javasdk.impl.ResponseSize
 import kalix.javasdk.impl.RestDeferredCall
 import kalix.protocol.component
+import org.slf4j.LoggerFactory
+
+import scala.collection.immutable.ArraySeq
 
 object EffectSupport {
 
+  private val log = LoggerFactory.getLogger(getClass)
+
+  /** Side effects above this fraction of the max response size leave little room for the rest of the response. */
+  private val SideEffectsWarnThreshold = 0.8
+
   def asProtocol(messageReply: MessageReplyImpl[JavaPbAny]): component.Reply =
     component.Reply(
       Some(ScalaPbAny.fromJavaProto(messageReply.message)),
@@ -34,29 +44,86 @@ object EffectSupport {
 
   }
 
-  def asProtocol(messageCodec: MessageCodec, sideEffect: SideEffect): component.SideEffect = {
-    sideEffect match {
-      case SideEffectImpl(deferred: GrpcDeferredCall[_, _], synchronous) =>
+  def asProtocol(messageCodec: MessageCodec, sideEffect: SideEffect): component.SideEffect =
+    sideEffect.call match {
+      case deferred: GrpcDeferredCall[_, _] =>
         component.SideEffect(
           deferred.fullServiceName,
           deferred.methodName,
           Some(messageCodec.encodeScala(deferred.message)),
-          synchronous,
+          sideEffect.synchronous,
           MetadataImpl.toProtocol(deferred.metadata))
-      case SideEffectImpl(deferred: RestDeferredCall[_, _], synchronous) =>
+      case deferred: RestDeferredCall[_, _] =>
         component.SideEffect(
           deferred.fullServiceName,
           deferred.methodName,
           Some(messageCodec.encodeScala(deferred.message)),
-          synchronous,
+          sideEffect.synchronous,
           MetadataImpl.toProtocol(deferred.metadata))
+      case other =>
+        throw new IllegalArgumentException(s"Unsupported type of deferred call: ${other.getClass}")
     }
-  }
 
   def sideEffectsFrom(
       messageCodec: MessageCodec,
-      secondaryEffect: SecondaryEffectImpl): Vector[component.SideEffect] = {
-    secondaryEffect.sideEffects.map(asProtocol(messageCodec, _))
-  }
+      secondaryEffect: SecondaryEffectImpl,
+      maxResponseSize: Int): Seq[component.SideEffect] =
+    asProtocol(messageCodec, secondaryEffect.sideEffects, maxResponseSize)
 
+  /**
+   * Encodes all side effects in one pass into an array of the right size. Consecutive side effects with the same
+   * metadata instance, like the ones created with `SideEffect.batch`, share the encoded metadata. Logs a warning when
+   * the side effects alone come close to `maxResponseSize`, since the response is then likely to be rejected.
+   */
+  def asProtocol(
+      messageCodec: MessageCodec,
+      sideEffects: Seq[SideEffect],
+      maxResponseSize: Int): Seq[component.SideEffect] =
+    if (sideEffects.isEmpty) Nil
+    else {
+      val encoded = new Array[component.SideEffect](sideEffects.size)
+      var lastMetadata: Metadata = null
+      var protocolMetadata: Option[component.Metadata] = None
+      var metadataSize = 0L
+      var estimatedSize = 0L
+      var i = 0
+      sideEffects.foreach { sideEffect =>
+        val call = sideEffect.call
+        val metadata = call.metadata
+        if (metadata ne lastMetadata) {
+          lastMetadata = metadata
+          protocolMetadata = MetadataImpl.toProtocol(metadata)
+          metadataSize = ResponseSize.metadata(protocolMetadata)
+        }
+        val payload = messageCodec.encodeScala(call.message)
+        estimatedSize += ResponseSize.payload(payload) + metadataSize
+        encoded(i) = call match {
+          case deferred: GrpcDeferredCall[_, _] =>
+            component.SideEffect(
+              deferred.fullServiceName,
+              deferred.methodName,
+              Some(payload),
+              sideEffect.synchronous,
+              protocolMetadata)
+          case deferred: RestDeferredCall[_, _] =>
+            component.SideEffect(
+              deferred.fullServiceName,
+              deferred.methodName,
+              Some(payload),
+              sideEffect.synchronous,
+              protocolMetadata)
+          case other =>
+            throw new IllegalArgumentException(s"Unsupported type of deferred call: ${other.getClass}")
+        }
+        i += 1
+      }
+      if (estimatedSize > maxResponseSize * SideEffectsWarnThreshold)
+        log.warn(
+          "The {} side effects of a response are about {} bytes, close to the maximum response size of {} bytes, " +
+          "the response is likely to be rejected",
+          sideEffects.size,
+          estimatedSize,
+          maxResponseSize)
+      ArraySeq.unsafeWrapArray(encoded)
+    }
 }
@@ -22,6 +22,7 @@ import kalix.javasdk.impl.effect.ErrorReplyImpl
 import kalix.javasdk.impl.effect.MessageReplyImpl
 import kalix.javasdk.impl.effect.SecondaryEffectImpl
 import kalix.javasdk.impl.eventsourcedentity.EventSourcedEntityRouter.CommandResult
+import kalix.javasdk.impl.telemetry.ComponentMetrics
 import kalix.javasdk.impl.telemetry.EventSourcedEntityCategory
 import kalix.javasdk.impl.telemetry.Instrumentation
 import kalix.javasdk.impl.telemetry.Telemetry
@@ -103,15 +104,29 @@ final class EventSourcedEntitiesImpl(
     (s.serviceName, telemetry.traceInstrumentation(s.serviceName, EventSourcedEntityCategory))
   }.toMap
 
+  private val metrics: Map[String, ComponentMetrics] = services.map { case (name, _) =>
+    name -> ComponentMetrics(ComponentMetrics.EventSourcedEntity, name)
+  }
+
   private val pbCleanupDeletedEventSourcedEntityAfter =
     Some(com.google.protobuf.duration.Duration(configuration.cleanupDeletedEventSourcedEntityAfter))
 
   private val maxResponseSize =
     system.settings.config.getBytes("kalix.max-response-size").toInt
 
-  private def validateResponseSize(reply: EventSourcedReply, entityId: String, commandName: String): Unit = {
-    val replySize = reply.serializedSize
+  private def validateResponseSize(
+      reply: EventSourcedReply,
+      entityId: String,
+      commandName: String,
+      methodMetrics: ComponentMetrics.MethodMetrics): Unit = {
+    val estimatedSize =
+      ResponseSize.clientAction(reply.clientAction) + ResponseSize.sideEffects(reply.sideEffects) +
+      ResponseSize.payloads(reply.events) + ResponseSize.metadata(reply.eventsMetadata) +
+      ResponseSize.payload(reply.snapshot)
+    val replySize = ResponseSize(estimatedSize, maxResponseSize)(reply.serializedSize)
+    methodMetrics.responseSize(replySize)
     if (replySize > maxResponseSize) {
+      methodMetrics.responseSizeRejected()
       val sizeSummary =
         Seq(
           (if (reply.events.isEmpty) None
@@ -124,6 +139,18 @@ final class EventSourcedEntitiesImpl(
     }
   }
 
+  private def recordReplay(
+      metrics: ComponentMetrics,
+      entityType: String,
+      entityId: String,
+      events: Long,
+      durationNanos: Long): Unit = {
+    metrics.replayed(entityType, events, durationNanos)
+    if (log.isDebugEnabled)
+      log.debug(
+        s"Recovered entity type [$entityType] id [$entityId] from [$events] events in [${durationNanos / 1000000}] ms")
+  }
+
   /**
    * The stream. One stream will be established per active entity. Once established, the first message sent will be
    * Init, which contains the entity ID, and, if the entity has previously persisted a snapshot, it will contain that
@@ -166,6 +193,7 @@ final class EventSourcedEntitiesImpl(
       .create(new EventSourcedEntityContextImpl(init.entityId))
       .asInstanceOf[EventSourcedEntityRouter[Any, Any, EventSourcedEntity[Any, Any]]]
     val thisEntityId = init.entityId
+    val serviceMetrics = metrics(init.serviceName)
 
     // only "unexpected" exceptions should end up here
     def failureOutWithEntityLogger(error: Throwable): EventSourcedStreamOut =
@@ -175,6 +203,7 @@ final class EventSourcedEntitiesImpl(
       }
 
     try {
+      val replayStart = System.nanoTime()
       val startingSequenceNumber = (for {
         snapshot <- init.snapshot
         any <- snapshot.snapshot
@@ -197,120 +226,154 @@ final class EventSourcedEntitiesImpl(
       }).getOrElse(0L)
       Flow[EventSourcedStreamIn]
         .map(_.message)
-        .scan[(Long, Option[EventSourcedStreamOut.Message])]((startingSequenceNumber, None)) {
-          case (_, InEvent(event)) =>
-            // Note that these only come on replay
-            try {
-              val eventMetadata = MetadataImpl.of(event.metadata.map(_.entries.toVector).getOrElse(Nil))
-              val context = new EventContextImpl(thisEntityId, event.sequence, eventMetadata)
-              val ev =
-                service.messageCodec
-                  .decodeMessage(event.payload.get)
-                  .asInstanceOf[AnyRef] // FIXME empty?
-              router._internalHandleEvent(ev, context)
-              (event.sequence, None)
-            } catch {
-              case NonFatal(error) =>
-                // service.serviceName is the entity type id
-                throw EntityException(
-                  entityId = thisEntityId,
-                  commandId = 0,
-                  commandName = "",
-                  message = s"Unexpected failure while replaying event " +
-                    s"[${event.payload.fold("unknown")(_.typeUrl)}] with sequence number [${event.sequence}] " +
-                    s"for entity type [${service.serviceName}] id [$thisEntityId]: $error",
-                  cause = Some(error))
+        .statefulMapConcat[EventSourcedStreamOut] { () =>
+          var sequence = startingSequenceNumber
+          var replaying = true
+          var replayedEvents = 0L
+          // events only come on replay and are applied one at a time, so a single context can be reused for all of them
+          val replayContext = new ReplayEventContextImpl(thisEntityId)
+          // and likewise commands are handled one at a time, deactivating the context before the next one
+          val commandContext = new CommandContextImpl(thisEntityId)
+
+          def replayCompleted(): Unit =
+            if (replaying) {
+              replaying = false
+              recordReplay(
+                serviceMetrics,
+                service.serviceName,
+                thisEntityId,
+                replayedEvents,
+                System.nanoTime() - replayStart)
             }
-          case ((sequence, _), InCommand(command)) =>
-            if (thisEntityId != command.entityId)
-              throw ProtocolException(command, "Receiving entity is not the intended recipient of command")
-            val span = instrumentations(service.serviceName).buildSpan(service, command)
-            span.foreach(s => MDC.put(Telemetry.TRACE_ID, s.getSpanContext.getTraceId))
-            try {
-              val cmd =
-                service.messageCodec.decodeMessage(
-                  command.payload.getOrElse(throw ProtocolException(command, "No command payload")))
-              val metadata = MetadataImpl.of(command.metadata.map(_.entries.toVector).getOrElse(Nil))
-              val context =
-                new CommandContextImpl(thisEntityId, sequence, command.name, command.id, metadata)
-
-              val CommandResult(
-                events: Vector[Any],
-                eventsMetadata: Vector[Metadata],
-                secondaryEffect: SecondaryEffectImpl,
-                snapshot: Option[Any],
-                endSequenceNumber,
-                deleteEntity) =
-                try {
-                  router._internalHandleCommand(
-                    command.name,
-                    cmd,
-                    context,
-                    service.snapshotEvery,
-                    (seqNr, eventMetadata) => new EventContextImpl(thisEntityId, seqNr, eventMetadata))
-                } catch {
-                  case BadRequestException(msg) =>
-                    val errorReply = ErrorReplyImpl(msg, Some(Status.Code.INVALID_ARGUMENT), Vector.empty)
-                    CommandResult(Vector.empty, Vector.empty, errorReply, None, context.sequenceNumber, false)
-                  case e: EntityException =>
-                    throw e
-                  case NonFatal(error) =>
-                    throw EntityException(command, s"Unexpected failure: $error", Some(error))
-                } finally {
-                  context.deactivate() // Very important!
-                }
 
-              val serializedSecondaryEffect = secondaryEffect match {
-                case MessageReplyImpl(message, metadata, sideEffects) =>
-                  MessageReplyImpl(service.messageCodec.encodeJava(message), metadata, sideEffects)
-                case other => other
+          {
+            case InEvent(event) =>
+              try {
+                val eventMetadata = MetadataImpl.fromProtocol(event.metadata)
+                val ev =
+                  service.messageCodec
+                    .decodeMessage(event.payload.get)
+                    .asInstanceOf[AnyRef] // FIXME empty?
+                router._internalHandleEvent(ev, replayContext.reset(event.sequence, eventMetadata))
+                sequence = event.sequence
+                replayedEvents += 1
+                Nil
+              } catch {
+                case NonFatal(error) =>
+                  // service.serviceName is the entity type id
+                  throw EntityException(
+                    entityId = thisEntityId,
+                    commandId = 0,
+                    commandName = "",
+                    message = s"Unexpected failure while replaying event " +
+                      s"[${event.payload.fold("unknown")(_.typeUrl)}] with sequence number [${event.sequence}] " +
+                      s"for entity type [${service.serviceName}] id [$thisEntityId]: $error",
+                    cause = Some(error))
               }
+            case InCommand(command) =>
+              replayCompleted()
+              if (thisEntityId != command.entityId)
+                throw ProtocolException(command, "Receiving entity is not the intended recipient of command")
+              val commandMetadata = MetadataImpl.fromProtocol(command.metadata)
+              val span = instrumentations(service.serviceName).buildSpan(service, command, commandMetadata)
+              span.foreach(s => MDC.put(Telemetry.TRACE_ID, s.getSpanContext.getTraceId))
+              val methodMetrics = serviceMetrics.method(command.name)
+              val start = System.nanoTime()
+              try {
+                val cmd =
+                  service.messageCodec.decodeMessage(
+                    command.payload.getOrElse(throw ProtocolException(command, "No command payload")))
+                val decoded = methodMetrics.decoded(start)
+                val context = commandContext.reset(sequence, command.name, command.id, commandMetadata)
 
-              val clientAction = serializedSecondaryEffect.replyToClientAction(service.messageCodec, command.id)
-
-              serializedSecondaryEffect match {
-                case _: ErrorReplyImpl[_] => // error
-                  val reply = EventSourcedReply(commandId = command.id, clientAction = clientAction)
-                  validateResponseSize(reply, thisEntityId, command.name)
-                  (endSequenceNumber, Some(OutReply(reply)))
-                case _ => // non-error
-                  val serializedEvents =
-                    events.map(event => ScalaPbAny.fromJavaProto(service.messageCodec.encodeJava(event)))
-                  val protoEventsMetadata =
-                    eventsMetadata.map(m => MetadataImpl.toProtocol(m).getOrElse(PbMetadata.defaultInstance))
-                  val serializedSnapshot =
-                    snapshot.map(state => ScalaPbAny.fromJavaProto(service.messageCodec.encodeJava(state)))
-                  val delete = if (deleteEntity) pbCleanupDeletedEventSourcedEntityAfter else None
-                  val reply = EventSourcedReply(
-                    command.id,
-                    clientAction,
-                    EffectSupport.sideEffectsFrom(service.messageCodec, serializedSecondaryEffect),
-                    serializedEvents,
-                    serializedSnapshot,
-                    delete,
-                    protoEventsMetadata)
-                  validateResponseSize(reply, thisEntityId, command.name)
-                  (endSequenceNumber, Some(OutReply(reply)))
-              }
-            } finally {
-              span.foreach { s =>
-                MDC.remove(Telemetry.TRACE_ID)
-                s.end()
+                val CommandResult(
+                  events: Vector[Any],
+                  eventsMetadata: Vector[Metadata],
+                  secondaryEffect: SecondaryEffectImpl,
+                  snapshot: Option[Any],
+                  endSequenceNumber,
+                  deleteEntity) =
+                  try {
+                    router._internalHandleCommand(
+                      command.name,
+                      cmd,
+                      context,
+                      service.snapshotEvery,
+                      (seqNr, eventMetadata) => new EventContextImpl(thisEntityId, seqNr, eventMetadata))
+                  } catch {
+                    case BadRequestException(msg) =>
+                      val errorReply = ErrorReplyImpl(msg, Some(Status.Code.INVALID_ARGUMENT), Vector.empty)
+                      CommandResult(Vector.empty, Vector.empty, errorReply, None, context.sequenceNumber, false)
+                    case e: EntityException =>
+                      throw e
+                    case NonFatal(error) =>
+                      throw EntityException(command, s"Unexpected failure: $error", Some(error))
+                  } finally {
+                    context.deactivate() // Very important!
+                  }
+                val handled = methodMetrics.handled(decoded)
+
+                val serializedSecondaryEffect = secondaryEffect match {
+                  case MessageReplyImpl(message, metadata, sideEffects) =>
+                    MessageReplyImpl(service.messageCodec.encodeJava(message), metadata, sideEffects)
+                  case other => other
+                }
+
+                val clientAction = serializedSecondaryEffect.replyToClientAction(service.messageCodec, command.id)
+
+                serializedSecondaryEffect match {
+                  case _: ErrorReplyImpl[_] => // error
+                    val reply = EventSourcedReply(commandId = command.id, clientAction = clientAction)
+                    methodMetrics.encoded(handled)
+                    validateResponseSize(reply, thisEntityId, command.name, methodMetrics)
+                    methodMetrics.failed()
+                    sequence = endSequenceNumber
+                    EventSourcedStreamOut(OutReply(reply)) :: Nil
+                  case _ => // non-error
+                    val serializedEvents =
+                      events.map(event => ScalaPbAny.fromJavaProto(service.messageCodec.encodeJava(event)))
+                    val protoEventsMetadata =
+                      eventsMetadata.map(m => MetadataImpl.toProtocol(m).getOrElse(PbMetadata.defaultInstance))
+                    val serializedSnapshot =
+                      snapshot.map(state => ScalaPbAny.fromJavaProto(service.messageCodec.encodeJava(state)))
+                    val delete = if (deleteEntity) pbCleanupDeletedEventSourcedEntityAfter else None
+                    val reply = EventSourcedReply(
+                      command.id,
+                      clientAction,
+                      EffectSupport.sideEffectsFrom(service.messageCodec, serializedSecondaryEffect, maxResponseSize),
+                      serializedEvents,
+                      serializedSnapshot,
+                      delete,
+                      protoEventsMetadata)
+                    methodMetrics.encoded(handled)
+                    methodMetrics.eventsEmitted(events.size)
+                    validateResponseSize(reply, thisEntityId, command.name, methodMetrics)
+                    sequence = endSequenceNumber
+                    EventSourcedStreamOut(OutReply(reply)) :: Nil
+                }
+              } catch {
+                case NonFatal(error) =>
+                  methodMetrics.failed()
+                  throw error
+              } finally {
+                methodMetrics.completed(start)
+                span.foreach { s =>
+                  MDC.remove(Telemetry.TRACE_ID)
+                  s.end()
+                }
               }
-            }
-          case ((sequence, _), InSnapshotRequest(request)) =>
-            val reply =
-              EventSourcedSnapshotReply(
-                request.requestId,
-                Some(service.messageCodec.encodeScala(router._stateOrEmpty())))
-            (sequence, Some(OutSnapshotReply(reply)))
-          case (_, InInit(_)) =>
-            throw ProtocolException(init, "Entity already initiated")
-          case (_, InEmpty) =>
-            throw ProtocolException(init, "Received empty/unknown message")
-        }
-        .collect { case (_, Some(message)) =>
-          EventSourcedStreamOut(message)
+            case InSnapshotRequest(request) =>
+              replayCompleted()
+              val reply =
+                EventSourcedSnapshotReply(
+                  request.requestId,
+                  Some(service.messageCodec.encodeScala(router._stateOrEmpty())))
+              EventSourcedStreamOut(OutSnapshotReply(reply)) :: Nil
+            case InInit(_) =>
+              throw ProtocolException(init, "Entity already initiated")
+            case InEmpty =>
+              throw ProtocolException(init, "Received empty/unknown message")
+          }
         }
         .recover { case error => failureOutWithEntityLogger(error) }
         .addAttributes(SdkExecutionContext.streamDispatcher)
@@ -321,15 +384,38 @@ final class EventSourcedEntitiesImpl(
     }
   }
 
-  private class CommandContextImpl(
-      override val entityId: String,
-      override val sequenceNumber: Long,
-      override val commandName: String,
-      override val commandId: Long,
-      override val metadata: Metadata)
+  /**
+   * Command context used for all commands of one entity. Commands are handled one at a time and the context is
+   * deactivated once the command handler has returned, so it is reset and activated again for each command. The
+   * metadata is the same instance that tracing looked at, so it is only parsed once per command.
+   */
+  private final class CommandContextImpl(override val entityId: String)
       extends AbstractContext(system)
       with CommandContext
-      with ActivatableContext
+      with ActivatableContext {
+    private var _sequenceNumber = 0L
+    private var _commandName = ""
+    private var _commandId = 0L
+    private var _metadata: MetadataImpl = MetadataImpl.Empty
+
+    override def sequenceNumber: Long = _sequenceNumber
+    override def commandName: String = _commandName
+    override def commandId: Long = _commandId
+    override def metadata: MetadataImpl = _metadata
+
+    def reset(
+        sequenceNumber: Long,
+        commandName: String,
+        commandId: Long,
+        metadata: MetadataImpl): CommandContextImpl = {
+      _sequenceNumber = sequenceNumber
+      _commandName = commandName
+      _commandId = commandId
+      _metadata = metadata
+      activate()
+      this
+    }
+  }
 
   private class EventSourcedEntityContextImpl(override final val entityId: String)
       extends AbstractContext(system)
@@ -340,4 +426,24 @@ final class EventSourcedEntitiesImpl(
       override val metadata: Metadata)
       extends EventSourcedEntityContextImpl(entityId)
       with EventContext
+
+  /**
+   * Event context used for all replayed events of one entity. Events are applied one at a time and the context is only
+   * set on the entity while the event handler runs, so it is safe to reset it for each event.
+   */
+  private final class ReplayEventContextImpl(entityId: String)
+      extends EventSourcedEntityContextImpl(entityId)
+      with EventContext {
+    private var _sequenceNumber = 0L
+    private var _metadata: Metadata = MetadataImpl.Empty
+
+    override def sequenceNumber: Long = _sequenceNumber
+    override def metadata: Metadata = _metadata
+
+    def reset(sequenceNumber: Long, metadata: Metadata): EventContext = {
+      _sequenceNumber = sequenceNumber
+      _metadata = metadata
+      this
+    }
+  }
 }
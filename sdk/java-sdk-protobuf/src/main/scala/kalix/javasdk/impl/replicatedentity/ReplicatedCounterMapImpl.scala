@@ -16,7 +16,8 @@ private[kalix] final class ReplicatedCounterMapImpl[K](
     anySupport: AnySupport,
     counters: Map[K, ReplicatedCounterImpl] = Map.empty[K, ReplicatedCounterImpl],
     removed: Set[K] = Set.empty[K],
-    cleared: Boolean = false)
+    cleared: Boolean = false,
+    changed: Set[K] = Set.empty[K])
     extends ReplicatedCounterMap[K]
     with InternalReplicatedData {
 
@@ -33,7 +34,7 @@ private[kalix] final class ReplicatedCounterMapImpl[K](
   override def increment(key: K, amount: Long): ReplicatedCounterMapImpl[K] = {
     val counter = counters.getOrElse(key, new ReplicatedCounterImpl)
     val incremented = counter.increment(amount)
-    new ReplicatedCounterMapImpl(anySupport, counters.updated(key, incremented), removed, cleared)
+    new ReplicatedCounterMapImpl(anySupport, counters.updated(key, incremented), removed, cleared, changed + key)
   }
 
   override def decrement(key: K, amount: Long): ReplicatedCounterMapImpl[K] = increment(key, -amount)
@@ -42,7 +43,7 @@ private[kalix] final class ReplicatedCounterMapImpl[K](
     if (!counters.contains(key)) {
       this
     } else {
-      new ReplicatedCounterMapImpl(anySupport, counters.removed(key), removed + key, cleared)
+      new ReplicatedCounterMapImpl(anySupport, counters.removed(key), removed + key, cleared, changed - key)
     }
   }
 
@@ -64,20 +65,33 @@ private[kalix] final class ReplicatedCounterMapImpl[K](
   /** for Scala SDK */
   def keys: Set[K] = counters.keySet
 
-  override def hasDelta: Boolean = cleared || removed.nonEmpty || counters.values.exists(_.hasDelta)
+  // only counters incremented since the last reset can have a delta, so only those are looked at
+  override def hasDelta: Boolean =
+    cleared || removed.nonEmpty || changed.exists(key => counters.get(key).exists(_.hasDelta))
 
   override def getDelta: ReplicatedEntityDelta.Delta =
     ReplicatedEntityDelta.Delta.ReplicatedCounterMap(
       ReplicatedCounterMapDelta(
         cleared = cleared,
         removed = removed.map(anySupport.encodeScala).toSeq,
-        updated = counters.collect {
-          case (key, counter) if counter.hasDelta =>
-            ReplicatedCounterMapEntryDelta(Some(anySupport.encodeScala(key)), counter.getDelta.counter)
-        }.toSeq))
+        updated = changed.toSeq.flatMap { key =>
+          counters.get(key).collect {
+            case counter if counter.hasDelta =>
+              ReplicatedCounterMapEntryDelta(Some(anySupport.encodeScala(key)), counter.getDelta.counter)
+          }
+        }))
 
   override def resetDelta(): ReplicatedCounterMapImpl[K] =
-    if (hasDelta) new ReplicatedCounterMapImpl(anySupport, counters.view.mapValues(_.resetDelta()).toMap) else this
+    if (!cleared && removed.isEmpty && changed.isEmpty) this
+    else {
+      val resetCounters = changed.foldLeft(counters) { (map, key) =>
+        map.get(key) match {
+          case Some(counter) => map.updated(key, counter.resetDelta())
+          case None          => map
+        }
+      }
+      new ReplicatedCounterMapImpl(anySupport, resetCounters)
+    }
 
   override val applyDelta: PartialFunction[ReplicatedEntityDelta.Delta, ReplicatedCounterMapImpl[K]] = {
     case ReplicatedEntityDelta.Delta.ReplicatedCounterMap(ReplicatedCounterMapDelta(cleared, removed, updated, _)) =>
@@ -11,6 +11,7 @@ import kalix.javasdk.impl._
 import kalix.javasdk.impl.effect.{ EffectSupport, ErrorReplyImpl, MessageReplyImpl }
 import kalix.javasdk.impl.replicatedentity.ReplicatedEntityEffectImpl.DeleteEntity
 import kalix.javasdk.impl.replicatedentity.ReplicatedEntityRouter.CommandResult
+import kalix.javasdk.impl.telemetry.ComponentMetrics
 import kalix.javasdk.replicatedentity._
 import kalix.javasdk.Metadata
 import kalix.protocol.entity.Command
@@ -61,6 +62,13 @@ final class ReplicatedEntitiesImpl(system: ActorSystem, services: Map[String, Re
 
   private val log = LoggerFactory.getLogger(this.getClass)
 
+  private val metrics: Map[String, ComponentMetrics] = services.map { case (name, _) =>
+    name -> ComponentMetrics(ComponentMetrics.ReplicatedEntity, name)
+  }
+
+  private val maxResponseSize =
+    system.settings.config.getBytes("kalix.max-response-size").toInt
+
   /**
    * After invoking handle, the first message sent will always be a ReplicatedEntityInit message, containing the entity
    * ID, and, if it exists or is available, the current state of the entity. After that, one or more commands may be
@@ -98,7 +106,7 @@ final class ReplicatedEntitiesImpl(system: ActorSystem, services: Map[String, Re
       ReplicatedEntityDeltaTransformer.create(delta, service.anySupport)
     }
 
-    val runner = new EntityRunner(service, init.entityId, initialData, system)
+    val runner = new EntityRunner(service, init.entityId, initialData, metrics(init.serviceName), system)
 
     Flow[ReplicatedEntityStreamIn]
       .mapConcat { in =>
@@ -133,6 +141,7 @@ object ReplicatedEntitiesImpl {
       service: ReplicatedEntityService,
       entityId: String,
       initialData: Option[InternalReplicatedData],
+      metrics: ComponentMetrics,
       system: ActorSystem) {
 
     val router: ReplicatedEntityRouter[_ <: Object, _ <: Object] = {
@@ -155,9 +164,27 @@ object ReplicatedEntitiesImpl {
       if (entityId != command.entityId)
         throw ProtocolException(command, "Entity is not the intended recipient of command")
 
+      val methodMetrics = metrics.method(command.name)
+      val start = System.nanoTime()
+      try {
+        runCommand(command, methodMetrics, start)
+      } catch {
+        case NonFatal(error) =>
+          methodMetrics.failed()
+          throw error
+      } finally {
+        methodMetrics.completed(start)
+      }
+    }
+
+    private def runCommand(
+        command: Command,
+        methodMetrics: ComponentMetrics.MethodMetrics,
+        start: Long): ReplicatedEntityStreamOut = {
       val context = new ReplicatedEntityCommandContext(entityId, command, system)
       val payload = command.payload.getOrElse(throw ProtocolException(command, "No command payload"))
       val cmd = service.anySupport.decodeMessage(payload)
+      val decoded = methodMetrics.decoded(start)
 
       val CommandResult(effect: ReplicatedEntityEffectImpl[_, _]) =
         try {
@@ -168,6 +195,7 @@ object ReplicatedEntitiesImpl {
         } finally {
           context.deactivate()
         }
+      val handled = methodMetrics.handled(decoded)
 
       val serializedSecondaryEffect = effect.secondaryEffect match {
         case MessageReplyImpl(message, metadata, sideEffects) =>
@@ -182,6 +210,8 @@ object ReplicatedEntitiesImpl {
         case _: ErrorReplyImpl[_] =>
           if (router._internalHasDelta)
             throw EntityException(command, s"Replicated entity was changed for a failed command, this is not allowed.")
+          methodMetrics.encoded(handled)
+          methodMetrics.failed()
           ReplicatedEntityStreamOut(
             ReplicatedEntityStreamOut.Message.Reply(
               ReplicatedEntityReply(commandId = command.id, clientAction = clientAction)))
@@ -199,13 +229,15 @@ object ReplicatedEntitiesImpl {
                 None
               }
           }
-          ReplicatedEntityStreamOut(
+          val out = ReplicatedEntityStreamOut(
             ReplicatedEntityStreamOut.Message.Reply(
               ReplicatedEntityReply(
                 command.id,
                 clientAction,
-                EffectSupport.sideEffectsFrom(service.anySupport, serializedSecondaryEffect),
+                EffectSupport.sideEffectsFrom(service.anySupport, serializedSecondaryEffect, maxResponseSize),
                 stateAction)))
+          methodMetrics.encoded(handled)
+          out
       }
     }
   }
@@ -227,7 +259,7 @@ object ReplicatedEntitiesImpl {
 
     override val commandName: String = command.name
 
-    override val metadata: Metadata = MetadataImpl.of(command.metadata.map(_.entries.toVector).getOrElse(Nil))
+    override val metadata: Metadata = MetadataImpl.fromProtocol(command.metadata)
 
   }
 }
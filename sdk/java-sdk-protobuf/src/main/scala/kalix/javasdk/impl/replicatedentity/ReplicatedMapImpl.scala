@@ -26,7 +26,8 @@ private[kalix] final class ReplicatedMapImpl[K, V <: ReplicatedData](
     entries: Map[K, V] = Map.empty[K, V],
     added: Set[K] = Set.empty[K],
     removed: Set[K] = Set.empty[K],
-    cleared: Boolean = false)
+    cleared: Boolean = false,
+    changed: Set[K] = Set.empty[K])
     extends ReplicatedMap[K, V]
     with InternalReplicatedData {
 
@@ -61,7 +62,8 @@ private[kalix] final class ReplicatedMapImpl[K, V <: ReplicatedData](
       entries.updated(key, value),
       if (entries.contains(key)) added else added + key,
       removed,
-      cleared)
+      cleared,
+      changed + key)
 
   override def remove(key: K): ReplicatedMapImpl[K, V] = {
     if (!entries.contains(key)) {
@@ -71,9 +73,9 @@ private[kalix] final class ReplicatedMapImpl[K, V <: ReplicatedData](
         clear()
       } else {
         if (added.contains(key)) {
-          new ReplicatedMapImpl(anySupport, entries - key, added - key, removed, cleared)
+          new ReplicatedMapImpl(anySupport, entries - key, added - key, removed, cleared, changed - key)
         } else {
-          new ReplicatedMapImpl(anySupport, entries - key, added, removed + key, cleared)
+          new ReplicatedMapImpl(anySupport, entries - key, added, removed + key, cleared, changed - key)
         }
       }
     }
@@ -93,19 +95,24 @@ private[kalix] final class ReplicatedMapImpl[K, V <: ReplicatedData](
 
   override def keySet: java.util.Set[K] = keys.asJava
 
+  // Values are immutable, so only a value that has been put into the map with update can carry a delta.
+  // The changed keys are tracked so that delta handling doesn't have to look at every value in the map.
+  private def changedValue(key: K): Option[InternalReplicatedData] =
+    entries.get(key).map(_.asInstanceOf[InternalReplicatedData])
+
   override def hasDelta: Boolean =
     if (cleared || added.nonEmpty || removed.nonEmpty) {
       true
     } else {
-      entries.values.exists(_.asInstanceOf[InternalReplicatedData].hasDelta)
+      changed.exists(key => changedValue(key).exists(_.hasDelta))
     }
 
   override def getDelta: ReplicatedEntityDelta.Delta = {
-    val updatedEntries = (entries -- added).collect {
-      case (key, changed) if changed.asInstanceOf[InternalReplicatedData].hasDelta =>
-        ReplicatedMapEntryDelta(
-          Some(anySupport.encodeScala(key)),
-          Some(ReplicatedEntityDelta(changed.asInstanceOf[InternalReplicatedData].getDelta)))
+    val updatedEntries = (changed -- added).flatMap { key =>
+      changedValue(key).collect {
+        case value if value.hasDelta =>
+          ReplicatedMapEntryDelta(Some(anySupport.encodeScala(key)), Some(ReplicatedEntityDelta(value.getDelta)))
+      }
     }
     val addedEntries = added.flatMap { key =>
       entries.get(key).map { value =>
@@ -123,11 +130,16 @@ private[kalix] final class ReplicatedMapImpl[K, V <: ReplicatedData](
   }
 
   override def resetDelta(): ReplicatedMapImpl[K, V] =
-    if (!hasDelta) this
-    else
-      new ReplicatedMapImpl(
-        anySupport,
-        entries.view.mapValues(_.asInstanceOf[InternalReplicatedData].resetDelta().asInstanceOf[V]).toMap)
+    if (!cleared && added.isEmpty && removed.isEmpty && changed.isEmpty) this
+    else {
+      val resetEntries = changed.foldLeft(entries) { (map, key) =>
+        changedValue(key) match {
+          case Some(value) => map.updated(key, value.resetDelta().asInstanceOf[V])
+          case None        => map
+        }
+      }
+      new ReplicatedMapImpl(anySupport, resetEntries)
+    }
 
   override val applyDelta: PartialFunction[ReplicatedEntityDelta.Delta, ReplicatedMapImpl[K, V]] = {
     case ReplicatedEntityDelta.Delta.ReplicatedMap(ReplicatedMapDelta(cleared, removed, updated, added, _)) =>
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package kalix.javasdk.impl.telemetry
+
+import java.util.concurrent.ConcurrentHashMap
+
+import io.prometheus.client.Counter
+import io.prometheus.client.Histogram
+
+/**
+ * INTERNAL API
+ */
+private[kalix] object ComponentMetrics {
+
+  // values for the component_type label
+  val Action = "action"
+  val EventSourcedEntity = "event_sourced_entity"
+  val ValueEntity = "value_entity"
+  val View = "view"
+  val Workflow = "workflow"
+  val ReplicatedEntity = "replicated_entity"
+
+  private val NanosPerSecond = 1e9
+
+  private val Labels = Seq("component_type", "service", "method")
+
+  private def histogram(name: String, help: String): Histogram =
+    Histogram.build().name(name).help(help).labelNames(Labels: _*).register()
+
+  private def counter(name: String, help: String): Counter =
+    Counter.build().name(name).help(help).labelNames(Labels: _*).register()
+
+  private val DecodeTime =
+    histogram("kalix_component_decode_seconds", "Time to decode the incoming message of a command.")
+  private val HandlerTime =
+    histogram("kalix_component_handler_seconds", "Time spent in the user command handler.")
+  private val EncodeTime =
+    histogram("kalix_component_encode_seconds", "Time to encode the effect of a command into a response.")
+  private val TotalTime =
+    histogram("kalix_component_command_seconds", "Total time to handle a command, from receiving it to the response.")
+
+  private val Commands = counter("kalix_component_commands_total", "Number of commands handled.")
+  private val Events = counter(
+    "kalix_component_events_total",
+    "Number of events emitted by event sourced entities, or handled by views.")
+  private val Errors = counter("kalix_component_errors_total", "Number of commands that resulted in an error.")
+  private val ResponseSizeRejections = counter(
+    "kalix_component_response_size_rejections_total",
+    "Number of responses that were rejected for exceeding kalix.max-response-size.")
+  private val ResponseSizes: Histogram = Histogram
+    .build()
+    .name("kalix_component_response_size_bytes")
+    .help("Size of command responses, estimated from the payload sizes unless close to kalix.max-response-size.")
+    .labelNames(Labels: _*)
+    .exponentialBuckets(1024, 4, 8)
+    .register()
+
+  private val ReplayDuration: Histogram = Histogram
+    .build()
+    .name("kalix_event_sourced_entity_replay_seconds")
+    .help("Time to recover an event sourced entity from its snapshot and events, until the first command.")
+    .labelNames("entity_type")
+    .register()
+
+  private val ReplayedEvents: Counter = Counter
+    .build()
+    .name("kalix_event_sourced_entity_replayed_events_total")
+    .help("Number of events replayed when recovering event sourced entities.")
+    .labelNames("entity_type")
+    .register()
+
+  def apply(componentType: String, serviceName: String): ComponentMetrics =
+    new ComponentMetrics(componentType, serviceName)
+
+  /**
+   * Metrics for one method of a component. The labelled children are looked up once, so that recording is only a few
+   * lock-free increments.
+   */
+  final class MethodMetrics private[telemetry] (componentType: String, serviceName: String, method: String) {
+    private val decodeTime = DecodeTime.labels(componentType, serviceName, method)
+    private val handlerTime = HandlerTime.labels(componentType, serviceName, method)
+    private val encodeTime = EncodeTime.labels(componentType, serviceName, method)
+    private val totalTime = TotalTime.labels(componentType, serviceName, method)
+    private val commands = Commands.labels(componentType, serviceName, method)
+    private val events = Events.labels(componentType, serviceName, method)
+    private val errors = Errors.labels(componentType, serviceName, method)
+    private val responseSizeRejections = ResponseSizeRejections.labels(componentType, serviceName, method)
+    private val responseSizes = ResponseSizes.labels(componentType, serviceName, method)
+
+    private def observe(histogram: Histogram.Child, startNanos: Long): Long = {
+      val now = System.nanoTime()
+      histogram.observe((now - startNanos) / NanosPerSecond)
+      now
+    }
+
+    /** Record the decode time since `startNanos`, returns the current time to be used as start of the next stage. */
+    def decoded(startNanos: Long): Long = observe(decodeTime, startNanos)
+
+    /** Record the handler time since `startNanos`, returns the current time to be used as start of the next stage. */
+    def handled(startNanos: Long): Long = observe(handlerTime, startNanos)
+
+    /** Record the encode time since `startNanos`, returns the current time. */
+    def encoded(startNanos: Long): Long = observe(encodeTime, startNanos)
+
+    /** Count a command, with the total time since `startNanos` it took to handle it. */
+    def completed(startNanos: Long): Unit = {
+      observe(totalTime, startNanos)
+      commands.inc()
+    }
+
+    /** Count a command without timing it, for streamed commands. */
+    def command(): Unit = commands.inc()
+
+    def eventsEmitted(count: Int): Unit =
+      if (count > 0) events.inc(count.toDouble)
+
+    def failed(): Unit = errors.inc()
+
+    def responseSize(bytes: Long): Unit = responseSizes.observe(bytes.toDouble)
+
+    def responseSizeRejected(): Unit = responseSizeRejections.inc()
+  }
+}
+
+/**
+ * INTERNAL API
+ *
+ * Metrics for one component, registered in the default Prometheus registry and exposed by [[PrometheusExporter]] when
+ * metrics are enabled.
+ */
+private[kalix] final class ComponentMetrics private (componentType: String, serviceName: String) {
+  import ComponentMetrics._
+
+  private val methods = new ConcurrentHashMap[String, MethodMetrics]()
+
+  def method(name: String): MethodMetrics = {
+    val existing = methods.get(name)
+    if (existing ne null) existing
+    else methods.computeIfAbsent(name, _ => new MethodMetrics(componentType, serviceName, name))
+  }
+
+  /** Record the recovery of an event sourced entity from its snapshot and events. */
+  def replayed(entityType: String, events: Long, durationNanos: Long): Unit = {
+    ReplayDuration.labels(entityType).observe(durationNanos / NanosPerSecond)
+    ReplayedEvents.labels(entityType).inc(events.toDouble)
+  }
+}
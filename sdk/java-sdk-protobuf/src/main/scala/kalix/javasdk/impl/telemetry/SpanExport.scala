@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package kalix.javasdk.impl.telemetry
+
+import java.util.concurrent.atomic.AtomicInteger
+
+import com.typesafe.config.Config
+import io.opentelemetry.context.{ Context => OtelContext }
+import io.opentelemetry.sdk.common.CompletableResultCode
+import io.opentelemetry.sdk.trace.ReadWriteSpan
+import io.opentelemetry.sdk.trace.ReadableSpan
+import io.opentelemetry.sdk.trace.SpanProcessor
+import io.opentelemetry.sdk.trace.`export`.BatchSpanProcessor
+import io.opentelemetry.sdk.trace.`export`.SpanExporter
+import io.opentelemetry.sdk.trace.data.SpanData
+import io.prometheus.client.Counter
+
+/**
+ * INTERNAL API
+ *
+ * Exports finished spans in batches, with a bounded number of spans waiting for export. Spans that end while the queue
+ * is full are dropped, rather than holding up the command that ended them.
+ */
+private[telemetry] object SpanExport {
+
+  final case class Settings(
+      maxQueueSize: Int,
+      maxExportBatchSize: Int,
+      scheduleDelay: java.time.Duration,
+      exportTimeout: java.time.Duration)
+
+  object Settings {
+    def apply(config: Config): Settings = {
+      val tracing = config.getConfig("kalix.telemetry.tracing")
+      Settings(
+        maxQueueSize = tracing.getInt("max-queue-size"),
+        maxExportBatchSize = tracing.getInt("max-export-batch-size"),
+        scheduleDelay = tracing.getDuration("schedule-delay"),
+        exportTimeout = tracing.getDuration("export-timeout"))
+    }
+  }
+
+  private val Spans: Counter = Counter
+    .build()
+    .name("kalix_tracing_spans_total")
+    .help("Number of finished spans by whether they were exported, failed to export or dropped because the export " +
+    "queue was full.")
+    .labelNames("result")
+    .register()
+
+  private[telemetry] val Exported = Spans.labels("exported")
+  private[telemetry] val Failed = Spans.labels("failed")
+  private[telemetry] val Dropped = Spans.labels("dropped")
+
+  def processor(exporter: SpanExporter, settings: Settings): BoundedSpanProcessor = {
+    val queued = new AtomicInteger()
+    val batching = BatchSpanProcessor
+      .builder(new CountingSpanExporter(exporter, queued))
+      .setMaxQueueSize(settings.maxQueueSize)
+      .setMaxExportBatchSize(math.min(settings.maxExportBatchSize, settings.maxQueueSize))
+      .setScheduleDelay(settings.scheduleDelay)
+      .setExporterTimeout(settings.exportTimeout)
+      .build()
+    new BoundedSpanProcessor(batching, settings.maxQueueSize, queued)
+  }
+
+  /**
+   * Only passes spans on to the batching processor while fewer than `maxQueued` spans wait for export, so that the
+   * dropped spans can be counted.
+   */
+  final class BoundedSpanProcessor private[SpanExport] (
+      delegate: SpanProcessor,
+      maxQueued: Int,
+      queued: AtomicInteger)
+      extends SpanProcessor {
+
+    /** The number of spans passed on to the batching processor that haven't been handed to the exporter yet. */
+    def queuedSpans: Int = queued.get
+
+    override def onStart(parentContext: OtelContext, span: ReadWriteSpan): Unit = ()
+
+    override def isStartRequired: Boolean = false
+
+    override def onEnd(span: ReadableSpan): Unit =
+      if (span.getSpanContext.isSampled) {
+        if (queued.incrementAndGet() > maxQueued) {
+          queued.decrementAndGet()
+          Dropped.inc()
+        } else {
+          delegate.onEnd(span)
+        }
+      }
+
+    override def isEndRequired: Boolean = true
+
+    override def shutdown(): CompletableResultCode = delegate.shutdown()
+
+    override def forceFlush(): CompletableResultCode = delegate.forceFlush()
+  }
+
+  /** Counts the exported spans, and frees their place in the queue once the batching processor hands them over. */
+  private final class CountingSpanExporter(delegate: SpanExporter, queued: AtomicInteger) extends SpanExporter {
+
+    override def `export`(spans: java.util.Collection[SpanData]): CompletableResultCode = {
+      val size = spans.size
+      queued.addAndGet(-size)
+      val result = delegate.`export`(spans)
+      result.whenComplete { () =>
+        if (result.isSuccess) Exported.inc(size.toDouble) else Failed.inc(size.toDouble)
+      }
+      result
+    }
+
+    override def flush(): CompletableResultCode = delegate.flush()
+
+    override def shutdown(): CompletableResultCode = delegate.shutdown()
+  }
+
+}
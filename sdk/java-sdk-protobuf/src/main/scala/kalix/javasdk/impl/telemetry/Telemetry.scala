@@ -9,6 +9,7 @@ import akka.actor.ExtendedActorSystem
 import akka.actor.Extension
 import akka.actor.ExtensionId
 import io.opentelemetry.api.OpenTelemetry
+import io.opentelemetry.api.common.AttributeKey
 import io.opentelemetry.api.common.Attributes
 import io.opentelemetry.api.trace.Span
 import io.opentelemetry.api.trace.SpanKind
@@ -22,7 +23,6 @@ import io.opentelemetry.exporter.otlp.trace.OtlpGrpcSpanExporter
 import io.opentelemetry.sdk.OpenTelemetrySdk
 import io.opentelemetry.sdk.resources.Resource
 import io.opentelemetry.sdk.trace.SdkTracerProvider
-import io.opentelemetry.sdk.trace.`export`.SimpleSpanProcessor
 import io.opentelemetry.semconv.ServiceAttributes
 import kalix.javasdk.Metadata
 import kalix.javasdk.impl.MetadataImpl
@@ -31,6 +31,7 @@ import kalix.javasdk.impl.Service
 import kalix.protocol.action.ActionCommand
 import kalix.protocol.component.MetadataEntry
 import kalix.protocol.component.MetadataEntry.Value.StringValue
+import kalix.protocol.discovery.IdentificationInfo
 import kalix.protocol.entity.Command
 import org.slf4j.Logger
 import org.slf4j.LoggerFactory
@@ -72,6 +73,11 @@ final class Telemetry(system: ActorSystem) extends Extension {
 
   implicit val ec: ExecutionContext = system.dispatcher
 
+  private val sampler = TraceSampler(system.settings.config)
+
+  // one SDK, and one exporter, for all components, created on first use
+  private var openTelemetry: Option[OpenTelemetry] = None
+
   /**
    * This method assumes the instrumentation won't be consumed until discovery from the proxy is requested. Therefore
    * this should be stored in a `lazy` value and only used after we are sure the ProxyInfo has been process. For
@@ -94,16 +100,49 @@ final class Telemetry(system: ActorSystem) extends Extension {
       NoOpInstrumentation
     } else {
       logger.debug("Instrumentation enabled. Set collector endpoint to [{}].", collectorEndpoint)
-      new TraceInstrumentation(collectorEndpoint, componentName, system, componentCategory)
+      new TraceInstrumentation(sharedOpenTelemetry(collectorEndpoint), sampler, componentName, componentCategory)
+    }
+  }
+
+  private def sharedOpenTelemetry(collectorEndpoint: String): OpenTelemetry = synchronized {
+    openTelemetry.getOrElse {
+      val settings = SpanExport.Settings(system.settings.config)
+      logger.debug(
+        "Exporting spans to [{}] in batches of up to {} spans, queueing up to {} spans",
+        collectorEndpoint,
+        settings.maxExportBatchSize,
+        settings.maxQueueSize)
+      val serviceName = proxyInfoHolder.identificationInfo match {
+        case Some(IdentificationInfo(_, _, _, name, _)) if name.nonEmpty => name
+        case _                                                           => system.name
+      }
+      val resource =
+        Resource.getDefault.merge(Resource.create(Attributes.of(ServiceAttributes.SERVICE_NAME, serviceName)))
+      val sdkTracerProvider = SdkTracerProvider
+        .builder()
+        .addSpanProcessor(
+          SpanExport.processor(OtlpGrpcSpanExporter.builder().setEndpoint(collectorEndpoint).build(), settings))
+        .setResource(resource)
+        .build()
+
+      val sdk = OpenTelemetrySdk
+        .builder()
+        .setTracerProvider(sdkTracerProvider)
+        .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+        .build()
+      system.registerOnTermination(sdk.close())
+      openTelemetry = Some(sdk)
+      sdk
     }
   }
 }
 
 trait Instrumentation {
 
-  def buildSpan(service: Service, command: Command): Option[Span]
+  /** Builds the span from the already parsed metadata of the command, which is shared with the command context. */
+  def buildSpan(service: Service, command: Command, metadata: MetadataImpl): Option[Span]
 
-  def buildSpan(service: Service, command: ActionCommand): Option[Span]
+  def buildSpan(service: Service, command: ActionCommand, metadata: MetadataImpl): Option[Span]
 
   def getTracer: Tracer
 
@@ -115,6 +154,9 @@ private[kalix] object TraceInstrumentation {
   val TRACE_STATE_KEY = "tracestate"
   val TRACING_ENDPOINT = "kalix.telemetry.tracing.collector-endpoint"
 
+  private val ComponentName: AttributeKey[String] = AttributeKey.stringKey("component.name")
+  private val ComponentCategoryName: AttributeKey[String] = AttributeKey.stringKey("component.category")
+
   private val logger: Logger = LoggerFactory.getLogger(getClass)
 
   lazy val otelGetter: TextMapGetter[Metadata] = new TextMapGetter[Metadata]() {
@@ -132,52 +174,32 @@ private[kalix] object TraceInstrumentation {
   }
 }
 
+/**
+ * The SDK is shared by all components, so spans carry the component as attributes instead of as the service name of
+ * the resource.
+ */
 private final class TraceInstrumentation(
-    collectorEndpoint: String,
+    openTelemetry: OpenTelemetry,
+    sampler: TraceSampler,
     componentName: String,
-    system: ActorSystem,
     componentCategory: ComponentCategory)
     extends Instrumentation {
 
   import TraceInstrumentation._
 
-  private val tracePrefix = componentCategory.name
-
-  private val openTelemetry: OpenTelemetry = {
-    val resource =
-      Resource.getDefault.merge(
-        Resource.create(Attributes.of(ServiceAttributes.SERVICE_NAME, s"$tracePrefix($componentName)")))
-    val sdkTracerProvider = SdkTracerProvider
-      .builder()
-      .addSpanProcessor(
-        SimpleSpanProcessor.create(
-          OtlpGrpcSpanExporter
-            .builder()
-            .setEndpoint(collectorEndpoint)
-            .build()))
-      .setResource(resource)
-      .build()
-
-    val sdk = OpenTelemetrySdk
-      .builder()
-      .setTracerProvider(sdkTracerProvider)
-      .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
-      .build()
-    system.registerOnTermination(sdk.close())
-    sdk
-  }
+  private val componentAttributes =
+    Attributes.of(ComponentName, componentName, ComponentCategoryName, componentCategory.name)
 
   /**
-   * Creates a span if it finds a trace parent in the command's metadata
+   * Creates a span if it finds a trace parent in the command's metadata, and the command is sampled
    * @param service
    * @param command
    * @return
    */
-  override def buildSpan(service: Service, command: Command): Option[Span] = {
+  override def buildSpan(service: Service, command: Command, metadata: MetadataImpl): Option[Span] = {
     if (logger.isTraceEnabled) logger.trace("Building span for command [{}].", command)
-    val metadata = MetadataImpl.of(command.metadata.map(_.entries).getOrElse(Nil))
-    if (metadata.get(TRACE_PARENT_KEY).isPresent) {
-      if (logger.isTraceEnabled) logger.trace("`traceparent` found")
+    if (sampled(service, command.name, metadata)) {
+      if (logger.isTraceEnabled) logger.trace("`traceparent` found and sampled")
 
       val context = openTelemetry.getPropagators.getTextMapPropagator
         .extract(OtelContext.current(), metadata, otelGetter)
@@ -187,6 +209,7 @@ private final class TraceInstrumentation(
         .spanBuilder(command.name)
         .setParent(context)
         .setSpanKind(SpanKind.SERVER)
+        .setAllAttributes(componentAttributes)
         .startSpan()
       Some(
         span
@@ -194,17 +217,15 @@ private final class TraceInstrumentation(
           .setAttribute("component.type_id", service.serviceName)
           .setAttribute("component.id", command.entityId))
     } else {
-      if (logger.isTraceEnabled) logger.trace("No `traceparent` found for command [{}].", command)
+      if (logger.isTraceEnabled) logger.trace("No `traceparent` found, or not sampled, for command [{}].", command)
       None
     }
   }
 
-  override def buildSpan(service: Service, command: ActionCommand): Option[Span] = {
+  override def buildSpan(service: Service, command: ActionCommand, metadata: MetadataImpl): Option[Span] = {
     if (logger.isTraceEnabled) logger.trace("Building span for action command [{}].", command)
-
-    val metadata = MetadataImpl.of(command.metadata.map(_.entries).getOrElse(Nil))
-    if (metadata.get(TRACE_PARENT_KEY).isPresent) {
-      if (logger.isTraceEnabled) logger.trace("`traceparent` found")
+    if (sampled(service, command.name, metadata)) {
+      if (logger.isTraceEnabled) logger.trace("`traceparent` found and sampled")
 
       val context = openTelemetry.getPropagators.getTextMapPropagator
         .extract(OtelContext.current(), metadata, otelGetter)
@@ -213,26 +234,33 @@ private final class TraceInstrumentation(
         .spanBuilder(command.name)
         .setParent(context)
         .setSpanKind(SpanKind.SERVER)
+        .setAllAttributes(componentAttributes)
         .startSpan()
       Some(
         span
           .setAttribute("service.name", service.serviceName)
           .setAttribute("component.type", service.componentType))
     } else {
-      if (logger.isTraceEnabled) logger.trace("No `traceparent` found for command [{}].", command)
+      if (logger.isTraceEnabled) logger.trace("No `traceparent` found, or not sampled, for command [{}].", command)
       None
     }
   }
 
+  private def sampled(service: Service, commandName: String, metadata: MetadataImpl): Boolean =
+    metadata.getScala(TRACE_PARENT_KEY) match {
+      case Some(traceParent) => sampler.sample(service.serviceName, commandName, traceParent)
+      case None              => false
+    }
+
   // TODO: should this be specific per sdk?
   override def getTracer: Tracer = openTelemetry.getTracer("kalix")
 }
 
 private object NoOpInstrumentation extends Instrumentation {
 
-  override def buildSpan(service: Service, command: Command): Option[Span] = None
+  override def buildSpan(service: Service, command: Command, metadata: MetadataImpl): Option[Span] = None
 
-  override def buildSpan(service: Service, command: ActionCommand): Option[Span] = None
+  override def buildSpan(service: Service, command: ActionCommand, metadata: MetadataImpl): Option[Span] = None
 
   override def getTracer: Tracer = OpenTelemetry.noop().getTracer("noop")
 }
@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package kalix.javasdk.impl.telemetry
+
+import java.util.concurrent.atomic.AtomicLong
+
+import scala.jdk.CollectionConverters._
+
+import com.typesafe.config.Config
+
+/**
+ * INTERNAL API
+ *
+ * Decides which commands with a trace parent get a span, before anything else is done for the trace. Commands that
+ * aren't sampled are handled as if they had no trace parent.
+ *
+ * The ratio is applied to the trace id, like the OpenTelemetry `TraceIdRatioBased` sampler, so that components and
+ * services with the same ratio sample the same traces.
+ */
+private[kalix] final class TraceSampler(
+    ratio: Double,
+    parentBased: Boolean,
+    ratioOverrides: Map[String, Double],
+    rateLimiter: Option[TraceSampler.RateLimiter]) {
+  import TraceSampler._
+
+  private val upperBound = idUpperBound(ratio)
+  private val overrideUpperBounds = ratioOverrides.map { case (key, keyRatio) => key -> idUpperBound(keyRatio) }
+
+  /**
+   * @param component
+   *   the fully qualified service name of the component
+   * @param method
+   *   the method name, without the service
+   */
+  def sample(component: String, method: String, traceParent: String): Boolean = {
+    val bound =
+      if (overrideUpperBounds.isEmpty) upperBound
+      else
+        overrideUpperBounds.getOrElse(
+          s"$component.$method",
+          overrideUpperBounds.getOrElse(component, upperBound))
+
+    bound != 0 &&
+    (!parentBased || parentSampled(traceParent)) &&
+    (bound == Long.MaxValue || Math.abs(traceIdRandomPart(traceParent)) < bound) &&
+    rateLimiter.forall(_.tryAcquire())
+  }
+}
+
+/**
+ * INTERNAL API
+ */
+private[kalix] object TraceSampler {
+
+  def apply(config: Config): TraceSampler = {
+    val sampling = config.getConfig("kalix.telemetry.tracing.sampling")
+    val overrides = sampling.getConfig("ratio-overrides")
+    val ratioOverrides = overrides.root.keySet.asScala.map { key =>
+      key -> overrides.getDouble(s""""$key"""")
+    }.toMap
+    val maxPerSecond = sampling.getDouble("max-spans-per-second")
+    new TraceSampler(
+      sampling.getDouble("ratio"),
+      sampling.getBoolean("parent-based"),
+      ratioOverrides,
+      if (maxPerSecond > 0) Some(new RateLimiter(maxPerSecond, () => System.nanoTime())) else None)
+  }
+
+  // W3C trace context: version-traceid-parentid-flags, 00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01
+  private val TraceParentLength = 55
+  private val TraceIdRandomPartStart = 19
+  private val TraceIdEnd = 35
+  private val FlagsStart = 53
+
+  private def idUpperBound(ratio: Double): Long =
+    if (ratio <= 0.0) 0L
+    else if (ratio >= 1.0) Long.MaxValue
+    else (ratio * Long.MaxValue).toLong
+
+  /** The lower 8 bytes of the trace id, which are random. */
+  private def traceIdRandomPart(traceParent: String): Long =
+    if (traceParent.length != TraceParentLength) 0L
+    else
+      try java.lang.Long.parseUnsignedLong(traceParent.substring(TraceIdRandomPartStart, TraceIdEnd), 16)
+      catch {
+        case _: NumberFormatException => 0L
+      }
+
+  private def parentSampled(traceParent: String): Boolean =
+    traceParent.length == TraceParentLength && {
+      // the sampled flag is the lowest bit of the flags
+      val lowerFlags = Character.digit(traceParent.charAt(FlagsStart + 1), 16)
+      lowerFlags >= 0 && (lowerFlags & 1) == 1
+    }
+
+  /**
+   * Allows up to `perSecond` calls per second, with bursts of up to one second's worth of calls.
+   */
+  final class RateLimiter(perSecond: Double, nanoTime: () => Long) {
+    private val intervalNanos = math.max(1L, (1e9 / perSecond).toLong)
+    private val burstNanos = math.max(0L, (math.ceil(perSecond).toLong - 1) * intervalNanos)
+    // the time at which the next call would be allowed if there was no burst
+    private val nextAllowed = new AtomicLong(nanoTime())
+
+    def tryAcquire(): Boolean = {
+      val now = nanoTime()
+      var acquired = false
+      var done = false
+      while (!done) {
+        val next = nextAllowed.get()
+        val allowedAt = if (next - now < 0) now else next
+        if (allowedAt - now > burstNanos) done = true
+        else if (nextAllowed.compareAndSet(next, allowedAt + intervalNanos)) {
+          acquired = true
+          done = true
+        }
+      }
+      acquired
+    }
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package kalix.javasdk.impl.timer
+
+import scala.concurrent.ExecutionContext
+import scala.concurrent.Future
+import scala.util.Failure
+import scala.util.Success
+import scala.util.Try
+import scala.util.control.NonFatal
+
+import akka.Done
+import akka.actor.ActorSystem
+import akka.actor.ClassicActorSystemProvider
+import akka.actor.ExtendedActorSystem
+import akka.actor.Extension
+import akka.actor.ExtensionId
+import akka.actor.ExtensionIdProvider
+import akka.stream.Materializer
+import akka.stream.SystemMaterializer
+import akka.stream.scaladsl.Sink
+import akka.stream.scaladsl.Source
+import kalix.timers.timers.SingleTimer
+
+/**
+ * INTERNAL API
+ */
+private[kalix] object TimerBatch extends ExtensionId[TimerBatch] with ExtensionIdProvider {
+  override def get(system: ActorSystem): TimerBatch = super.get(system)
+
+  override def get(system: ClassicActorSystemProvider): TimerBatch = super.get(system)
+
+  override def createExtension(system: ExtendedActorSystem): TimerBatch =
+    new TimerBatch(
+      system.settings.config.getInt("kalix.timer.batch-parallelism"),
+      SystemMaterializer(system).materializer)
+
+  override def lookup: ExtensionId[_ <: Extension] = this
+
+  /** A timer to add, or the name of a timer to remove, or why the request could not be created. */
+  type TimerRequest = Try[Either[String, SingleTimer]]
+}
+
+/**
+ * INTERNAL API
+ *
+ * Runs the timer requests of a batch with at most `parallelism` requests in flight.
+ */
+private[kalix] final class TimerBatch(parallelism: Int, materializer: Materializer) extends Extension {
+  import TimerBatch.TimerRequest
+
+  require(parallelism > 0, s"kalix.timer.batch-parallelism must be greater than 0, was [$parallelism]")
+
+  /** Completes with the outcome of each request, in the order of the requests. */
+  def execute(calls: TimerCalls, requests: Seq[TimerRequest]): Future[Seq[Try[Done]]] =
+    if (requests.isEmpty) Future.successful(Nil)
+    else
+      Source(requests)
+        .mapAsync(parallelism) {
+          case Success(Right(singleTimer)) => outcome(calls.addSingle(singleTimer))
+          case Success(Left(name))         => outcome(calls.remove(name))
+          case Failure(exception)          => Future.successful(Failure(exception))
+        }
+        .runWith(Sink.seq)(materializer)
+
+  // failed requests become failed outcomes rather than failing the batch
+  private def outcome(response: => Future[Done]): Future[Try[Done]] = {
+    val future =
+      try response
+      catch {
+        case NonFatal(exception) => Future.failed(exception)
+      }
+    future.transform(Success(_))(ExecutionContext.parasitic)
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package kalix.javasdk.impl.timer
+
+import scala.concurrent.ExecutionContext
+import scala.concurrent.Future
+
+import akka.Done
+import akka.actor.ActorSystem
+import akka.grpc.scaladsl.SingleResponseRequestBuilder
+import com.google.protobuf.wrappers.StringValue
+import kalix.javasdk.impl.GrpcClients
+import kalix.timers.timers.SingleTimer
+import kalix.timers.timers.TimerService
+import kalix.timers.timers.TimerServiceClient
+
+/**
+ * INTERNAL API
+ *
+ * The calls to the timer service of the Kalix Runtime made by a timer scheduler.
+ */
+private[kalix] trait TimerCalls {
+  def addSingle(singleTimer: SingleTimer): Future[Done]
+  def remove(name: String): Future[Done]
+}
+
+/**
+ * INTERNAL API
+ */
+private[kalix] object TimerCalls {
+
+  /**
+   * Calls with the given metadata headers, through the timer service client of the Kalix Runtime from `GrpcClients`.
+   */
+  def apply(system: ActorSystem, headers: () => Seq[(String, String)]): TimerCalls =
+    fromClient(
+      () => GrpcClients(system).getProxyGrpcClient(classOf[TimerService]).asInstanceOf[TimerServiceClient],
+      headers)
+
+  /**
+   * Calls with the given metadata headers, through the client returned by `client`, which is looked up for every call.
+   * The headers are collected on the first call and reused for all calls.
+   */
+  def fromClient(client: () => TimerServiceClient, headers: () => Seq[(String, String)]): TimerCalls =
+    new GrpcTimerCalls(client, headers)
+
+  private final class GrpcTimerCalls(client: () => TimerServiceClient, headers: () => Seq[(String, String)])
+      extends TimerCalls {
+
+    // the client is not kept, so that a client on a closed channel is replaced for the next call, and so that calls
+    // are spread over the channels to the runtime
+    private lazy val headerList = headers()
+
+    override def addSingle(singleTimer: SingleTimer): Future[Done] =
+      withHeaders(client().addSingle()).invoke(singleTimer).map(_ => Done)(ExecutionContext.parasitic)
+
+    override def remove(name: String): Future[Done] =
+      withHeaders(client().remove()).invoke(StringValue(name)).map(_ => Done)(ExecutionContext.parasitic)
+
+    private def withHeaders[I, O](callBuilder: SingleResponseRequestBuilder[I, O]): SingleResponseRequestBuilder[I, O] =
+      headerList.foldLeft(callBuilder) { case (builder, (key, value)) => builder.addHeader(key, value) }
+  }
+}
@@ -5,36 +5,43 @@
 package kalix.javasdk.impl.timer
 
 import java.time.Duration
+import java.util
 import java.util.concurrent.CompletionStage
 
+import scala.concurrent.ExecutionContext
 import scala.jdk.CollectionConverters._
 import scala.jdk.FutureConverters.FutureOps
+import scala.util.Failure
+import scala.util.Success
+import scala.util.Try
 
 import akka.Done
 import akka.actor.ActorSystem
-import akka.grpc.scaladsl.SingleResponseRequestBuilder
 import com.google.protobuf.any.{ Any => ScalaPbAny }
 import com.google.protobuf.duration.{ Duration => ProtoDuration }
-import com.google.protobuf.wrappers.StringValue
 import kalix.javasdk.DeferredCall
 import kalix.javasdk.Metadata
-import kalix.javasdk.impl.GrpcClients
 import kalix.javasdk.impl.GrpcDeferredCall
 import kalix.javasdk.impl.MessageCodec
 import kalix.javasdk.impl.RestDeferredCall
+import kalix.javasdk.timer.TimerOperation
+import kalix.javasdk.timer.TimerOutcome
 import kalix.javasdk.timer.TimerScheduler
 import kalix.timers.timers.Call
 import kalix.timers.timers.SingleTimer
-import kalix.timers.timers.TimerService
-import kalix.timers.timers.TimerServiceClient
 
 /** INTERNAL API */
 private[kalix] final class TimerSchedulerImpl(
     val messageCodec: MessageCodec,
     val system: ActorSystem,
-    val metadata: Metadata)
+    val metadata: Metadata,
+    timerCalls: TimerCalls)
     extends TimerScheduler {
 
+  // the metadata headers are collected once and reused for every timer of this scheduler
+  def this(messageCodec: MessageCodec, system: ActorSystem, metadata: Metadata) =
+    this(messageCodec, system, metadata, TimerCalls(system, () => TimerSchedulerImpl.headers(metadata)))
+
   override def startSingleTimer[I, O](
       name: String,
       delay: Duration,
@@ -45,17 +52,44 @@ private[kalix] final class TimerSchedulerImpl(
       name: String,
       delay: Duration,
       maxRetries: Int,
-      deferredCall: DeferredCall[I, O]): CompletionStage[Done] = {
-    val timerServiceClient =
-      GrpcClients(system).getProxyGrpcClient(classOf[TimerService]).asInstanceOf[TimerServiceClient]
+      deferredCall: DeferredCall[I, O]): CompletionStage[Done] =
+    timerCalls.addSingle(singleTimer(name, delay, maxRetries, deferredCall)).asJava
 
+  def cancel(name: String): CompletionStage[Done] =
+    timerCalls.remove(name).asJava
+
+  override def execute(operations: util.List[TimerOperation]): CompletionStage[util.List[TimerOutcome]] = {
+    val ops = operations.asScala.toVector
+    val requests = ops.map { operation =>
+      Try(operation match {
+        case start: TimerOperation.StartSingleTimer =>
+          Right(singleTimer(start.name, start.delay, start.maxRetries, start.deferredCall))
+        case cancelTimer: TimerOperation.Cancel => Left(cancelTimer.name)
+        case other => throw new IllegalArgumentException(s"Unknown TimerOperation implementation ${other.getClass}")
+      })
+    }
+    TimerBatch(system)
+      .execute(timerCalls, requests)
+      .map { results =>
+        ops
+          .zip(results)
+          .map {
+            case (operation, Success(_))         => TimerOutcome.success(operation)
+            case (operation, Failure(exception)) => TimerOutcome.failure(operation, exception)
+          }
+          .asJava
+      }(ExecutionContext.parasitic)
+      .asJava
+  }
+
+  private def singleTimer(name: String, delay: Duration, maxRetries: Int, deferredCall: DeferredCall[_, _]) = {
     val call = deferredCall match {
-      case grpcDeferredCall: GrpcDeferredCall[I, O] =>
+      case grpcDeferredCall: GrpcDeferredCall[_, _] =>
         Call(
           grpcDeferredCall.fullServiceName,
           grpcDeferredCall.methodName,
           Some(messageCodec.encodeScala(grpcDeferredCall.message)))
-      case restDeferredCall: RestDeferredCall[I, O] =>
+      case restDeferredCall: RestDeferredCall[_, _] =>
         Call(
           restDeferredCall.fullServiceName,
           restDeferredCall.methodName,
@@ -64,24 +98,13 @@ private[kalix] final class TimerSchedulerImpl(
         // should never happen, but needs to make compiler happy
         throw new IllegalStateException("Unknown DeferredCall implementation")
     }
-
-    val singleTimer = SingleTimer(name, Some(call), Some(ProtoDuration(delay)), maxRetries)
-    addHeaders(timerServiceClient.addSingle(), metadata).invoke(singleTimer).asJava.thenApply(_ => Done)
+    SingleTimer(name, Some(call), Some(ProtoDuration(delay)), maxRetries)
   }
 
-  def cancel(name: String): CompletionStage[Done] = {
-    val timerServiceClient =
-      GrpcClients(system).getProxyGrpcClient(classOf[TimerService]).asInstanceOf[TimerServiceClient]
-    addHeaders(timerServiceClient.remove(), metadata).invoke(StringValue(name)).asJava.thenApply(_ => Done)
-  }
-
-  private def addHeaders[I, O](
-      callBuilder: SingleResponseRequestBuilder[I, O],
-      metadata: Metadata): SingleResponseRequestBuilder[I, O] = {
-    metadata.asScala.foldLeft(callBuilder) { case (builder, entry) =>
-      if (entry.isText) builder.addHeader(entry.getKey, entry.getValue)
-      else builder
-    }
-  }
+}
 
+/** INTERNAL API */
+private[kalix] object TimerSchedulerImpl {
+  private def headers(metadata: Metadata): Seq[(String, String)] =
+    metadata.asScala.collect { case entry if entry.isText => entry.getKey -> entry.getValue }.toSeq
 }
@@ -10,7 +10,7 @@ import akka.stream.scaladsl.{ Flow, Sink, Source }
 import io.grpc.Status
 import kalix.javasdk.KalixRunner.Configuration
 import kalix.javasdk.impl.ErrorHandling.BadRequestException
-import kalix.javasdk.impl.telemetry.{ Instrumentation, Telemetry, ValueEntityCategory }
+import kalix.javasdk.impl.telemetry.{ ComponentMetrics, Instrumentation, Telemetry, ValueEntityCategory }
 import kalix.protocol.component.Failure
 import org.slf4j.{ LoggerFactory, MDC }
 
@@ -18,7 +18,6 @@ import scala.util.control.NonFatal
 
 // FIXME these don't seem to be 'public API', more internals?
 import com.google.protobuf.Descriptors
-import kalix.javasdk.Metadata
 import kalix.javasdk.impl._
 import kalix.javasdk.impl.effect.{ EffectSupport, ErrorReplyImpl, MessageReplyImpl }
 import kalix.javasdk.impl.valueentity.ValueEntityEffectImpl.{ DeleteEntity, UpdateState }
@@ -77,15 +76,28 @@ final class ValueEntitiesImpl(
     (s.serviceName, telemetry.traceInstrumentation(s.serviceName, ValueEntityCategory))
   }.toMap
 
+  private val metrics: Map[String, ComponentMetrics] = services.map { case (name, _) =>
+    name -> ComponentMetrics(ComponentMetrics.ValueEntity, name)
+  }
+
   private val pbCleanupDeletedValueEntityAfter =
     Some(com.google.protobuf.duration.Duration(configuration.cleanupDeletedValueEntityAfter))
 
   private val maxResponseSize =
     system.settings.config.getBytes("kalix.max-response-size").toInt
 
-  private def validateResponseSize(reply: ValueEntityReply, entityId: String, commandName: String): Unit = {
-    val replySize = reply.toByteArray.length
+  private def validateResponseSize(
+      reply: ValueEntityReply,
+      entityId: String,
+      commandName: String,
+      methodMetrics: ComponentMetrics.MethodMetrics): Unit = {
+    val estimatedSize =
+      ResponseSize.clientAction(reply.clientAction) + ResponseSize.sideEffects(reply.sideEffects) +
+      ResponseSize.payload(reply.stateAction.flatMap(_.action.update).flatMap(_.value))
+    val replySize = ResponseSize(estimatedSize, maxResponseSize)(reply.serializedSize)
+    methodMetrics.responseSize(replySize)
     if (replySize > maxResponseSize) {
+      methodMetrics.responseSizeRejected()
       val sizeSummary =
         Seq(
           reply.stateAction.map(sa => s"updated state ${sa.serializedSize}"),
@@ -134,6 +146,9 @@ final class ValueEntitiesImpl(
     val router =
       service.factory.create(new ValueEntityContextImpl(init.entityId, system))
     val thisEntityId = init.entityId
+    val serviceMetrics = metrics(init.serviceName)
+    // commands are handled one at a time, deactivating the context before the next one
+    val commandContext = new CommandContextImpl(thisEntityId, system)
 
     // only "unexpected" exceptions should end up here
     def failureOutWithEntityLogger(error: Throwable): ValueEntityStreamOut =
@@ -177,17 +192,19 @@ final class ValueEntitiesImpl(
             throw ProtocolException(command, "No command payload for Value entity")
 
           case InCommand(command) =>
-            val metadata = MetadataImpl.of(command.metadata.map(_.entries.toVector).getOrElse(Nil))
-
-            if (log.isTraceEnabled) log.trace("Metadata entries [{}].", metadata.entries)
-            val span = instrumentations(service.serviceName).buildSpan(service, command)
+            val commandMetadata = MetadataImpl.fromProtocol(command.metadata)
+            if (log.isTraceEnabled)
+              log.trace("Metadata entries [{}].", commandMetadata.entries)
+            val span = instrumentations(service.serviceName).buildSpan(service, command, commandMetadata)
             span.foreach(s => MDC.put(Telemetry.TRACE_ID, s.getSpanContext.getTraceId))
+            val methodMetrics = serviceMetrics.method(command.name)
+            val start = System.nanoTime()
             try {
               val cmd =
                 service.messageCodec.decodeMessage(
                   command.payload.getOrElse(throw ProtocolException(command, "No command payload")))
-              val context =
-                new CommandContextImpl(thisEntityId, command.name, command.id, metadata, system)
+              val decoded = methodMetrics.decoded(start)
+              val context = commandContext.reset(command.name, command.id, commandMetadata)
 
               val CommandResult(effect: ValueEntityEffectImpl[_]) =
                 try {
@@ -201,6 +218,7 @@ final class ValueEntitiesImpl(
                 } finally {
                   context.deactivate() // Very important!
                 }
+              val handled = methodMetrics.handled(decoded)
 
               val serializedSecondaryEffect = effect.secondaryEffect match {
                 case MessageReplyImpl(message, metadata, sideEffects) =>
@@ -214,7 +232,9 @@ final class ValueEntitiesImpl(
               serializedSecondaryEffect match {
                 case _: ErrorReplyImpl[_] =>
                   val reply = ValueEntityReply(commandId = command.id, clientAction = clientAction)
-                  validateResponseSize(reply, thisEntityId, command.name)
+                  methodMetrics.encoded(handled)
+                  validateResponseSize(reply, thisEntityId, command.name, methodMetrics)
+                  methodMetrics.failed()
                   ValueEntityStreamOut(OutReply(reply))
 
                 case _ => // non-error
@@ -231,12 +251,18 @@ final class ValueEntitiesImpl(
                   val reply = ValueEntityReply(
                     command.id,
                     clientAction,
-                    EffectSupport.sideEffectsFrom(service.messageCodec, serializedSecondaryEffect),
+                    EffectSupport.sideEffectsFrom(service.messageCodec, serializedSecondaryEffect, maxResponseSize),
                     action)
-                  validateResponseSize(reply, thisEntityId, command.name)
+                  methodMetrics.encoded(handled)
+                  validateResponseSize(reply, thisEntityId, command.name, methodMetrics)
                   ValueEntityStreamOut(OutReply(reply))
               }
+            } catch {
+              case NonFatal(error) =>
+                methodMetrics.failed()
+                throw error
             } finally {
+              methodMetrics.completed(start)
               span.foreach { s =>
                 MDC.remove(Telemetry.TRACE_ID)
                 s.end()
@@ -259,15 +285,31 @@ final class ValueEntitiesImpl(
 
 }
 
-private[kalix] final class CommandContextImpl(
-    override val entityId: String,
-    override val commandName: String,
-    override val commandId: Long,
-    override val metadata: Metadata,
-    system: ActorSystem)
+/**
+ * Command context used for all commands of one entity. Commands are handled one at a time and the context is
+ * deactivated once the command handler has returned, so it is reset and activated again for each command. The metadata
+ * is the same instance that tracing looked at, so it is only parsed once per command.
+ */
+private[kalix] final class CommandContextImpl(override val entityId: String, system: ActorSystem)
     extends AbstractContext(system)
     with CommandContext
-    with ActivatableContext
+    with ActivatableContext {
+  private var _commandName = ""
+  private var _commandId = 0L
+  private var _metadata: MetadataImpl = MetadataImpl.Empty
+
+  override def commandName: String = _commandName
+  override def commandId: Long = _commandId
+  override def metadata: MetadataImpl = _metadata
+
+  def reset(commandName: String, commandId: Long, metadata: MetadataImpl): CommandContextImpl = {
+    _commandName = commandName
+    _commandId = commandId
+    _metadata = metadata
+    activate()
+    this
+  }
+}
 
 private[kalix] final class ValueEntityContextImpl(override val entityId: String, system: ActorSystem)
     extends AbstractContext(system)
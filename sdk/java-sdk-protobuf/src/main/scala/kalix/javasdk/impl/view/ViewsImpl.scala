@@ -12,6 +12,7 @@ import kalix.javasdk.Metadata
 import kalix.javasdk.impl.Service
 import kalix.javasdk.impl.ViewFactory
 import kalix.javasdk.impl._
+import kalix.javasdk.impl.telemetry.ComponentMetrics
 import kalix.javasdk.impl.telemetry.Telemetry
 import kalix.javasdk.view.UpdateContext
 import kalix.javasdk.view.ViewContext
@@ -22,6 +23,7 @@ import org.slf4j.LoggerFactory
 import org.slf4j.MDC
 
 import java.util.Optional
+import java.util.concurrent.ConcurrentLinkedQueue
 import scala.jdk.OptionConverters._
 import scala.util.control.NonFatal
 
@@ -66,16 +68,32 @@ final class ViewsImpl(system: ActorSystem, _services: Map[String, ViewService])
 
   private final val services = _services.iterator.toMap
 
+  private val metrics: Map[String, ComponentMetrics] = services.map { case (name, _) =>
+    name -> ComponentMetrics(ComponentMetrics.View, name)
+  }
+
   private val maxResponseSize =
     system.settings.config.getBytes("kalix.max-response-size").toInt
 
+  private val poolHandlers = system.settings.config.getBoolean("kalix.view.pool-handlers")
+
+  private val multiEventStreams = system.settings.config.getBoolean("kalix.view.multi-event-streams")
+
+  private val handlerPools: Map[String, HandlerPool] = services.collect {
+    case (name, service) if service.factory.isPresent => name -> new HandlerPool(service)
+  }
+
   private def validateResponseSize(
       response: pv.ViewStreamOut,
       metadata: MetadataImpl,
       viewId: String,
-      eventName: String): Unit = {
-    val responseSize = response.serializedSize
+      eventName: String,
+      methodMetrics: ComponentMetrics.MethodMetrics): Unit = {
+    val estimatedSize = ResponseSize.payload(response.message.upsert.flatMap(_.row).flatMap(_.value))
+    val responseSize = ResponseSize(estimatedSize, maxResponseSize)(response.serializedSize)
+    methodMetrics.responseSize(responseSize)
     if (responseSize > maxResponseSize) {
+      methodMetrics.responseSizeRejected()
       throw new IllegalStateException(
         s"Response size ($responseSize) exceeds maximum allowed size ($maxResponseSize) for view '$viewId', " +
         s"event '$eventName'${metadata.subject().toScala.fold("")(subject => s", subject-id: $subject")}")
@@ -83,106 +101,190 @@ final class ViewsImpl(system: ActorSystem, _services: Map[String, ViewService])
   }
 
   /**
-   * Handle a full duplex streamed session. One stream will be established per incoming message to the view service.
+   * Handle a full duplex streamed session. By default one stream is established per incoming event to the view
+   * service, with `kalix.view.multi-event-streams` enabled one stream carries any number of events, each answered with
+   * one response, in order.
    *
-   * The first message is ReceiveEvent and contain the request metadata, including the service name and command name.
+   * Each message is a ReceiveEvent and contains the request metadata, including the service name and command name.
    */
   override def handle(in: akka.stream.scaladsl.Source[pv.ViewStreamIn, akka.NotUsed])
       : akka.stream.scaladsl.Source[pv.ViewStreamOut, akka.NotUsed] =
     // FIXME: see kalix-proxy/issues/209 and kalix-proxy/issues/207
-    // It is currently only implemented to support one request (ReceiveEvent) with one response (Upsert).
     // The intention, and reason for full-duplex streaming, is that there should be able to have an interaction
     // with two main types of operations, loads, and updates, and with
     // each load there is an associated continuation, which in turn may return more operations, including more loads,
-    // and so on recursively.
-    in.prefixAndTail(1)
-      .flatMapConcat {
-        case (Seq(pv.ViewStreamIn(pv.ViewStreamIn.Message.Receive(receiveEvent), _)), _) =>
-          services.get(receiveEvent.serviceName) match {
-            case Some(service: ViewService) =>
-              if (!service.factory.isPresent)
-                throw new IllegalArgumentException(
-                  s"Unexpected call to service [${receiveEvent.serviceName}] with viewId [${service.viewId}]: " +
-                  "this view has `transform_updates=false` set, so updates should be handled entirely by the proxy " +
-                  "and not reach the user function")
-
-              // FIXME should we really create a new handler instance per incoming command ???
-              val handler = service.factory.get.create(new ViewContextImpl(service.viewId))
+    // and so on recursively. Only updates are implemented.
+    if (multiEventStreams)
+      in.map(decode)
+        // decoding the next events runs concurrently with the update handler, updates are still applied in order
+        .async
+        .map(update)
+        .addAttributes(SdkExecutionContext.streamDispatcher)
+    else
+      in.prefixAndTail(1)
+        .flatMapConcat {
+          case (Seq(first), _) =>
+            Source.single(update(decode(first)))
+
+          case (Seq(), _) =>
+            log.warn("View stream closed before init.")
+            Source.empty[pv.ViewStreamOut]
+        }
+        .addAttributes(SdkExecutionContext.streamDispatcher)
 
+  private def decode(in: pv.ViewStreamIn): DecodedEvent =
+    in match {
+      case pv.ViewStreamIn(pv.ViewStreamIn.Message.Receive(receiveEvent), _) =>
+        services.get(receiveEvent.serviceName) match {
+          case Some(service: ViewService) =>
+            if (!service.factory.isPresent)
+              throw new IllegalArgumentException(
+                s"Unexpected call to service [${receiveEvent.serviceName}] with viewId [${service.viewId}]: " +
+                "this view has `transform_updates=false` set, so updates should be handled entirely by the proxy " +
+                "and not reach the user function")
+
+            val methodMetrics = metrics(receiveEvent.serviceName).method(receiveEvent.commandName)
+            val start = System.nanoTime()
+            try {
               val state: Option[Any] =
                 receiveEvent.bySubjectLookupResult.flatMap(row =>
                   row.value.map(scalaPb => service.messageCodec.decodeMessage(scalaPb)))
 
-              val commandName = receiveEvent.commandName
               val msg = service.messageCodec.decodeMessage(receiveEvent.payload.get)
-              val metadata = MetadataImpl.of(receiveEvent.metadata.map(_.entries.toVector).getOrElse(Nil))
-              val addedToMDC = metadata.traceContext.traceId().toScala match {
-                case Some(traceId) =>
-                  MDC.put(Telemetry.TRACE_ID, traceId)
-                  true
-                case None => false
-              }
-
-              val context = new UpdateContextImpl(service.viewId, commandName, metadata)
-
-              val effect =
-                try {
-                  handler._internalHandleUpdate(state, msg, context)
-                } catch {
-                  case e: ViewException => throw e
-                  case NonFatal(error) =>
-                    throw ViewException(context, s"View unexpected failure: ${error.getMessage}", Some(error))
-                } finally {
-                  if (addedToMDC) MDC.remove(Telemetry.TRACE_ID)
-                }
-
-              effect match {
-                case ViewUpdateEffectImpl.Update(newState) =>
-                  if (newState == null)
-                    throw ViewException(context, "updateState with null state is not allowed.", None)
-                  val serializedState = ScalaPbAny.fromJavaProto(service.messageCodec.encodeJava(newState))
-                  val upsert = pv.Upsert(Some(pv.Row(value = Some(serializedState))))
-                  val out = pv.ViewStreamOut(pv.ViewStreamOut.Message.Upsert(upsert))
-                  validateResponseSize(out, metadata, service.viewId, commandName)
-                  Source.single(out)
-                case ViewUpdateEffectImpl.Delete =>
-                  val delete = pv.Delete()
-                  val out = pv.ViewStreamOut(pv.ViewStreamOut.Message.Delete(delete))
-                  validateResponseSize(out, metadata, service.viewId, commandName)
-                  Source.single(out)
-                case ViewUpdateEffectImpl.Ignore =>
-                  // ignore incoming event
-                  val upsert = pv.Upsert(None)
-                  val out = pv.ViewStreamOut(pv.ViewStreamOut.Message.Upsert(upsert))
-                  validateResponseSize(out, metadata, service.viewId, commandName)
-                  Source.single(out)
-                case ViewUpdateEffectImpl.Error(e) =>
-                  Source.failed(new RuntimeException(e))
-              }
-
-            case None =>
-              val errMsg = s"Unknown service: ${receiveEvent.serviceName}"
-              log.error(errMsg)
-              Source.failed(new RuntimeException(errMsg))
-          }
-
-        case (Seq(), _) =>
-          log.warn("View stream closed before init.")
-          Source.empty[pv.ViewStreamOut]
-
-        case (Seq(pv.ViewStreamIn(other, _)), _) =>
-          val errMsg =
-            s"Kalix protocol failure: expected ReceiveEvent message, but got ${other.getClass.getName}"
-          Source.failed(new RuntimeException(errMsg))
+              val metadata = MetadataImpl.fromProtocol(receiveEvent.metadata)
+              methodMetrics.decoded(start)
+              val pool = handlerPools(receiveEvent.serviceName)
+              new DecodedEvent(service, pool, receiveEvent.commandName, state, msg, metadata, methodMetrics, start)
+            } catch {
+              case NonFatal(error) =>
+                methodMetrics.failed()
+                methodMetrics.completed(start)
+                throw error
+            }
+
+          case None =>
+            val errMsg = s"Unknown service: ${receiveEvent.serviceName}"
+            log.error(errMsg)
+            throw new RuntimeException(errMsg)
+        }
+
+      case pv.ViewStreamIn(other, _) =>
+        val errMsg =
+          s"Kalix protocol failure: expected ReceiveEvent message, but got ${other.getClass.getName}"
+        throw new RuntimeException(errMsg)
+    }
+
+  private def update(event: DecodedEvent): pv.ViewStreamOut = {
+    val service = event.service
+    val commandName = event.commandName
+    val metadata = event.metadata
+    val methodMetrics = event.methodMetrics
+    val pool = event.pool
+    val handler = pool.borrow()
+    try {
+      val handlerStart = System.nanoTime()
+      val addedToMDC = metadata.traceContext.traceId().toScala match {
+        case Some(traceId) =>
+          MDC.put(Telemetry.TRACE_ID, traceId)
+          true
+        case None => false
+      }
+
+      val context = handler.context.reset(commandName, metadata)
+
+      val effect =
+        try {
+          handler.router._internalHandleUpdate(event.state, event.message, context)
+        } catch {
+          case e: ViewException => throw e
+          case NonFatal(error) =>
+            throw ViewException(context, s"View unexpected failure: ${error.getMessage}", Some(error))
+        } finally {
+          if (addedToMDC) MDC.remove(Telemetry.TRACE_ID)
+        }
+      val handled = methodMetrics.handled(handlerStart)
+      methodMetrics.eventsEmitted(1)
+
+      val out = effect match {
+        case ViewUpdateEffectImpl.Update(newState) =>
+          if (newState == null)
+            throw ViewException(context, "updateState with null state is not allowed.", None)
+          val serializedState = ScalaPbAny.fromJavaProto(service.messageCodec.encodeJava(newState))
+          val upsert = pv.Upsert(Some(pv.Row(value = Some(serializedState))))
+          pv.ViewStreamOut(pv.ViewStreamOut.Message.Upsert(upsert))
+        case ViewUpdateEffectImpl.Delete =>
+          pv.ViewStreamOut(pv.ViewStreamOut.Message.Delete(pv.Delete()))
+        case ViewUpdateEffectImpl.Ignore =>
+          // ignore incoming event
+          pv.ViewStreamOut(pv.ViewStreamOut.Message.Upsert(pv.Upsert(None)))
+        case ViewUpdateEffectImpl.Error(e) =>
+          throw new RuntimeException(e)
       }
-      .addAttributes(SdkExecutionContext.streamDispatcher)
+      methodMetrics.encoded(handled)
+      validateResponseSize(out, metadata, service.viewId, commandName, methodMetrics)
+      out
+    } catch {
+      case NonFatal(error) =>
+        methodMetrics.failed()
+        throw error
+    } finally {
+      pool.release(handler)
+      methodMetrics.completed(event.start)
+    }
+  }
+
+  /** An incoming event decoded for the update handler, with the time decoding started. */
+  private final class DecodedEvent(
+      val service: ViewService,
+      val pool: HandlerPool,
+      val commandName: String,
+      val state: Option[Any],
+      val message: Any,
+      val metadata: MetadataImpl,
+      val methodMetrics: ComponentMetrics.MethodMetrics,
+      val start: Long)
+
+  /**
+   * Handler instances of one view. An instance handles one update at a time, and is returned to the pool after that, so
+   * that instances are reused across updates without being shared between concurrent updates. With
+   * `kalix.view.pool-handlers` disabled, a new instance is created for every update.
+   */
+  private final class HandlerPool(service: ViewService) {
+    private val pooled = new ConcurrentLinkedQueue[ViewHandler]()
 
-  private final class UpdateContextImpl(
-      override val viewId: String,
-      override val eventName: String,
-      override val metadata: Metadata)
+    def borrow(): ViewHandler = {
+      val handler = pooled.poll()
+      if (handler ne null) handler
+      else
+        new ViewHandler(
+          service.factory.get.create(new ViewContextImpl(service.viewId)),
+          new UpdateContextImpl(service.viewId))
+    }
+
+    def release(handler: ViewHandler): Unit =
+      if (poolHandlers) pooled.offer(handler)
+  }
+
+  private final class ViewHandler(val router: ViewUpdateRouter, val context: UpdateContextImpl)
+
+  /**
+   * Update context that is reused for all updates handled by one handler instance, `reset` before each update.
+   */
+  private final class UpdateContextImpl(override val viewId: String)
       extends AbstractContext(system)
       with UpdateContext {
+    private var _eventName: String = _
+    private var _metadata: Metadata = MetadataImpl.Empty
+
+    def reset(eventName: String, metadata: Metadata): UpdateContextImpl = {
+      _eventName = eventName
+      _metadata = metadata
+      this
+    }
+
+    override def eventName(): String = _eventName
+
+    override def metadata(): Metadata = _metadata
 
     override def eventSubject(): Optional[String] =
       if (metadata.isCloudEvent)
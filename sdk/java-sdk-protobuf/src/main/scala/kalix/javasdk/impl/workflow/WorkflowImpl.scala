@@ -4,6 +4,8 @@
 
 package kalix.javasdk.impl.workflow
 
+import java.util.concurrent.ConcurrentHashMap
+
 import scala.concurrent.ExecutionContext
 import scala.concurrent.Future
 import scala.util.control.NonFatal
@@ -17,6 +19,7 @@ import com.google.protobuf.duration.Duration
 import io.grpc.Status
 import kalix.javasdk.impl.WorkflowExceptions.{ failureMessageForLog, ProtocolException, WorkflowException }
 import kalix.javasdk.impl.ErrorHandling.BadRequestException
+import kalix.javasdk.impl.telemetry.ComponentMetrics
 import kalix.javasdk.impl.timer.TimerSchedulerImpl
 import kalix.javasdk.impl.workflow.WorkflowEffectImpl.End
 import kalix.javasdk.impl.workflow.WorkflowEffectImpl.ErrorEffectImpl
@@ -67,7 +70,6 @@ import kalix.javasdk.workflow.WorkflowContext
 import kalix.javasdk.workflow.WorkflowOptions
 // FIXME these don't seem to be 'public API', more internals?
 import com.google.protobuf.Descriptors
-import kalix.javasdk.Metadata
 import kalix.javasdk.impl._
 import scala.jdk.CollectionConverters._
 
@@ -109,6 +111,13 @@ final class WorkflowImpl(system: ActorSystem, val services: Map[String, Workflow
   private val pbCleanupDeletedWorkflowAfter =
     Some(com.google.protobuf.duration.Duration(configuration.cleanupDeletedWorkflowAfter))
 
+  // the workflow definition is the same for all instances of a workflow, so its config is only converted once
+  private val workflowConfigs = new ConcurrentHashMap[String, WorkflowStreamOut]()
+
+  private val metrics: Map[String, ComponentMetrics] = services.map { case (name, _) =>
+    name -> ComponentMetrics(ComponentMetrics.Workflow, name)
+  }
+
   override def handle(in: Source[WorkflowStreamIn, NotUsed]): Source[WorkflowStreamOut, NotUsed] =
     in.prefixAndTail(1)
       .flatMapConcat {
@@ -182,10 +191,17 @@ final class WorkflowImpl(system: ActorSystem, val services: Map[String, Workflow
     val router: WorkflowRouter[_, _] =
       service.factory.create(new WorkflowContextImpl(init.entityId, system))
     val workflowId = init.entityId
-
-    val workflowConfig =
-      WorkflowStreamOut(
-        WorkflowStreamOut.Message.Config(toWorkflowConfig(router._getWorkflowDefinition(), service.messageCodec)))
+    val serviceMetrics = metrics(init.serviceName)
+    // commands are handled one at a time, deactivating the context before the next one
+    val commandContext = new CommandContextImpl(workflowId, system)
+    // the timer scheduler holds no per command state, so it can be shared by all commands and steps of the workflow
+    val timerScheduler = new TimerSchedulerImpl(service.messageCodec, system, commandContext.componentCallMetadata)
+
+    val workflowConfig = workflowConfigs.computeIfAbsent(
+      init.serviceName,
+      _ =>
+        WorkflowStreamOut(
+          WorkflowStreamOut.Message.Config(toWorkflowConfig(router._getWorkflowDefinition(), service.messageCodec))))
 
     init.userState match {
       case Some(state) =>
@@ -281,34 +297,46 @@ final class WorkflowImpl(system: ActorSystem, val services: Map[String, Workflow
           Future.failed(ProtocolException(command, "No command payload for Workflow"))
 
         case InCommand(command) =>
-          val metadata = MetadataImpl.of(command.metadata.map(_.entries.toVector).getOrElse(Nil))
-
-          val context = new CommandContextImpl(workflowId, command.name, command.id, metadata, system)
-          val timerScheduler = new TimerSchedulerImpl(service.messageCodec, system, context.componentCallMetadata)
-
-          val cmd =
-            service.messageCodec.decodeMessage(
-              command.payload.getOrElse(throw ProtocolException(command, "No command payload")))
-
-          val CommandResult(effect) =
-            try {
-              router._internalHandleCommand(command.name, cmd, context, timerScheduler)
-            } catch {
-              case BadRequestException(msg) =>
-                CommandResult(WorkflowEffectImpl[Any]().error(msg, Status.Code.INVALID_ARGUMENT))
-              case e: WorkflowException => throw e
-              case NonFatal(error) =>
-                throw WorkflowException(command, s"Unexpected failure: $error", Some(error))
-            } finally {
-              context.deactivate() // Very important!
-            }
-
-          Future.successful(toProtoEffect(effect, command.id))
+          val context = commandContext.reset(command.name, command.id, command.metadata)
+
+          val methodMetrics = serviceMetrics.method(command.name)
+          val start = System.nanoTime()
+          try {
+            val cmd =
+              service.messageCodec.decodeMessage(
+                command.payload.getOrElse(throw ProtocolException(command, "No command payload")))
+            val decoded = methodMetrics.decoded(start)
+
+            val CommandResult(effect) =
+              try {
+                router._internalHandleCommand(command.name, cmd, context, timerScheduler)
+              } catch {
+                case BadRequestException(msg) =>
+                  CommandResult(WorkflowEffectImpl[Any]().error(msg, Status.Code.INVALID_ARGUMENT))
+                case e: WorkflowException => throw e
+                case NonFatal(error) =>
+                  throw WorkflowException(command, s"Unexpected failure: $error", Some(error))
+              } finally {
+                context.deactivate() // Very important!
+              }
+            val handled = methodMetrics.handled(decoded)
+
+            val out = toProtoEffect(effect, command.id)
+            methodMetrics.encoded(handled)
+            if (effect.isInstanceOf[ErrorEffectImpl[_]]) methodMetrics.failed()
+            Future.successful(out)
+          } catch {
+            case NonFatal(error) =>
+              methodMetrics.failed()
+              throw error
+          } finally {
+            methodMetrics.completed(start)
+          }
 
         case Step(executeStep) =>
+          // steps may run asynchronously, so they get their own context instead of the reused command context
           val context =
-            new CommandContextImpl(workflowId, executeStep.stepName, executeStep.commandId, Metadata.EMPTY, system)
-          val timerScheduler = new TimerSchedulerImpl(service.messageCodec, system, context.componentCallMetadata)
+            new CommandContextImpl(workflowId, system).reset(executeStep.stepName, executeStep.commandId, None)
           val stepResponse =
             try {
               executeStep.userState.foreach { state =>
@@ -367,15 +395,37 @@ final class WorkflowImpl(system: ActorSystem, val services: Map[String, Workflow
 
 }
 
-private[kalix] final class CommandContextImpl(
-    override val workflowId: String,
-    override val commandName: String,
-    override val commandId: Long,
-    override val metadata: Metadata,
-    system: ActorSystem)
+/**
+ * Command context used for all commands of one workflow. Commands are handled one at a time and the context is
+ * deactivated once the command handler has returned, so it is reset and activated again for each command. The metadata
+ * is only created if the command handler asks for it.
+ */
+private[kalix] final class CommandContextImpl(override val workflowId: String, system: ActorSystem)
     extends AbstractContext(system)
     with CommandContext
     with ActivatableContext {
+  private var _commandName = ""
+  private var _commandId = 0L
+  private var protocolMetadata: Option[component.Metadata] = None
+  private var _metadata: MetadataImpl = _
+
+  override def commandName: String = _commandName
+  override def commandId: Long = _commandId
+
+  override def metadata: MetadataImpl = {
+    if (_metadata eq null) _metadata = MetadataImpl.fromProtocol(protocolMetadata)
+    _metadata
+  }
+
+  def reset(commandName: String, commandId: Long, metadata: Option[component.Metadata]): CommandContextImpl = {
+    _commandName = commandName
+    _commandId = commandId
+    protocolMetadata = metadata
+    _metadata = null
+    activate()
+    this
+  }
+
   override def getGrpcClient[T](clientClass: Class[T], service: String): T =
     GrpcClients(system).getGrpcClient(clientClass, service)
 
@@ -77,9 +77,11 @@ abstract class WorkflowRouter[S, W <: AbstractWorkflow[S]](protected val workflo
       state
   }
 
-  def _getWorkflowDefinition(): WorkflowDef[S] = {
-    workflow.definition()
-  }
+  // the step functions of the definition are bound to this workflow instance, so it can be built once and reused for
+  // all steps and transitions, instead of being rebuilt for each of them
+  private lazy val workflowDefinition: WorkflowDef[S] = workflow.definition()
+
+  def _getWorkflowDefinition(): WorkflowDef[S] = workflowDefinition
 
   /** INTERNAL API */
   // "public" api against the impl/testkit
@@ -170,9 +172,8 @@ abstract class WorkflowRouter[S, W <: AbstractWorkflow[S]](protected val workflo
     workflow._internalSetCurrentState(stateOrEmpty(), deleted)
     workflow._internalSetTimerScheduler(Optional.of(timerScheduler))
     workflow._internalSetCommandContext(Optional.of(commandContext))
-    val workflowDef = workflow.definition()
 
-    workflowDef.findByName(stepName).toScala match {
+    workflowDefinition.findByName(stepName).toScala match {
       case Some(call: CallStep[_, _, _, _]) =>
         val decodedInput = input match {
           case Some(inputValue) => decodeInput(messageCodec, inputValue, call.callInputClass)
@@ -243,9 +244,8 @@ abstract class WorkflowRouter[S, W <: AbstractWorkflow[S]](protected val workflo
   def _internalGetNextStep(stepName: String, result: ScalaPbAny, messageCodec: MessageCodec): CommandResult = {
 
     workflow._internalSetCurrentState(stateOrEmpty(), deleted)
-    val workflowDef = workflow.definition()
 
-    workflowDef.findByName(stepName).toScala match {
+    workflowDefinition.findByName(stepName).toScala match {
       case Some(call: CallStep[_, _, _, _]) =>
         val effect =
           call.transitionFunc
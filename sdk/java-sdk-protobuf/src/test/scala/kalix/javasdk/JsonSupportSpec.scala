@@ -10,6 +10,7 @@ import java.util.Optional
 import scala.beans.BeanProperty
 
 import akka.Done
+import com.fasterxml.jackson.databind.DeserializationFeature
 import com.google.protobuf.Any
 import com.google.protobuf.UnsafeByteOperations
 import kalix.javasdk.impl.ByteStringEncoding
@@ -121,6 +122,24 @@ class JsonSupportSpec extends AnyWordSpec with Matchers {
       decodedCustomers.get(1).field shouldBe "bar"
     }
 
+    "pick up object mapper configuration changes after decoding" in {
+      val bytes = UnsafeByteOperations.unsafeWrap("""{"field":"foo","unknown":"bar"}""".getBytes)
+      val any =
+        Any.newBuilder
+          .setTypeUrl(JsonSupport.KALIX_JSON + classOf[MyJsonable].getName)
+          .setValue(ByteStringEncoding.encodePrimitiveBytes(bytes))
+          .build
+      JsonSupport.decodeJson(classOf[MyJsonable], any).field should ===("foo")
+
+      JsonSupport.getObjectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, true)
+      try {
+        an[IllegalArgumentException] should be thrownBy JsonSupport.decodeJson(classOf[MyJsonable], any)
+      } finally {
+        JsonSupport.getObjectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+      }
+      JsonSupport.decodeJson(classOf[MyJsonable], any).field should ===("foo")
+    }
+
     "serialize JSON with an explicit type url suffix" in {
       val any = JsonSupport.encodeJson(myJsonable, "bar")
       any.getTypeUrl should ===(JsonSupport.KALIX_JSON + "bar")
@@ -43,6 +43,21 @@ class AnySupportSpec extends AnyWordSpec with Matchers with OptionValues {
       anySupport.decodePossiblyPrimitive(any) should ===(addLineItem)
     }
 
+    "support repeatedly deserializing the same type url" in {
+      val any = anySupport.encodeScala(addLineItem)
+      anySupport.decodeMessage(any) should ===(addLineItem)
+      // a different string instance with the same contents
+      val sameTypeUrl = any.withTypeUrl(new String(any.typeUrl.toCharArray))
+      anySupport.decodeMessage(sameTypeUrl) should ===(addLineItem)
+    }
+
+    "fail to deserialize an unknown type url" in {
+      val any = ScalaPbAny("com.example/com.example.Unknown", ByteString.EMPTY)
+      a[SerializationException] should be thrownBy anySupport.decodeMessage(any)
+      // unknown types are not cached
+      a[SerializationException] should be thrownBy anySupport.decodeMessage(any)
+    }
+
     "support se/deserializing scala protobufs" in {
       val error = UserFunctionError("error")
       val any = anySupport.encodeScala(UserFunctionError("error"))
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package kalix.javasdk.impl
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionStage
+import java.util.concurrent.atomic.AtomicInteger
+
+import scala.concurrent.duration._
+
+import com.google.protobuf.StringValue
+import kalix.javasdk.Metadata
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class DeferredCallCoalescingSpec extends AnyWordSpec with Matchers {
+
+  private class Calls {
+    val count = new AtomicInteger()
+    val result = new CompletableFuture[String]()
+
+    def deferredCall(
+        payload: String,
+        metadata: MetadataImpl = MetadataImpl.Empty,
+        method: String = "Get"): GrpcDeferredCall[StringValue, String] =
+      GrpcDeferredCall(
+        StringValue.of(payload),
+        metadata,
+        "com.example.ConfigService",
+        method,
+        (_: Metadata) => {
+          count.incrementAndGet()
+          result: CompletionStage[String]
+        })
+  }
+
+  private def execute(coalescing: DeferredCallCoalescing, call: GrpcDeferredCall[StringValue, String]) =
+    coalescing.execute(call)(call.asyncCall(call.metadata)).toCompletableFuture
+
+  "DeferredCallCoalescing" should {
+
+    "share one call between identical calls in flight" in {
+      val coalescing = new DeferredCallCoalescing(Map("com.example.ConfigService.Get" -> Duration.Zero), 10)
+      val calls = new Calls
+      val first = execute(coalescing, calls.deferredCall("a", MetadataImpl.Empty.set("traceparent", "1")))
+      val second = execute(coalescing, calls.deferredCall("a", MetadataImpl.Empty.set("traceparent", "2")))
+      calls.count.get shouldBe 1
+
+      calls.result.complete("config")
+      first.get shouldBe "config"
+      second.get shouldBe "config"
+
+      // completed and not cached
+      execute(coalescing, calls.deferredCall("a")).get shouldBe "config"
+      calls.count.get shouldBe 2
+    }
+
+    "not share calls with a different message, metadata or method" in {
+      val coalescing = new DeferredCallCoalescing(
+        Map("com.example.ConfigService.Get" -> Duration.Zero, "com.example.ConfigService.List" -> Duration.Zero),
+        10)
+      val calls = new Calls
+      execute(coalescing, calls.deferredCall("a"))
+      execute(coalescing, calls.deferredCall("b"))
+      execute(coalescing, calls.deferredCall("a", MetadataImpl.Empty.set("tenant", "x")))
+      execute(coalescing, calls.deferredCall("a", method = "List"))
+      calls.count.get shouldBe 4
+    }
+
+    "only coalesce calls to the configured methods" in {
+      val coalescing = new DeferredCallCoalescing(Map("com.example.ConfigService.Get" -> Duration.Zero), 10)
+      val calls = new Calls
+      execute(coalescing, calls.deferredCall("a", method = "Update"))
+      execute(coalescing, calls.deferredCall("a", method = "Update"))
+      calls.count.get shouldBe 2
+    }
+
+    "reuse a successful result until the ttl expires" in {
+      val coalescing = new DeferredCallCoalescing(Map("com.example.ConfigService.Get" -> 1.hour), 10)
+      val calls = new Calls
+      calls.result.complete("config")
+      execute(coalescing, calls.deferredCall("a")).get shouldBe "config"
+      execute(coalescing, calls.deferredCall("a")).get shouldBe "config"
+      calls.count.get shouldBe 1
+    }
+
+    "not reuse a failed call" in {
+      val coalescing = new DeferredCallCoalescing(Map("com.example.ConfigService.Get" -> 1.hour), 10)
+      val calls = new Calls
+      calls.result.completeExceptionally(new RuntimeException("boom"))
+      execute(coalescing, calls.deferredCall("a")).isCompletedExceptionally shouldBe true
+      execute(coalescing, calls.deferredCall("a")).isCompletedExceptionally shouldBe true
+      calls.count.get shouldBe 2
+    }
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package kalix.javasdk.impl
+
+import com.typesafe.config.ConfigFactory
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class ExecutionModeSpec extends AnyWordSpec with Matchers {
+  import ExecutionMode._
+
+  "ExecutionMode" should {
+
+    "only pick virtual threads automatically when synchronized blocks don't pin carrier threads" in {
+      resolve("auto", 17) shouldBe PlatformThreads
+      resolve("auto", 21) shouldBe PlatformThreads
+      resolve("auto", 24) shouldBe VirtualThreads
+    }
+
+    "use virtual threads when configured and supported by the JDK" in {
+      resolve("virtual-threads", 17) shouldBe PlatformThreads
+      resolve("virtual-threads", 21) shouldBe VirtualThreads
+      resolve("platform-threads", 24) shouldBe PlatformThreads
+      an[IllegalArgumentException] should be thrownBy resolve("green-threads", 21)
+    }
+
+    "switch the action dispatcher executor for virtual threads" in {
+      val config = ConfigFactory.load()
+      def withMode(mode: String) =
+        addExecutionModeConfig(ConfigFactory.parseString(s"kalix.execution-mode = $mode").withFallback(config))
+
+      val platform = withMode("platform-threads")
+      platform.getString("kalix.sdk-action-dispatcher.executor") shouldBe "fork-join-executor"
+
+      val virtual = withMode("virtual-threads")
+      val expected = if (jdkVersion >= 21) "virtual-thread-executor" else "fork-join-executor"
+      virtual.getString("kalix.sdk-action-dispatcher.executor") shouldBe expected
+      virtual.getString("kalix.sdk-dispatcher.executor") shouldBe "fork-join-executor"
+    }
+
+    "take a sdk-dispatcher with virtual threads as the virtual threads mode for auto" in {
+      def configured(settings: String) =
+        configuredMode(ConfigFactory.parseString(settings).withFallback(ConfigFactory.load()))
+
+      configured("""kalix.sdk-dispatcher.executor = "virtual-thread-executor"""") shouldBe "virtual-threads"
+      configured("""
+          |kalix.execution-mode = platform-threads
+          |kalix.sdk-dispatcher.executor = "virtual-thread-executor"
+          |""".stripMargin) shouldBe "platform-threads"
+      configured("kalix.execution-mode = auto") shouldBe "auto"
+    }
+  }
+}
@@ -20,6 +20,7 @@ import scala.annotation.nowarn
 import scala.concurrent.Promise
 import scala.jdk.FutureConverters.FutureOps
 
+import akka.actor.ActorSystem
 import akka.actor.ClassicActorSystemProvider
 import com.typesafe.config.Config
 
@@ -97,6 +98,29 @@ class GrpcClientsSpec
       val client = GrpcClients(system).getGrpcClient(classOf[ActionSpecService], "actual")
       client shouldBe a[ActionSpecServiceClient]
     }
+
+    "share a pool of channels to the same target between the clients" in {
+      val pooledSystem = ActorSystem(
+        "GrpcClientsSpecPooled",
+        ConfigFactory.parseString("kalix.cross-service.channels-per-target = 2").withFallback(system.settings.config))
+      try {
+        val pooled = GrpcClients(pooledSystem)
+        val clients = (1 to 4).map(_ => pooled.getGrpcClient(classOf[ActionSpecService], "pooled"))
+        clients.foreach(_ shouldBe a[ActionSpecServiceClient])
+        // round-robin over the two channels, with one client per channel
+        (clients(0) shouldNot be).theSameInstanceAs(clients(1))
+        clients(2) shouldBe theSameInstanceAs(clients(0))
+        clients(3) shouldBe theSameInstanceAs(clients(1))
+      } finally pooledSystem.terminate().futureValue
+    }
+
+    "pick the channel with the fewest calls in flight, in turn for ties" in {
+      val inFlight = Vector(2, 0, 1, 0)
+      GrpcClients.leastOutstanding(inFlight.size, 0)(inFlight) shouldBe 1
+      GrpcClients.leastOutstanding(inFlight.size, 2)(inFlight) shouldBe 3
+      GrpcClients.leastOutstanding(inFlight.size, 3)(inFlight) shouldBe 3
+      GrpcClients.leastOutstanding(1, 0)(inFlight) shouldBe 0
+    }
   }
 
 }
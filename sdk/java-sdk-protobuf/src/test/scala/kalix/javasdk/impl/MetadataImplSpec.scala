@@ -4,6 +4,7 @@
 
 package kalix.javasdk.impl
 
+import com.fasterxml.jackson.databind.node.ObjectNode
 import kalix.javasdk.StatusCode.Redirect
 import kalix.javasdk.StatusCode.Success
 
@@ -54,6 +55,20 @@ class MetadataImplSpec extends AnyWordSpec with Matchers with OptionValues {
       (list.asScala should contain).theSameElementsInOrderAs(List(3, 4))
     }
 
+    "return a new copy of parsed JWT claims for every call" in {
+      val claims = metadata(
+        "_kalix-jwt-claim-roles" -> """["admin","viewer"]""",
+        "_kalix-jwt-claim-address" -> """{"city":"Lisbon"}""",
+        "_kalix-jwt-claim-roles" -> """["other"]""").jwtClaims()
+
+      claims.getStringList("roles").toScala.value.clear()
+      claims.getStringList("roles").toScala.value.asScala shouldBe Seq("admin", "viewer")
+      claims.getString("roles").toScala.value shouldBe """["admin","viewer"]"""
+
+      claims.getObject("address").toScala.value.asInstanceOf[ObjectNode].put("city", "Porto")
+      claims.getObject("address").toScala.value.get("city").textValue() shouldBe "Lisbon"
+    }
+
     "ignore claims that are not the right type" in {
       val meta = metadata("_kalix-jwt-claim-foo" -> "bar")
       meta.jwtClaims().getBoolean("foo").toScala shouldBe None
@@ -155,6 +170,22 @@ class MetadataImplSpec extends AnyWordSpec with Matchers with OptionValues {
       ce.`type`() shouldBe "foo"
     }
 
+    "support case insensitive lookups in metadata with many entries" in {
+      val md = metadata(
+        (1 to 20).map(n => s"header-$n" -> s"value-$n") ++
+        Seq("X-Multi" -> "first", "x-multi" -> "second", "ce_id" -> "id", "ce_source" -> "source"): _*)
+      md.get("HEADER-7").toScala.value shouldBe "value-7"
+      md.has("Header-20") shouldBe true
+      md.has("header-21") shouldBe false
+      md.get("header-21").toScala shouldBe None
+      md.getAll("X-MULTI").asScala shouldBe Seq("first", "second")
+      md.get("ce-id").toScala.value shouldBe "id"
+      md.isCloudEvent shouldBe false
+      md.remove("x-multi").has("X-Multi") shouldBe false
+      md.set("HEADER-1", "changed").getAll("header-1").asScala shouldBe Seq("changed")
+      md.getAllKeys.asScala should have size 24
+    }
+
     "be able to find the traceId in a traceParent" in {
       val metadata = MetadataImpl.of(
         Seq(
@@ -164,6 +195,25 @@ class MetadataImplSpec extends AnyWordSpec with Matchers with OptionValues {
       metadata.traceContext.traceId() shouldBe Optional.of("4bf92f3577b34da6a3ce929d0e0e4736")
     }
 
+    "replace the trace context entries in place" in {
+      def entry(key: String, value: String) = MetadataEntry(key, MetadataEntry.Value.StringValue(value))
+      val parent = metadata("a" -> "1", "traceparent" -> "parent", "b" -> "2", "tracestate" -> "parent-state")
+        .asInstanceOf[MetadataImpl]
+
+      val updated = parent.withTraceContext(Seq(entry("traceparent", "span"), entry("tracestate", "span-state")))
+      updated.entries shouldBe Seq(
+        entry("a", "1"),
+        entry("traceparent", "span"),
+        entry("b", "2"),
+        entry("tracestate", "span-state"))
+
+      val withoutState = parent.withTraceContext(Seq(entry("traceparent", "span")))
+      withoutState.entries shouldBe Seq(entry("a", "1"), entry("traceparent", "span"), entry("b", "2"))
+
+      val added = metadata("a" -> "1").asInstanceOf[MetadataImpl].withTraceContext(Seq(entry("traceparent", "span")))
+      added.entries shouldBe Seq(entry("a", "1"), entry("traceparent", "span"))
+    }
+
     "return '00000000000000000000000000000000' if no traceId is found" in {
       Metadata.EMPTY
         .traceContext()
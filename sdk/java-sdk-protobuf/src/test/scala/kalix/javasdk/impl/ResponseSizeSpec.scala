@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package kalix.javasdk.impl
+
+import java.nio.charset.StandardCharsets
+
+import com.google.protobuf.ByteString
+import com.google.protobuf.any.{ Any => ScalaPbAny }
+import kalix.protocol.component.ClientAction
+import kalix.protocol.component.Failure
+import kalix.protocol.component.Metadata
+import kalix.protocol.component.MetadataEntry
+import kalix.protocol.component.Reply
+import kalix.protocol.component.SideEffect
+import kalix.protocol.event_sourced_entity.EventSourcedReply
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class ResponseSizeSpec extends AnyWordSpec with Matchers {
+
+  private def payload(bytes: Int) =
+    ScalaPbAny("type.googleapis.com/test.Payload", ByteString.copyFrom(new Array[Byte](bytes)))
+
+  private val metadata = Metadata(Seq(MetadataEntry("key", MetadataEntry.Value.StringValue("value"))))
+
+  private val reply = EventSourcedReply(
+    commandId = 1,
+    clientAction = Some(ClientAction(ClientAction.Action.Reply(Reply(Some(payload(100)), Some(metadata))))),
+    sideEffects = Seq(SideEffect("service", "method", Some(payload(200)))),
+    events = Seq(payload(300), payload(400)),
+    snapshot = Some(payload(500)))
+
+  private def estimate(reply: EventSourcedReply): Long =
+    ResponseSize.clientAction(reply.clientAction) + ResponseSize.sideEffects(reply.sideEffects) +
+    ResponseSize.payloads(reply.events) + ResponseSize.metadata(reply.eventsMetadata) +
+    ResponseSize.payload(reply.snapshot)
+
+  "ResponseSize" should {
+
+    "estimate a response from its payloads and metadata" in {
+      val typeUrlSize = payload(0).typeUrl.length
+      estimate(reply) shouldBe (100 + 200 + 300 + 400 + 500 + 5 * typeUrlSize + "key".length + "value".length)
+      estimate(reply) should be <= reply.serializedSize.toLong
+    }
+
+    "use the estimate when well below the max response size" in {
+      ResponseSize(estimate(reply), 1024 * 1024)(fail("exact size should not be computed")) shouldBe estimate(reply)
+    }
+
+    "compute the exact size when the estimate gets close to the max response size" in {
+      ResponseSize(estimate(reply), 2048)(reply.serializedSize) shouldBe reply.serializedSize
+    }
+
+    "include the metadata of events in the estimate" in {
+      val eventMetadata = Metadata(Seq(MetadataEntry("event-key", MetadataEntry.Value.StringValue("x" * 1000))))
+      val withEventMetadata =
+        EventSourcedReply(
+          commandId = 1,
+          events = Seq(payload(10), payload(10)),
+          eventsMetadata = Seq(eventMetadata, eventMetadata))
+      estimate(withEventMetadata) should be >= 2000L
+      estimate(withEventMetadata) should be <= withEventMetadata.serializedSize.toLong
+      // close to the limit, so measured exactly and found to be too large
+      ResponseSize(estimate(withEventMetadata), 2048)(withEventMetadata.serializedSize) should be > 2048L
+    }
+
+    "count metadata and failure descriptions in encoded bytes" in {
+      val value = "é€😀" * 100
+      val nonAscii = EventSourcedReply(
+        commandId = 1,
+        clientAction = Some(ClientAction(ClientAction.Action.Failure(Failure(description = value)))),
+        sideEffects = Seq(
+          SideEffect(
+            "service",
+            "method",
+            Some(payload(0)),
+            metadata = Some(Metadata(Seq(MetadataEntry("key", MetadataEntry.Value.StringValue(value))))))))
+      val encodedValueSize = value.getBytes(StandardCharsets.UTF_8).length
+      encodedValueSize shouldBe 900
+      ResponseSize.utf8Length(value) shouldBe encodedValueSize
+      ResponseSize.utf8Length("a\ud800b") shouldBe "a\ud800b".getBytes(StandardCharsets.UTF_8).length
+      estimate(nonAscii) shouldBe (2 * encodedValueSize + payload(0).typeUrl.length + "key".length)
+      estimate(nonAscii) should be <= nonAscii.serializedSize.toLong
+    }
+  }
+}
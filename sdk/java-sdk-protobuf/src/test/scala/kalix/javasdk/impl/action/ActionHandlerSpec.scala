@@ -27,6 +27,8 @@ import kalix.protocol.action.Actions
 import kalix.protocol.component.Reply
 import com.google.protobuf
 import com.google.protobuf.any.{ Any => ScalaPbAny }
+import com.typesafe.config.ConfigFactory
+import io.prometheus.client.CollectorRegistry
 import org.scalatest.BeforeAndAfterAll
 import org.scalatest.Inside
 import org.scalatest.OptionValues
@@ -35,10 +37,18 @@ import org.scalatest.wordspec.AnyWordSpecLike
 
 import scala.concurrent.Await
 import scala.concurrent.Future
+import scala.concurrent.Promise
 import scala.concurrent.duration._
 
 class ActionHandlerSpec
-    extends ScalaTestWithActorTestKit
+    extends ScalaTestWithActorTestKit(ConfigFactory.parseString("""
+      kalix.action.method-timeouts {
+        "actionspec.ActionSpecService.UnaryJson" = 200ms
+      }
+      kalix.action.decode-parallelism {
+        "actionspec.ActionSpecService.Streamed" = 4
+      }
+      """).withFallback(ConfigFactory.load()))
     with LogCapturing
     with AnyWordSpecLike
     with Matchers
@@ -82,6 +92,28 @@ class ActionHandlerSpec
       }
     }
 
+    "record metrics for unary commands" in {
+      val service = create(new AbstractHandler {
+
+        override def handleUnary(commandName: String, message: MessageEnvelope[Any]): Action.Effect[Any] =
+          createReplyEffect("out: " + extractInField(message))
+      })
+
+      def metric(name: String): Double =
+        Option(
+          CollectorRegistry.defaultRegistry.getSampleValue(
+            name,
+            Array("component_type", "service", "method"),
+            Array("action", serviceName, "UnaryAny"))).fold(0d)(_.doubleValue)
+
+      val commandsBefore = metric("kalix_component_commands_total")
+      val handledBefore = metric("kalix_component_handler_seconds_count")
+      Await.result(service.handleUnary(ActionCommand(serviceName, "UnaryAny", createInPayload("in"))), 10.seconds)
+      metric("kalix_component_commands_total") shouldBe commandsBefore + 1
+      metric("kalix_component_handler_seconds_count") shouldBe handledBefore + 1
+      metric("kalix_component_errors_total") shouldBe 0d
+    }
+
     "turn thrown unary command handler exceptions into failure responses" in {
       val service = create(new AbstractHandler {
 
@@ -230,6 +262,35 @@ class ActionHandlerSpec
       }
     }
 
+    "decode streamed messages in parallel and keep their order" in {
+      val service = create(new AbstractHandler {
+        override def handleStreamed(
+            commandName: String,
+            stream: Source[MessageEnvelope[Any], NotUsed]): Source[Action.Effect[_], NotUsed] =
+          stream.asScala
+            .map(extractInField)
+            .map(in => createReplyEffect(s"out: $in"))
+            .asJava
+            .asInstanceOf[Source[Action.Effect[_], NotUsed]]
+      })
+
+      val replies = Await.result(
+        service
+          .handleStreamed(
+            akka.stream.scaladsl.Source
+              .single(ActionCommand(serviceName, "Streamed"))
+              .concat(
+                akka.stream.scaladsl.Source(1 to 100).map(idx => ActionCommand(payload = createInPayload(s"in $idx")))))
+          .runWith(Sink.seq),
+        10.seconds)
+
+      replies.map { reply =>
+        inside(reply.response) { case ActionResponse.Response.Reply(Reply(payload, _, _)) =>
+          extractOutField(payload)
+        }
+      } shouldBe (1 to 100).map(idx => s"out: in $idx")
+    }
+
     "pass over side effects from an outer async effect to the inner one" in {
       val dummyResolvedMethod = ResolvedServiceMethod(
         serviceDescriptor.getMethods.get(0),
@@ -321,6 +382,22 @@ class ActionHandlerSpec
       }
     }
 
+    "fail async effects that don't complete within the method timeout" in {
+      val service = create(new AbstractHandler {
+
+        override def handleUnary(commandName: String, message: MessageEnvelope[Any]): Action.Effect[Any] =
+          createAsyncReplyEffect(Promise[Action.Effect[Any]]().future)
+      })
+
+      val reply =
+        LoggingTestKit.error("Failure during handling of command").expect {
+          Await.result(service.handleUnary(ActionCommand(serviceName, "UnaryJson", createInPayload("in"))), 10.seconds)
+        }
+      inside(reply.response) { case ActionResponse.Response.Failure(fail) =>
+        fail.description should startWith("Unexpected error")
+      }
+    }
+
   }
 
   private def createOutAny(field: String): Any =
@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package kalix.javasdk.impl.effect
+
+import java.util.concurrent.CompletableFuture
+
+import scala.jdk.CollectionConverters._
+
+import kalix.javasdk.SideEffect
+import kalix.javasdk.actionspec.ActionspecApi
+import kalix.javasdk.impl.AnySupport
+import kalix.javasdk.impl.GrpcDeferredCall
+import kalix.javasdk.impl.MetadataImpl
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class EffectSupportSpec extends AnyWordSpec with Matchers {
+
+  private val anySupport = new AnySupport(Array(ActionspecApi.getDescriptor), getClass.getClassLoader)
+
+  private def call(n: Int) =
+    GrpcDeferredCall[ActionspecApi.In, ActionspecApi.Out](
+      ActionspecApi.In.newBuilder().setField(s"message-$n").build(),
+      MetadataImpl.Empty,
+      "actionspec.ActionSpecService",
+      "Unary",
+      _ => CompletableFuture.completedFuture(ActionspecApi.Out.getDefaultInstance))
+
+  "EffectSupport" should {
+
+    "encode a batch of side effects with shared metadata" in {
+      val metadata = MetadataImpl.Empty.add("tenant", "one")
+      val sideEffects = SideEffect.batch((1 to 3).map(call).asJava, metadata, true).asScala.toVector
+
+      val encoded = EffectSupport.asProtocol(anySupport, sideEffects, maxResponseSize = 1024 * 1024)
+
+      encoded.map(effect => anySupport.decodeMessage(effect.getPayload)) shouldBe (1 to 3).map(n =>
+        ActionspecApi.In.newBuilder().setField(s"message-$n").build())
+      encoded.map(_.synchronous).distinct shouldBe Seq(true)
+      encoded.head.getMetadata.entries.map(_.key) shouldBe Seq("tenant")
+      encoded.foreach(_.metadata.get should be theSameInstanceAs encoded.head.metadata.get)
+    }
+
+    "encode side effects with their own metadata" in {
+      val sideEffects =
+        Vector(SideEffect.of(call(1).withMetadata(MetadataImpl.Empty.add("n", "1"))), SideEffect.of(call(2)))
+
+      val encoded = EffectSupport.asProtocol(anySupport, sideEffects, maxResponseSize = 1024 * 1024)
+
+      encoded.map(_.metadata.map(_.entries.map(_.key))) shouldBe Seq(Some(Seq("n")), None)
+    }
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package kalix.javasdk.impl.replicatedentity
+
+import kalix.javasdk.impl.AnySupport
+import kalix.protocol.replicated_entity.ReplicatedEntityDelta
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class ReplicatedMapImplSpec extends AnyWordSpec with Matchers {
+
+  private val anySupport = new AnySupport(Array(), getClass.getClassLoader)
+
+  private def counterMap(keys: Int): ReplicatedCounterMapImpl[String] =
+    (1 to keys)
+      .foldLeft(new ReplicatedCounterMapImpl[String](anySupport)) { (map, n) => map.increment(s"key-$n", n) }
+      .resetDelta()
+
+  private def updatedCounterKeys(delta: ReplicatedEntityDelta.Delta): Seq[Any] =
+    delta.replicatedCounterMap.get.updated.map(entry => anySupport.decodePossiblyPrimitive(entry.key.get))
+
+  private def updatedMapKeys(delta: ReplicatedEntityDelta.Delta): Seq[Any] =
+    delta.replicatedMap.get.updated.map(entry => anySupport.decodePossiblyPrimitive(entry.key.get))
+
+  "ReplicatedCounterMap" should {
+
+    "only include the changed counters in the delta" in {
+      val map = counterMap(100).increment("key-7", 1).decrement("key-42", 2)
+      map.hasDelta shouldBe true
+      updatedCounterKeys(map.getDelta) should contain theSameElementsAs Seq("key-7", "key-42")
+
+      val reset = map.resetDelta()
+      reset.hasDelta shouldBe false
+      reset.get("key-7") shouldBe 8
+      reset.get("key-42") shouldBe 40
+      reset.increment("key-1", 1).getDelta.replicatedCounterMap.get.updated should have size 1
+    }
+
+    "not include removed counters as changed" in {
+      val map = counterMap(10).increment("key-3", 1).remove("key-3")
+      map.hasDelta shouldBe true
+      updatedCounterKeys(map.getDelta) shouldBe empty
+      map.getDelta.replicatedCounterMap.get.removed should have size 1
+      map.resetDelta().hasDelta shouldBe false
+    }
+
+    "not have a delta when changes cancel out" in {
+      val map = counterMap(10).increment("key-3", 1).decrement("key-3", 1)
+      map.hasDelta shouldBe false
+      map.resetDelta().hasDelta shouldBe false
+    }
+  }
+
+  "ReplicatedMap" should {
+
+    def map(keys: Int): ReplicatedMapImpl[String, ReplicatedCounterImpl] =
+      (1 to keys)
+        .foldLeft(new ReplicatedMapImpl[String, ReplicatedCounterImpl](anySupport)) { (map, n) =>
+          map.update(s"key-$n", new ReplicatedCounterImpl().increment(n))
+        }
+        .resetDelta()
+
+    "only include the changed values in the delta" in {
+      val original = map(100)
+      original.hasDelta shouldBe false
+      val updated = original.update("key-5", original.get("key-5").increment(1))
+      updated.hasDelta shouldBe true
+      updatedMapKeys(updated.getDelta) shouldBe Seq("key-5")
+      updated.getDelta.replicatedMap.get.added shouldBe empty
+
+      val reset = updated.resetDelta()
+      reset.hasDelta shouldBe false
+      reset.get("key-5").getValue shouldBe 6
+      reset.get("key-5").hasDelta shouldBe false
+    }
+
+    "include added values as added and not updated" in {
+      val updated = map(10).update("new", new ReplicatedCounterImpl().increment(1))
+      updatedMapKeys(updated.getDelta) shouldBe empty
+      updated.getDelta.replicatedMap.get.added should have size 1
+      updated.resetDelta().hasDelta shouldBe false
+    }
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package kalix.javasdk.impl.telemetry
+
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+import io.opentelemetry.sdk.common.CompletableResultCode
+import io.opentelemetry.sdk.trace.SdkTracerProvider
+import io.opentelemetry.sdk.trace.`export`.SpanExporter
+import io.opentelemetry.sdk.trace.data.SpanData
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class SpanExportSpec extends AnyWordSpec with Matchers {
+
+  /** Keeps the exported spans in memory, the first export waits until released. */
+  private class InMemoryExporter(success: Boolean = true) extends SpanExporter {
+    val exported = new ConcurrentLinkedQueue[SpanData]()
+    val exporting = new CountDownLatch(1)
+    val release = new CountDownLatch(1)
+
+    override def `export`(spans: java.util.Collection[SpanData]): CompletableResultCode = {
+      exporting.countDown()
+      release.await(10, TimeUnit.SECONDS)
+      exported.addAll(spans)
+      if (success) CompletableResultCode.ofSuccess() else CompletableResultCode.ofFailure()
+    }
+
+    override def flush(): CompletableResultCode = CompletableResultCode.ofSuccess()
+
+    override def shutdown(): CompletableResultCode = CompletableResultCode.ofSuccess()
+  }
+
+  private val settings = SpanExport.Settings(
+    maxQueueSize = 4,
+    maxExportBatchSize = 2,
+    scheduleDelay = java.time.Duration.ofHours(1),
+    exportTimeout = java.time.Duration.ofSeconds(10))
+
+  private def endSpans(provider: SdkTracerProvider, count: Int): Unit =
+    (1 to count).foreach(n => provider.get("test").spanBuilder(s"span-$n").startSpan().end())
+
+  "SpanExport" should {
+
+    "drop the spans that end while the export queue is full" in {
+      val exporter = new InMemoryExporter
+      val processor = SpanExport.processor(exporter, settings)
+      val provider = SdkTracerProvider.builder().addSpanProcessor(processor).build()
+      val exportedBefore = SpanExport.Exported.get()
+      val droppedBefore = SpanExport.Dropped.get()
+      try {
+        // a full batch, which is handed to the exporter, which then waits
+        endSpans(provider, 2)
+        exporter.exporting.await(10, TimeUnit.SECONDS) shouldBe true
+        processor.queuedSpans shouldBe 0
+
+        // fills the queue while the exporter waits, the last two don't fit
+        endSpans(provider, 6)
+        processor.queuedSpans shouldBe 4
+        SpanExport.Dropped.get() - droppedBefore shouldBe 2.0
+
+        exporter.release.countDown()
+        processor.forceFlush().join(10, TimeUnit.SECONDS).isSuccess shouldBe true
+        processor.queuedSpans shouldBe 0
+        exporter.exported.size shouldBe 6
+        SpanExport.Exported.get() - exportedBefore shouldBe 6.0
+      } finally {
+        exporter.release.countDown()
+        provider.shutdown().join(10, TimeUnit.SECONDS)
+      }
+    }
+
+    "count the spans that failed to export" in {
+      val exporter = new InMemoryExporter(success = false)
+      exporter.release.countDown()
+      val processor = SpanExport.processor(exporter, settings)
+      val provider = SdkTracerProvider.builder().addSpanProcessor(processor).build()
+      val failedBefore = SpanExport.Failed.get()
+      try {
+        endSpans(provider, 3)
+        processor.forceFlush().join(10, TimeUnit.SECONDS)
+        processor.queuedSpans shouldBe 0
+        SpanExport.Failed.get() - failedBefore shouldBe 3.0
+      } finally {
+        provider.shutdown().join(10, TimeUnit.SECONDS)
+      }
+    }
+  }
+}
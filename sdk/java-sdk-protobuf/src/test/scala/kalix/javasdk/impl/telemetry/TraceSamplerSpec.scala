@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package kalix.javasdk.impl.telemetry
+
+import com.typesafe.config.ConfigFactory
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class TraceSamplerSpec extends AnyWordSpec with Matchers {
+
+  private def traceParent(randomPart: String, flags: String = "01") =
+    s"00-0af7651916cd43dd$randomPart-b7ad6b7169203331-$flags"
+
+  // lower 8 bytes of the trace id at 10% and 90% of the id range
+  private val lowTraceParent = traceParent("0ccccccccccccccc")
+  private val highTraceParent = traceParent("7333333333333333")
+
+  private def sampler(config: String): TraceSampler =
+    TraceSampler(
+      ConfigFactory
+        .parseString(s"kalix.telemetry.tracing.sampling { $config }")
+        .withFallback(ConfigFactory.load()))
+
+  "The TraceSampler" should {
+
+    "sample all commands by default" in {
+      val defaultSampler = TraceSampler(ConfigFactory.load())
+      defaultSampler.sample("com.example.Action", "Method", lowTraceParent) shouldBe true
+      defaultSampler.sample("com.example.Action", "Method", highTraceParent) shouldBe true
+      defaultSampler.sample("com.example.Action", "Method", traceParent("7333333333333333", "00")) shouldBe true
+    }
+
+    "sample by the trace id for a ratio" in {
+      val halfSampler = sampler("ratio = 0.5")
+      halfSampler.sample("com.example.Action", "Method", lowTraceParent) shouldBe true
+      halfSampler.sample("com.example.Action", "Method", highTraceParent) shouldBe false
+      sampler("ratio = 0.0").sample("com.example.Action", "Method", lowTraceParent) shouldBe false
+    }
+
+    "only sample commands with a sampled parent when parent based" in {
+      val parentBased = sampler("parent-based = on")
+      parentBased.sample("com.example.Action", "Method", lowTraceParent) shouldBe true
+      parentBased.sample("com.example.Action", "Method", traceParent("0ccccccccccccccc", "00")) shouldBe false
+    }
+
+    "use the ratio overrides for components and methods" in {
+      val overrides = sampler("""
+          |ratio = 0.0
+          |ratio-overrides {
+          |  "com.example.Action" = 1.0
+          |  "com.example.Action.Noisy" = 0.0
+          |}
+          |""".stripMargin)
+      overrides.sample("com.example.Action", "Method", lowTraceParent) shouldBe true
+      overrides.sample("com.example.Action", "Noisy", lowTraceParent) shouldBe false
+      overrides.sample("com.example.Other", "Method", lowTraceParent) shouldBe false
+    }
+
+    "limit the number of samples per second" in {
+      var now = 0L
+      val limiter = new TraceSampler.RateLimiter(2, () => now)
+      limiter.tryAcquire() shouldBe true
+      limiter.tryAcquire() shouldBe true
+      limiter.tryAcquire() shouldBe false
+      now += 500000000L
+      limiter.tryAcquire() shouldBe true
+      limiter.tryAcquire() shouldBe false
+      now += 2000000000L
+      limiter.tryAcquire() shouldBe true
+      limiter.tryAcquire() shouldBe true
+      limiter.tryAcquire() shouldBe false
+    }
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package kalix.javasdk.impl.timer
+
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.atomic.AtomicReference
+
+import scala.concurrent.Future
+import scala.jdk.CollectionConverters._
+
+import akka.Done
+import akka.actor.testkit.typed.scaladsl.ScalaTestWithActorTestKit
+import akka.grpc.GrpcClientSettings
+import akka.http.scaladsl.Http
+import com.google.protobuf.empty.Empty
+import com.google.protobuf.wrappers.StringValue
+import com.typesafe.config.ConfigFactory
+import kalix.timers.timers.SingleTimer
+import kalix.timers.timers.TimerService
+import kalix.timers.timers.TimerServiceClient
+import kalix.timers.timers.TimerServiceHandler
+import org.scalatest.wordspec.AnyWordSpecLike
+
+class TimerCallsSpec
+    extends ScalaTestWithActorTestKit(ConfigFactory.parseString("akka.http.server.preview.enable-http2 = on"))
+    with AnyWordSpecLike {
+
+  private class StubTimerService extends TimerService {
+    val added = new ConcurrentLinkedQueue[String]()
+    val removed = new ConcurrentLinkedQueue[String]()
+
+    override def addSingle(in: SingleTimer): Future[Empty] = {
+      added.add(in.name)
+      Future.successful(Empty())
+    }
+
+    override def remove(in: StringValue): Future[Empty] = {
+      removed.add(in.value)
+      Future.successful(Empty())
+    }
+  }
+
+  "TimerCalls" should {
+
+    "recover from a closed client, with the client looked up for every call" in {
+      val service = new StubTimerService
+      val binding = Http(system).newServerAt("127.0.0.1", 0).bind(TimerServiceHandler(service)).futureValue
+      try {
+        val settings = GrpcClientSettings.connectToServiceAt("127.0.0.1", binding.localAddress.getPort).withTls(false)
+        val current = new AtomicReference(TimerServiceClient(settings))
+        val calls = TimerCalls.fromClient(() => current.get, () => Seq("x-test" -> "value"))
+
+        calls.addSingle(SingleTimer("first")).futureValue shouldBe Done
+
+        // replaced, as GrpcClients does when the channel of a client was closed
+        current.get.close().futureValue
+        current.set(TimerServiceClient(settings))
+
+        calls.addSingle(SingleTimer("second")).futureValue shouldBe Done
+        calls.remove("first").futureValue shouldBe Done
+        service.added.asScala.toSeq shouldBe Seq("first", "second")
+        service.removed.asScala.toSeq shouldBe Seq("first")
+
+        current.get.close().futureValue
+      } finally binding.unbind().futureValue
+    }
+  }
+}
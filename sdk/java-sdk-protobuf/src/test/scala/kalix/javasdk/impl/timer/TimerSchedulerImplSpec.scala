@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package kalix.javasdk.impl.timer
+
+import java.time.Duration
+import java.util.Collections
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionStage
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.atomic.AtomicInteger
+
+import scala.concurrent.Future
+import scala.concurrent.duration._
+import scala.jdk.CollectionConverters._
+
+import akka.Done
+import akka.actor.testkit.typed.scaladsl.ScalaTestWithActorTestKit
+import akka.actor.typed.scaladsl.adapter._
+import akka.pattern.after
+import com.typesafe.config.ConfigFactory
+import kalix.javasdk.DeferredCall
+import kalix.javasdk.actionspec.ActionspecApi
+import kalix.javasdk.impl.AnySupport
+import kalix.javasdk.impl.GrpcDeferredCall
+import kalix.javasdk.impl.MetadataImpl
+import kalix.javasdk.timer.TimerOperation
+import kalix.javasdk.timer.TimerScheduler
+import kalix.timers.timers.SingleTimer
+import org.scalatest.wordspec.AnyWordSpecLike
+
+class TimerSchedulerImplSpec
+    extends ScalaTestWithActorTestKit(ConfigFactory.parseString("kalix.timer.batch-parallelism = 2"))
+    with AnyWordSpecLike {
+
+  private val anySupport = new AnySupport(Array(ActionspecApi.getDescriptor), getClass.getClassLoader)
+
+  private val deferredCall =
+    GrpcDeferredCall[ActionspecApi.In, ActionspecApi.Out](
+      ActionspecApi.In.newBuilder().setField("timer").build(),
+      MetadataImpl.Empty,
+      "actionspec.ActionSpecService",
+      "Unary",
+      _ => CompletableFuture.completedFuture(ActionspecApi.Out.getDefaultInstance))
+
+  /** Answers each call after a delay, the earlier calls slower than the later ones, failing for the given names. */
+  private class StubTimerCalls(failing: Set[String] = Set.empty) extends TimerCalls {
+    val added = new ConcurrentLinkedQueue[SingleTimer]()
+    val removed = new ConcurrentLinkedQueue[String]()
+    val inFlight = new AtomicInteger()
+    val maxInFlight = new AtomicInteger()
+    private val calls = new AtomicInteger()
+
+    override def addSingle(singleTimer: SingleTimer): Future[Done] = {
+      added.add(singleTimer)
+      respond(singleTimer.name)
+    }
+
+    override def remove(name: String): Future[Done] = {
+      removed.add(name)
+      respond(name)
+    }
+
+    private def respond(name: String): Future[Done] = {
+      maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), (a, b) => math.max(a, b))
+      val delay = math.max(1, 20 - calls.getAndIncrement() * 2).millis
+      after(delay)(Future.successful(())).flatMap { _ =>
+        inFlight.decrementAndGet()
+        if (failing(name)) Future.failed(new RuntimeException(s"failed $name")) else Future.successful(Done)
+      }(system.executionContext)
+    }
+  }
+
+  private def scheduler(calls: TimerCalls) =
+    new TimerSchedulerImpl(anySupport, system.toClassic, MetadataImpl.Empty, calls)
+
+  "TimerSchedulerImpl.execute" should {
+
+    "return the outcomes in the order of the operations with a bounded number of calls in flight" in {
+      val calls = new StubTimerCalls
+      val operations = (1 to 10).map { n =>
+        if (n % 3 == 0) TimerOperation.cancel(s"timer-$n")
+        else TimerOperation.startSingleTimer(s"timer-$n", Duration.ofMinutes(n), n, deferredCall)
+      }
+
+      val outcomes = scheduler(calls).execute(operations.asJava).toCompletableFuture.get().asScala
+
+      outcomes.map(_.operation) shouldBe operations
+      outcomes.forall(_.isSuccess) shouldBe true
+      calls.removed.asScala.toSeq shouldBe Seq("timer-3", "timer-6", "timer-9")
+      val timer = calls.added.asScala.find(_.name == "timer-2").get
+      timer.maxRetries shouldBe 2
+      timer.getCall.methodName shouldBe "Unary"
+      calls.maxInFlight.get should (be > 0 and be <= 2)
+    }
+
+    "turn failed and invalid operations into failed outcomes without failing the batch" in {
+      val calls = new StubTimerCalls(failing = Set("add-fails", "remove-fails"))
+      val unknown = new TimerOperation {
+        override def name(): String = "unknown"
+      }
+      val operations = Seq(
+        TimerOperation.startSingleTimer("add-fails", Duration.ofMinutes(1), deferredCall),
+        TimerOperation.cancel("remove-fails"),
+        unknown,
+        TimerOperation.startSingleTimer("added", Duration.ofMinutes(1), deferredCall))
+
+      val outcomes = scheduler(calls).execute(operations.asJava).toCompletableFuture.get().asScala
+
+      outcomes.map(_.isSuccess) shouldBe Seq(false, false, false, true)
+      outcomes.head.failure().get.getMessage shouldBe "failed add-fails"
+      outcomes(1).failure().get.getMessage shouldBe "failed remove-fails"
+      outcomes(2).failure().get shouldBe an[IllegalArgumentException]
+      calls.added.asScala.map(_.name).toSet shouldBe Set("add-fails", "added")
+    }
+
+    "complete immediately for no operations" in {
+      val calls = new StubTimerCalls
+      val result = scheduler(calls).execute(Collections.emptyList[TimerOperation]()).toCompletableFuture
+      result.isDone shouldBe true
+      result.get().isEmpty shouldBe true
+    }
+  }
+
+  "The default TimerScheduler.execute" should {
+
+    "start and cancel the timers one after the other" in {
+      val started = new ConcurrentLinkedQueue[String]()
+      val scheduler = new TimerScheduler {
+        override def startSingleTimer[I, O](
+            name: String,
+            delay: Duration,
+            deferredCall: DeferredCall[I, O]): CompletionStage[Done] =
+          startSingleTimer(name, delay, 0, deferredCall)
+
+        override def startSingleTimer[I, O](
+            name: String,
+            delay: Duration,
+            maxRetries: Int,
+            deferredCall: DeferredCall[I, O]): CompletionStage[Done] = {
+          started.add(s"$name:$maxRetries")
+          CompletableFuture.completedFuture(Done)
+        }
+
+        override def cancel(name: String): CompletionStage[Done] =
+          CompletableFuture.failedFuture(new RuntimeException(s"failed $name"))
+      }
+      val operations = Seq(
+        TimerOperation.startSingleTimer("first", Duration.ofMinutes(1), 3, deferredCall),
+        TimerOperation.cancel("cancelled"),
+        TimerOperation.startSingleTimer("second", Duration.ofMinutes(1), deferredCall))
+
+      val outcomes = scheduler.execute(operations.asJava).toCompletableFuture.get().asScala
+
+      outcomes.map(_.operation) shouldBe operations
+      outcomes.map(_.isSuccess) shouldBe Seq(true, false, true)
+      outcomes(1).failure().get.getMessage shouldBe "failed cancelled"
+      started.asScala.toSeq shouldBe Seq("first:3", "second:0")
+    }
+  }
+}
@@ -4,9 +4,17 @@
 
 package kalix.javasdk.impl.valueentity
 
+import java.util.concurrent.ConcurrentLinkedQueue
+
+import scala.jdk.CollectionConverters._
+
+import com.example.valueentity.shoppingcart.ShoppingCartApi
+import com.example.valueentity.shoppingcart.domain.ShoppingCartDomain
 import com.typesafe.config.Config
 import io.grpc.Status.Code.INVALID_ARGUMENT
-import kalix.javasdk.valueentity.{ CartEntity, CartEntityProvider }
+import kalix.javasdk.valueentity.{ CartEntity, CartEntityProvider, ValueEntity, ValueEntityContext }
+import kalix.protocol.component.Metadata
+import kalix.protocol.component.MetadataEntry
 import kalix.testkit.TestProtocol
 import kalix.testkit.valueentity.ValueEntityMessages
 import org.scalatest.BeforeAndAfterAll
@@ -180,10 +188,47 @@ class ValueEntitiesImplSpec extends AnyWordSpec with Matchers with BeforeAndAfte
       entity.expect(reply(5, EmptyCart))
       entity.passivate()
     }
+
+    "give each command on a stream its own command id and metadata" in {
+      val seen = new ConcurrentLinkedQueue[(Long, String)]()
+      val recordingService = TestValueEntity.service(CartEntityProvider.of(new RecordingCartEntity(_, seen)))
+      val recordingProtocol = TestProtocol(recordingService.port)
+      try {
+        val entity = recordingProtocol.valueEntity.connect()
+        entity.send(init(ShoppingCart.Name, "cart"))
+        entity.send(command(1, "cart", "GetCart", messagePayload(getShoppingCart("cart")), Some(metadata("first"))))
+        entity.expect(reply(1, EmptyCart))
+        entity.send(command(2, "cart", "GetCart", messagePayload(getShoppingCart("cart")), Some(metadata("second"))))
+        entity.expect(reply(2, EmptyCart))
+        entity.send(command(3, "cart", "GetCart", getShoppingCart("cart")))
+        entity.expect(reply(3, EmptyCart))
+        entity.passivate()
+
+        seen.asScala.toSeq shouldBe Seq(1L -> "first", 2L -> "second", 3L -> "")
+      } finally {
+        recordingProtocol.terminate()
+        recordingService.terminate()
+      }
+    }
   }
 }
 
 object ValueEntitiesImplSpec {
+
+  /** Records the command id and the "key" metadata seen by each GetCart command. */
+  class RecordingCartEntity(context: ValueEntityContext, seen: ConcurrentLinkedQueue[(Long, String)])
+      extends CartEntity(context) {
+    override def getCart(
+        currentState: ShoppingCartDomain.Cart,
+        getShoppingCart: ShoppingCartApi.GetShoppingCart): ValueEntity.Effect[ShoppingCartApi.Cart] = {
+      seen.add(commandContext().commandId() -> commandContext().metadata().get("key").orElse(""))
+      super.getCart(currentState, getShoppingCart)
+    }
+  }
+
+  def metadata(value: String): Metadata =
+    Metadata(Seq(MetadataEntry("key", MetadataEntry.Value.StringValue(value))))
+
   object ShoppingCart {
 
     import com.example.valueentity.shoppingcart.ShoppingCartApi
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package kalix.javasdk.impl.view
+
+import java.util.Optional
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.atomic.AtomicInteger
+
+import scala.jdk.CollectionConverters._
+
+import akka.actor.testkit.typed.scaladsl.ScalaTestWithActorTestKit
+import akka.actor.typed.scaladsl.adapter._
+import akka.stream.scaladsl.Sink
+import akka.stream.scaladsl.Source
+import com.google.protobuf.any.{ Any => ScalaPbAny }
+import com.typesafe.config.ConfigFactory
+import io.prometheus.client.CollectorRegistry
+import kalix.javasdk.impl.AnySupport
+import kalix.javasdk.impl.ViewFactory
+import kalix.javasdk.shoppingcart.ShoppingCart
+import kalix.javasdk.shoppingcart.ShoppingCartViewModel
+import kalix.javasdk.shoppingcart.ShoppingCartViewModel.CartViewState
+import kalix.javasdk.view.View
+import kalix.protocol.{ view => pv }
+import org.scalatest.wordspec.AnyWordSpecLike
+
+class ViewsImplSpec
+    extends ScalaTestWithActorTestKit(ConfigFactory.parseString("""
+      kalix.view.multi-event-streams = on
+      kalix.view.pool-handlers = on
+      """).withFallback(ConfigFactory.load()))
+    with AnyWordSpecLike {
+
+  private val serviceDescriptor = ShoppingCartViewModel.getDescriptor.findServiceByName("ShoppingCartViewService")
+  private val serviceName = serviceDescriptor.getFullName
+  private val anySupport = new AnySupport(Array(ShoppingCartViewModel.getDescriptor), getClass.getClassLoader)
+
+  private class CartView extends View[CartViewState] {
+    override def emptyState(): CartViewState = CartViewState.getDefaultInstance
+
+    def processAdded(state: CartViewState, added: ShoppingCart.ItemAdded): View.UpdateEffect[CartViewState] =
+      if (added.getItem.getProductId == "fail") throw new RuntimeException("boom")
+      else
+        effects().updateState(
+          state.toBuilder.setNumberOfItems(state.getNumberOfItems + added.getItem.getQuantity).build())
+  }
+
+  private class CartViewRouter extends ViewRouter[CartViewState, CartView](new CartView) {
+    override def handleUpdate(commandName: String, state: CartViewState, event: Any): View.UpdateEffect[CartViewState] =
+      commandName match {
+        case "ProcessAdded" => view.processAdded(state, event.asInstanceOf[ShoppingCart.ItemAdded])
+        case other          => throw UpdateHandlerNotFound(other)
+      }
+  }
+
+  /** Views with one cart view, counting the created handler instances. */
+  private def createViews(created: AtomicInteger): ViewsImpl = {
+    val factory: ViewFactory = _ => {
+      created.incrementAndGet()
+      new CartViewRouter
+    }
+    val service = new ViewService(Optional.of(factory), serviceDescriptor, Array(), anySupport, "carts", None)
+    new ViewsImpl(system.toClassic, Map(serviceName -> service))
+  }
+
+  private def itemAdded(productId: String, quantity: Int): pv.ViewStreamIn = {
+    val added = ShoppingCart.ItemAdded
+      .newBuilder()
+      .setItem(ShoppingCart.LineItem.newBuilder().setProductId(productId).setName(productId).setQuantity(quantity))
+      .build()
+    val existingRow = CartViewState.newBuilder().setUserId("user").setNumberOfItems(10).build()
+    pv.ViewStreamIn(
+      pv.ViewStreamIn.Message.Receive(
+        pv.ReceiveEvent(
+          serviceName = serviceName,
+          commandName = "ProcessAdded",
+          payload = Some(ScalaPbAny.fromJavaProto(com.google.protobuf.Any.pack(added))),
+          bySubjectLookupResult =
+            Some(pv.Row(value = Some(ScalaPbAny.fromJavaProto(com.google.protobuf.Any.pack(existingRow))))))))
+  }
+
+  private def numberOfItems(out: pv.ViewStreamOut): Int =
+    CartViewState.parseFrom(out.message.upsert.get.row.get.value.get.value).getNumberOfItems
+
+  private def metric(name: String): Double =
+    Option(
+      CollectorRegistry.defaultRegistry.getSampleValue(
+        name,
+        Array("component_type", "service", "method"),
+        Array("view", serviceName, "ProcessAdded"))).fold(0d)(_.doubleValue)
+
+  "The views service with multi-event streams" should {
+
+    "answer every event on a stream with one response, in order" in {
+      val created = new AtomicInteger()
+      val views = createViews(created)
+      val commandsBefore = metric("kalix_component_commands_total")
+
+      val events = (1 to 5).map(n => itemAdded(s"product-$n", n))
+      val responses = views.handle(Source(events)).runWith(Sink.seq).futureValue
+
+      responses.map(numberOfItems) shouldBe Seq(11, 12, 13, 14, 15)
+      metric("kalix_component_commands_total") shouldBe commandsBefore + 5
+      // one update at a time, so one handler instance handles all of them
+      created.get shouldBe 1
+    }
+
+    "fail the stream at a failing update, without answering the following events" in {
+      val created = new AtomicInteger()
+      val views = createViews(created)
+      val commandsBefore = metric("kalix_component_commands_total")
+      val errorsBefore = metric("kalix_component_errors_total")
+
+      val responses = new ConcurrentLinkedQueue[pv.ViewStreamOut]()
+      val events = List(itemAdded("product-1", 1), itemAdded("fail", 1), itemAdded("product-3", 3))
+      val failure = views
+        .handle(Source(events))
+        .runWith(Sink.foreach[pv.ViewStreamOut](out => responses.add(out)))
+        .failed
+        .futureValue
+
+      failure shouldBe a[ViewException]
+      failure.getMessage shouldBe "View unexpected failure: boom"
+      responses.asScala.map(numberOfItems).toSeq shouldBe Seq(11)
+
+      // the failed update is counted as completed and as an error
+      metric("kalix_component_commands_total") shouldBe commandsBefore + 2
+      metric("kalix_component_errors_total") shouldBe errorsBefore + 1
+
+      // the handler of the failed update was released, and is reused by the next stream
+      val next = views.handle(Source.single(itemAdded("product-4", 4))).runWith(Sink.seq).futureValue
+      next.map(numberOfItems) shouldBe Seq(14)
+      created.get shouldBe 1
+    }
+  }
+}
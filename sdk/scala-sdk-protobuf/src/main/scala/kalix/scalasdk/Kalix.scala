@@ -85,6 +85,20 @@ class Kalix private (private[kalix] val delegate: javasdk.Kalix) {
   def preferScalaProtobufs: Kalix =
     Kalix(delegate.preferScalaProtobufs)
 
+  /**
+   * Use an accelerated codec for JSON serialized messages, events and state. Instead of accessing the properties and
+   * constructors of the serialized classes through reflection, accessors are generated for them the first time a class
+   * is serialized or deserialized. This makes encoding and decoding faster once warmed up, at the cost of a slower
+   * first use of each class.
+   *
+   * The codec is registered with the shared [[JsonSupport.getObjectMapper]], so it is used for all JSON in the service.
+   *
+   * @return
+   *   This Kalix instance.
+   */
+  def withAcceleratedJsonCodec: Kalix =
+    Kalix(delegate.withAcceleratedJsonCodec())
+
   /**
    * Register a replicated entity using a [[kalix.scalasdk.replicatedentity.ReplicatedEntityProvider]]. The concrete
    * `ReplicatedEntityProvider` is generated for the specific entities defined in Protobuf, for example
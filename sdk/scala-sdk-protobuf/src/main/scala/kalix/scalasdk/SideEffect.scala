@@ -32,6 +32,36 @@ object SideEffect {
    */
   def apply[T, R](deferredCall: DeferredCall[T, R]): SideEffect =
     ScalaSideEffectAdapter(deferredCall)
+
+  /**
+   * Create side effects of the given service calls, all passing the same metadata. The metadata is shared by all the
+   * side effects and only encoded once, which makes a difference when a command fans out to many calls.
+   *
+   * @param deferredCalls
+   *   The service calls to effect.
+   * @param metadata
+   *   The metadata to pass with every call, replacing the metadata of the calls.
+   * @param synchronous
+   *   Whether these effects should be executed synchronously.
+   * @return
+   *   The side effects, in the order of the service calls.
+   */
+  def batch(deferredCalls: Iterable[DeferredCall[_, _]], metadata: Metadata, synchronous: Boolean): Seq[SideEffect] =
+    deferredCalls.iterator.map(call => ScalaSideEffectAdapter(call.withMetadata(metadata), synchronous)).toVector
+
+  /**
+   * Create side effects of the given service calls, all passing the same metadata. The metadata is shared by all the
+   * side effects and only encoded once, which makes a difference when a command fans out to many calls.
+   *
+   * @param deferredCalls
+   *   The service calls to effect.
+   * @param metadata
+   *   The metadata to pass with every call, replacing the metadata of the calls.
+   * @return
+   *   The side effects, in the order of the service calls.
+   */
+  def batch(deferredCalls: Iterable[DeferredCall[_, _]], metadata: Metadata): Seq[SideEffect] =
+    batch(deferredCalls, metadata, synchronous = false)
 }
 
 trait SideEffect {
@@ -15,4 +15,20 @@ private[scalasdk] object MetadataConverters {
   def toJava(scalaSdkMetadata: scalasdk.Metadata): javasdk.Metadata =
     scalaSdkMetadata.impl
 
+  /**
+   * Conversion for the metadata of a Java SDK context that is reused across commands, only converting again when the
+   * context has got new metadata.
+   */
+  final class Cached {
+    private var javaSdkMetadata: javasdk.Metadata = _
+    private var scalaSdkMetadata: scalasdk.Metadata = _
+
+    def toScala(metadata: javasdk.Metadata): scalasdk.Metadata = {
+      if (metadata ne javaSdkMetadata) {
+        scalaSdkMetadata = MetadataConverters.toScala(metadata)
+        javaSdkMetadata = metadata
+      }
+      scalaSdkMetadata
+    }
+  }
 }
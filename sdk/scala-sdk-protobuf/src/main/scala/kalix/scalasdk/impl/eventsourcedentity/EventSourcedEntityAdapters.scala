@@ -37,9 +37,17 @@ private[scalasdk] final class JavaEventSourcedEntityAdapter[S](scalaSdkEventSour
   override def _internalSetEventContext(context: Optional[JavaSdkEventContext]): Unit =
     scalaSdkEventSourcedEntity._internalSetEventContext(context.map(new JavaEventContextAdapter(_)).toScala)
 
+  // the Java SDK reuses the command context for all commands of an entity, so the adapter can be reused as well
+  private var commandContextAdapter: JavaCommandContextAdapter = _
+
   override def _internalSetCommandContext(context: Optional[JavaSdkCommandContext]): Unit =
-    scalaSdkEventSourcedEntity._internalSetCommandContext(context.map(new JavaCommandContextAdapter(_)).toScala)
+    scalaSdkEventSourcedEntity._internalSetCommandContext(context.map(adapt).toScala)
 
+  private[scalasdk] def adapt(context: JavaSdkCommandContext): JavaCommandContextAdapter = {
+    if ((commandContextAdapter eq null) || (commandContextAdapter.javaSdkContext ne context))
+      commandContextAdapter = new JavaCommandContextAdapter(context)
+    commandContextAdapter
+  }
 }
 
 private[scalasdk] final class JavaEventSourcedEntityProviderAdapter[S, ES <: EventSourcedEntity[S]](
@@ -82,7 +90,7 @@ private[scalasdk] final class JavaEventSourcedEntityOptionsAdapter(
 }
 
 private[scalasdk] final class JavaEventSourcedEntityRouterAdapter[S](
-    javaSdkEventSourcedEntity: JavaSdkEventSourcedEntity[S, Any],
+    javaSdkEventSourcedEntity: JavaEventSourcedEntityAdapter[S],
     scalaSdkRouter: EventSourcedEntityRouter[S, EventSourcedEntity[S]])
     extends JavaSdkEventSourcedEntityRouter[S, Any, JavaSdkEventSourcedEntity[S, Any]](javaSdkEventSourcedEntity) {
 
@@ -95,7 +103,7 @@ private[scalasdk] final class JavaEventSourcedEntityRouterAdapter[S](
       state: S,
       command: Any,
       context: JavaSdkCommandContext): JavaSdkEventSourcedEntity.Effect[_] = {
-    scalaSdkRouter.handleCommand(commandName, state, command, new JavaCommandContextAdapter(context)) match {
+    scalaSdkRouter.handleCommand(commandName, state, command, javaSdkEventSourcedEntity.adapt(context)) match {
       case EventSourcedEntityEffectImpl(javasdkEffectImpl) => javasdkEffectImpl
     }
   }
@@ -121,8 +129,10 @@ private[scalasdk] final class JavaCommandContextAdapter(val javaSdkContext: Java
 
   override def entityId: String = javaSdkContext.entityId()
 
+  private val cachedMetadata = new MetadataConverters.Cached
+
   override def metadata: kalix.scalasdk.Metadata =
-    MetadataConverters.toScala(javaSdkContext.metadata())
+    cachedMetadata.toScala(javaSdkContext.metadata())
 
   def getComponentGrpcClient[T](serviceClass: Class[T]): T = javaSdkContext match {
     case ctx: javasdk.impl.AbstractContext => ctx.getComponentGrpcClient(serviceClass)
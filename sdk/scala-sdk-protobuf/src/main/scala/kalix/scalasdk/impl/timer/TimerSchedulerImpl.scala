@@ -8,28 +8,32 @@ import scala.concurrent.ExecutionContext
 import scala.concurrent.Future
 import scala.concurrent.duration.FiniteDuration
 import scala.jdk.DurationConverters.ScalaDurationOps
+import scala.util.Try
 
 import akka.Done
 import akka.actor.ActorSystem
-import akka.grpc.scaladsl.SingleResponseRequestBuilder
 import com.google.protobuf.duration.{ Duration => ProtoDuration }
-import com.google.protobuf.wrappers.StringValue
 import kalix.javasdk.impl.GrpcDeferredCall
-import kalix.javasdk.impl.GrpcClients
 import kalix.javasdk.impl.MessageCodec
+import kalix.javasdk.impl.timer.TimerBatch
+import kalix.javasdk.impl.timer.TimerCalls
 import kalix.scalasdk.DeferredCall
 import kalix.scalasdk.Metadata
 import kalix.scalasdk.impl.ScalaDeferredCallAdapter
+import kalix.scalasdk.timer.TimerOperation
+import kalix.scalasdk.timer.TimerOutcome
 import kalix.scalasdk.timer.TimerScheduler
 import kalix.timers.timers.Call
 import kalix.timers.timers.SingleTimer
-import kalix.timers.timers.TimerService
-import kalix.timers.timers.TimerServiceClient
 
 /** INTERNAL API */
-private[kalix] final class TimerSchedulerImpl(messageCodec: MessageCodec, system: ActorSystem, metadata: Metadata)
+private[kalix] final class TimerSchedulerImpl(messageCodec: MessageCodec, system: ActorSystem, timerCalls: TimerCalls)
     extends TimerScheduler {
 
+  // the metadata headers are collected once and reused for every timer of this scheduler
+  def this(messageCodec: MessageCodec, system: ActorSystem, metadata: Metadata) =
+    this(messageCodec, system, TimerCalls(system, () => TimerSchedulerImpl.headers(metadata)))
+
   override def startSingleTimer[I, O](
       name: String,
       delay: FiniteDuration,
@@ -40,13 +44,30 @@ private[kalix] final class TimerSchedulerImpl(messageCodec: MessageCodec, system
       name: String,
       delay: FiniteDuration,
       maxRetries: Int,
-      deferredCall: DeferredCall[I, O]): Future[Done] = {
-    val timerServiceClient =
-      GrpcClients(system).getProxyGrpcClient(classOf[TimerService]).asInstanceOf[TimerServiceClient]
+      deferredCall: DeferredCall[I, O]): Future[Done] =
+    timerCalls.addSingle(singleTimer(name, delay, maxRetries, deferredCall))
+
+  override def cancel(name: String): Future[Done] =
+    timerCalls.remove(name)
+
+  override def execute(operations: Seq[TimerOperation]): Future[Seq[TimerOutcome]] = {
+    val requests = operations.map { operation =>
+      Try(operation match {
+        case TimerOperation.StartSingleTimer(name, delay, maxRetries, deferredCall) =>
+          Right(singleTimer(name, delay, maxRetries, deferredCall))
+        case TimerOperation.Cancel(name) => Left(name)
+      })
+    }
+    TimerBatch(system)
+      .execute(timerCalls, requests)
+      .map(results => operations.zip(results).map { case (operation, result) => TimerOutcome(operation, result) })(
+        ExecutionContext.parasitic)
+  }
 
+  private def singleTimer(name: String, delay: FiniteDuration, maxRetries: Int, deferredCall: DeferredCall[_, _]) = {
     val deferredCallImpl =
       deferredCall match {
-        case ScalaDeferredCallAdapter(deferredCallImpl: GrpcDeferredCall[I, O] @unchecked) => deferredCallImpl
+        case ScalaDeferredCallAdapter(deferredCallImpl: GrpcDeferredCall[_, _]) => deferredCallImpl
         // should not happen as we always need to pass ScalaDeferredCallAdapter(DeferredCallImpl)
         case other =>
           throw new RuntimeException(
@@ -59,26 +80,12 @@ private[kalix] final class TimerSchedulerImpl(messageCodec: MessageCodec, system
         deferredCallImpl.methodName,
         Some(messageCodec.encodeScala(deferredCall.message)))
 
-    val singleTimer = SingleTimer(name, Some(call), Some(ProtoDuration(delay.toJava)))
-    addHeaders(timerServiceClient.addSingle(), metadata)
-      .invoke(singleTimer)
-      .map(_ => Done)(ExecutionContext.parasitic)
-  }
-
-  override def cancel(name: String): Future[Done] = {
-    val timerServiceClient =
-      GrpcClients(system).getProxyGrpcClient(classOf[TimerService]).asInstanceOf[TimerServiceClient]
-    addHeaders(timerServiceClient.remove(), metadata)
-      .invoke(StringValue(name))
-      .map(_ => Done)(ExecutionContext.parasitic)
+    SingleTimer(name, Some(call), Some(ProtoDuration(delay.toJava)), maxRetries)
   }
+}
 
-  private def addHeaders[I, O](
-      callBuilder: SingleResponseRequestBuilder[I, O],
-      metadata: Metadata): SingleResponseRequestBuilder[I, O] = {
-    metadata.foldLeft(callBuilder) { case (builder, entry) =>
-      if (entry.isText) builder.addHeader(entry.key, entry.value)
-      else builder
-    }
-  }
+/** INTERNAL API */
+private[kalix] object TimerSchedulerImpl {
+  private def headers(metadata: Metadata): Seq[(String, String)] =
+    metadata.collect { case entry if entry.isText => entry.key -> entry.value }.toSeq
 }
@@ -26,8 +26,17 @@ private[scalasdk] final class JavaValueEntityAdapter[S](scalaSdkValueEntity: Val
 
   override def emptyState(): S = scalaSdkValueEntity.emptyState
 
+  // the Java SDK reuses the command context for all commands of an entity, so the adapter can be reused as well
+  private var commandContextAdapter: ScalaCommandContextAdapter = _
+
   override def _internalSetCommandContext(context: Optional[javasdk.valueentity.CommandContext]): Unit =
-    scalaSdkValueEntity._internalSetCommandContext(context.map(new ScalaCommandContextAdapter(_)).toScala)
+    scalaSdkValueEntity._internalSetCommandContext(context.map(adapt).toScala)
+
+  private[scalasdk] def adapt(context: javasdk.valueentity.CommandContext): ScalaCommandContextAdapter = {
+    if ((commandContextAdapter eq null) || (commandContextAdapter.javaSdkContext ne context))
+      commandContextAdapter = new ScalaCommandContextAdapter(context)
+    commandContextAdapter
+  }
 }
 
 private[scalasdk] final class JavaValueEntityProviderAdapter[S, E <: ValueEntity[S]](
@@ -56,7 +65,7 @@ private[scalasdk] final class JavaValueEntityProviderAdapter[S, E <: ValueEntity
 }
 
 private[scalasdk] final class JavaValueEntityRouterAdapter[S](
-    javaSdkValueEntity: javasdk.valueentity.ValueEntity[S],
+    javaSdkValueEntity: JavaValueEntityAdapter[S],
     scalaSdkRouter: ValueEntityRouter[S, ValueEntity[S]])
     extends javasdk.impl.valueentity.ValueEntityRouter[S, javasdk.valueentity.ValueEntity[S]](javaSdkValueEntity) {
 
@@ -65,7 +74,7 @@ private[scalasdk] final class JavaValueEntityRouterAdapter[S](
       state: S,
       command: Any,
       context: javasdk.valueentity.CommandContext): javasdk.valueentity.ValueEntity.Effect[_] = {
-    scalaSdkRouter.handleCommand(commandName, state, command, new ScalaCommandContextAdapter(context)) match {
+    scalaSdkRouter.handleCommand(commandName, state, command, javaSdkValueEntity.adapt(context)) match {
       case ValueEntityEffectImpl(javaSdkEffectImpl) => javaSdkEffectImpl
     }
   }
@@ -90,8 +99,10 @@ private[scalasdk] final class ScalaCommandContextAdapter(val javaSdkContext: jav
 
   override def entityId: String = javaSdkContext.entityId()
 
+  private val cachedMetadata = new MetadataConverters.Cached
+
   override def metadata: kalix.scalasdk.Metadata =
-    MetadataConverters.toScala(javaSdkContext.metadata())
+    cachedMetadata.toScala(javaSdkContext.metadata())
 
   def getComponentGrpcClient[T](serviceClass: Class[T]): T = javaSdkContext match {
     case ctx: javasdk.impl.AbstractContext => ctx.getComponentGrpcClient(serviceClass)
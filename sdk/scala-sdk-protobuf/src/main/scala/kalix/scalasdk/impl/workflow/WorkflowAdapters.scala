@@ -35,8 +35,20 @@ private[scalasdk] final class JavaWorkflowAdapter[S >: Null](scalaSdkWorkflow: A
 
   override def emptyState(): S = scalaSdkWorkflow.emptyState
 
+  // the Java SDK reuses the command context and timer scheduler for all commands of a workflow, so the adapters can
+  // be reused as well
+  private var commandContextAdapter: ScalaCommandContextAdapter = _
+  private var javaTimerScheduler: TimerScheduler = _
+  private var scalaTimerScheduler: TimerSchedulerImpl = _
+
   override def _internalSetCommandContext(context: Optional[javasdk.workflow.CommandContext]): Unit =
-    scalaSdkWorkflow._internalSetCommandContext(context.map(new ScalaCommandContextAdapter(_)).toScala)
+    scalaSdkWorkflow._internalSetCommandContext(context.map(adapt).toScala)
+
+  private[scalasdk] def adapt(context: javasdk.workflow.CommandContext): ScalaCommandContextAdapter = {
+    if ((commandContextAdapter eq null) || (commandContextAdapter.javaSdkContext ne context))
+      commandContextAdapter = new ScalaCommandContextAdapter(context)
+    commandContextAdapter
+  }
 
   override def _internalSetCurrentState(state: S, deleted: Boolean): Unit = {
     scalaSdkWorkflow._internalSetCurrentState(state, deleted)
@@ -44,11 +56,15 @@ private[scalasdk] final class JavaWorkflowAdapter[S >: Null](scalaSdkWorkflow: A
 
   override def _internalSetTimerScheduler(timerScheduler: Optional[TimerScheduler]): Unit = {
     scalaSdkWorkflow._internalSetTimerScheduler(timerScheduler.toScala.map {
-      case javaTimerScheduler: kalix.javasdk.impl.timer.TimerSchedulerImpl =>
-        new TimerSchedulerImpl(
-          javaTimerScheduler.messageCodec,
-          javaTimerScheduler.system,
-          MetadataImpl(javaTimerScheduler.metadata.asInstanceOf[impl.MetadataImpl]))
+      case javaScheduler: kalix.javasdk.impl.timer.TimerSchedulerImpl =>
+        if (javaScheduler ne javaTimerScheduler) {
+          scalaTimerScheduler = new TimerSchedulerImpl(
+            javaScheduler.messageCodec,
+            javaScheduler.system,
+            MetadataImpl(javaScheduler.metadata.asInstanceOf[impl.MetadataImpl]))
+          javaTimerScheduler = javaScheduler
+        }
+        scalaTimerScheduler
     })
   }
 
@@ -165,7 +181,7 @@ private[scalasdk] final class JavaWorkflowProviderAdapter[S >: Null, E <: Abstra
 }
 
 private[scalasdk] final class JavaWorkflowRouterAdapter[S >: Null](
-    javaSdkWorkflow: javasdk.workflow.Workflow[S],
+    javaSdkWorkflow: JavaWorkflowAdapter[S],
     scalaSdkRouter: WorkflowRouter[S, AbstractWorkflow[S]])
     extends javasdk.impl.workflow.WorkflowRouter[S, javasdk.workflow.AbstractWorkflow[S]](javaSdkWorkflow) {
 
@@ -174,7 +190,7 @@ private[scalasdk] final class JavaWorkflowRouterAdapter[S >: Null](
       state: S,
       command: Any,
       context: javasdk.workflow.CommandContext): javasdk.workflow.AbstractWorkflow.Effect[_] = {
-    scalaSdkRouter.handleCommand(commandName, state, command, new ScalaCommandContextAdapter(context)) match {
+    scalaSdkRouter.handleCommand(commandName, state, command, javaSdkWorkflow.adapt(context)) match {
       case WorkflowEffectImpl(javaSdkEffectImpl)   => javaSdkEffectImpl
       case ErrorEffectImpl(javaSdkErrorEffectImpl) => javaSdkErrorEffectImpl
     }
@@ -198,8 +214,10 @@ private[scalasdk] final class ScalaCommandContextAdapter(val javaSdkContext: jav
 
   override def commandId: Long = javaSdkContext.commandId()
 
+  private val cachedMetadata = new MetadataConverters.Cached
+
   override def metadata: kalix.scalasdk.Metadata =
-    MetadataConverters.toScala(javaSdkContext.metadata())
+    cachedMetadata.toScala(javaSdkContext.metadata())
 
   def getComponentGrpcClient[T](serviceClass: Class[T]): T = javaSdkContext match {
     case ctx: javasdk.impl.AbstractContext => ctx.getComponentGrpcClient(serviceClass)
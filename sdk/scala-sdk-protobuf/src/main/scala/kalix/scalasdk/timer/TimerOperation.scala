@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package kalix.scalasdk.timer
+
+import scala.concurrent.duration.FiniteDuration
+import scala.util.Try
+
+import akka.Done
+import kalix.scalasdk.DeferredCall
+
+/**
+ * A timer to start or to cancel, as one of many timer operations executed together with [[TimerScheduler.execute]].
+ */
+sealed trait TimerOperation {
+
+  /** The name of the timer to start or to cancel. */
+  def name: String
+}
+
+object TimerOperation {
+
+  /**
+   * Start a single timer, like [[TimerScheduler.startSingleTimer]].
+   *
+   * @param name
+   *   unique name for the timer
+   * @param delay
+   *   delay, starting from now, in which the timer should be triggered
+   * @param maxRetries
+   *   Retry up to this many times
+   * @param deferredCall
+   *   a call to component that will be executed when the timer is triggered
+   */
+  final case class StartSingleTimer(
+      name: String,
+      delay: FiniteDuration,
+      maxRetries: Int,
+      deferredCall: DeferredCall[_, _])
+      extends TimerOperation
+
+  /** Cancel an existing timer, like [[TimerScheduler.cancel]]. */
+  final case class Cancel(name: String) extends TimerOperation
+
+  def startSingleTimer[I, O](name: String, delay: FiniteDuration, deferredCall: DeferredCall[I, O]): TimerOperation =
+    StartSingleTimer(name, delay, 0, deferredCall)
+
+  def startSingleTimer[I, O](
+      name: String,
+      delay: FiniteDuration,
+      maxRetries: Int,
+      deferredCall: DeferredCall[I, O]): TimerOperation =
+    StartSingleTimer(name, delay, maxRetries, deferredCall)
+
+  def cancel(name: String): TimerOperation =
+    Cancel(name)
+}
+
+/**
+ * The outcome of one of the timer operations executed with [[TimerScheduler.execute]], a failure with the reason the
+ * timer could not be started or cancelled.
+ */
+final case class TimerOutcome(operation: TimerOperation, result: Try[Done]) {
+  def isSuccess: Boolean = result.isSuccess
+}
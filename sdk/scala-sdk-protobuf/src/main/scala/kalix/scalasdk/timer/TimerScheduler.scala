@@ -4,8 +4,11 @@
 
 package kalix.scalasdk.timer
 
+import scala.concurrent.ExecutionContext
 import scala.concurrent.Future
 import scala.concurrent.duration.FiniteDuration
+import scala.util.Success
+import scala.util.control.NonFatal
 
 import akka.Done
 import kalix.scalasdk.DeferredCall
@@ -65,4 +68,37 @@ trait TimerScheduler {
    */
   def cancel(name: String): Future[Done]
 
+  /**
+   * Start and cancel many timers at once, for example one timer for each item of an order.
+   *
+   * The timer scheduler provided by Kalix sends the operations without waiting for each one to complete, with a limited
+   * number of operations in flight at any time (configured with `kalix.timer.batch-parallelism`). Operations for the
+   * same timer name are not ordered relative to each other, so each name should appear at most once. The default
+   * implementation runs the operations one after the other with `startSingleTimer` and `cancel`.
+   *
+   * @param operations
+   *   the timers to start or to cancel
+   * @return
+   *   a future that completes when all operations have completed, with the outcome of each operation in the same order
+   *   as the operations. The future itself does not fail when individual operations fail.
+   */
+  def execute(operations: Seq[TimerOperation]): Future[Seq[TimerOutcome]] = {
+    implicit val ec: ExecutionContext = ExecutionContext.parasitic
+    operations.foldLeft(Future.successful(Vector.empty[TimerOutcome])) { (previous, operation) =>
+      previous.flatMap { outcomes =>
+        val result =
+          try {
+            operation match {
+              case TimerOperation.StartSingleTimer(name, delay, maxRetries, deferredCall) =>
+                startSingleTimer(name, delay, maxRetries, deferredCall)
+              case TimerOperation.Cancel(name) => cancel(name)
+            }
+          } catch {
+            case NonFatal(exception) => Future.failed(exception)
+          }
+        result.transform(done => Success(outcomes :+ TimerOutcome(operation, done)))
+      }
+    }
+  }
+
 }
@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package kalix.scalasdk.impl
+
+import java.util.Optional
+
+import akka.actor.testkit.typed.scaladsl.ScalaTestWithActorTestKit
+import akka.actor.typed.scaladsl.adapter._
+import akka.stream.Materializer
+import com.google.protobuf.Descriptors
+import kalix.javasdk
+import kalix.javasdk.impl.AnySupport
+import kalix.protocol.component.Metadata
+import kalix.protocol.component.MetadataEntry
+import kalix.scalasdk.eventsourcedentity.EventSourcedEntity
+import kalix.scalasdk.impl.eventsourcedentity.JavaEventSourcedEntityAdapter
+import kalix.scalasdk.impl.valueentity.JavaValueEntityAdapter
+import kalix.scalasdk.impl.workflow.DummyWorkflow
+import kalix.scalasdk.impl.workflow.JavaWorkflowAdapter
+import kalix.scalasdk.valueentity.ValueEntity
+import org.scalatest.wordspec.AnyWordSpecLike
+
+/**
+ * The Java SDK resets and reuses one command context for all commands of an entity or workflow, and the adapters reuse
+ * their Scala contexts for as long as they get the same Java context. Each command must still see its own values.
+ */
+class CommandContextAdaptersSpec extends ScalaTestWithActorTestKit with AnyWordSpecLike {
+
+  private def protocolMetadata(value: String): Option[Metadata] =
+    Some(Metadata(Seq(MetadataEntry("key", MetadataEntry.Value.StringValue(value)))))
+
+  private def metadata(value: String): javasdk.impl.MetadataImpl =
+    javasdk.impl.MetadataImpl.fromProtocol(protocolMetadata(value))
+
+  private class RecordingValueEntity extends ValueEntity[String] {
+    override def emptyState: String = ""
+
+    def seen(): (Long, String, String) =
+      (commandContext().commandId, commandContext().commandName, commandContext().metadata.get("key").getOrElse(""))
+  }
+
+  private class RecordingEventSourcedEntity extends EventSourcedEntity[String] {
+    override def emptyState: String = ""
+
+    def seen(): (Long, String, String) =
+      (commandContext().commandId, commandContext().commandName, commandContext().metadata.get("key").getOrElse(""))
+  }
+
+  private class RecordingWorkflow extends DummyWorkflow {
+    def seen(): (Long, String, String) =
+      (commandContext().commandId, commandContext().commandName, commandContext().metadata.get("key").getOrElse(""))
+  }
+
+  /** Reset for every command, like the command context of the Java SDK event sourced entities. */
+  private class ReusedEventSourcedCommandContext extends javasdk.eventsourcedentity.CommandContext {
+    private var _commandName = ""
+    private var _commandId = 0L
+    private var _metadata: javasdk.Metadata = javasdk.impl.MetadataImpl.Empty
+
+    def reset(commandName: String, commandId: Long, metadata: javasdk.Metadata): ReusedEventSourcedCommandContext = {
+      _commandName = commandName
+      _commandId = commandId
+      _metadata = metadata
+      this
+    }
+
+    override def sequenceNumber(): Long = _commandId
+    override def commandName(): String = _commandName
+    override def commandId(): Long = _commandId
+    override def entityId(): String = "cart"
+    override def metadata(): javasdk.Metadata = _metadata
+    override def materializer(): Materializer = Materializer(system)
+  }
+
+  // command id, command name and the "key" metadata of each command
+  private val commands = Seq((1L, "First", Some("first")), (2L, "Second", Some("second")), (3L, "Third", None))
+  private val expected = commands.map { case (id, name, value) => (id, name, value.getOrElse("")) }
+
+  "JavaValueEntityAdapter" should {
+
+    "give each command of an entity its own command id and metadata" in {
+      val entity = new RecordingValueEntity
+      val adapter = new JavaValueEntityAdapter(entity)
+      val context = new javasdk.impl.valueentity.CommandContextImpl("cart", system.toClassic)
+
+      val seen = commands.map { case (id, name, value) =>
+        adapter._internalSetCommandContext(
+          Optional.of(context.reset(name, id, value.fold(javasdk.impl.MetadataImpl.Empty)(metadata))))
+        try entity.seen()
+        finally adapter._internalSetCommandContext(Optional.empty())
+      }
+
+      seen shouldBe expected
+      val reused = adapter.adapt(context)
+      adapter.adapt(context) should be theSameInstanceAs reused
+      val otherContext = new javasdk.impl.valueentity.CommandContextImpl("cart", system.toClassic)
+      adapter.adapt(otherContext) should not be theSameInstanceAs(reused)
+    }
+  }
+
+  "JavaEventSourcedEntityAdapter" should {
+
+    "give each command of an entity its own command id and metadata" in {
+      val entity = new RecordingEventSourcedEntity
+      val adapter = new JavaEventSourcedEntityAdapter(entity)
+      val context = new ReusedEventSourcedCommandContext
+
+      val seen = commands.map { case (id, name, value) =>
+        adapter._internalSetCommandContext(
+          Optional.of(context.reset(name, id, value.fold(javasdk.impl.MetadataImpl.Empty)(metadata))))
+        try entity.seen()
+        finally adapter._internalSetCommandContext(Optional.empty())
+      }
+
+      seen shouldBe expected
+      adapter.adapt(context) should be theSameInstanceAs adapter.adapt(context)
+    }
+  }
+
+  "JavaWorkflowAdapter" should {
+
+    "give each command of a workflow its own command id and metadata" in {
+      val workflow = new RecordingWorkflow
+      val adapter = new JavaWorkflowAdapter(workflow)
+      val context = new javasdk.impl.workflow.CommandContextImpl("transfer", system.toClassic)
+
+      val seen = commands.map { case (id, name, value) =>
+        adapter._internalSetCommandContext(Optional.of(context.reset(name, id, value.flatMap(protocolMetadata))))
+        try workflow.seen()
+        finally adapter._internalSetCommandContext(Optional.empty())
+      }
+
+      seen shouldBe expected
+      adapter.adapt(context) should be theSameInstanceAs adapter.adapt(context)
+    }
+
+    "reuse the Scala timer scheduler only while it gets the same Java timer scheduler" in {
+      val workflow = new RecordingWorkflow
+      val adapter = new JavaWorkflowAdapter(workflow)
+      val anySupport = new AnySupport(Array.empty[Descriptors.FileDescriptor], getClass.getClassLoader)
+      def javaScheduler() =
+        new javasdk.impl.timer.TimerSchedulerImpl(anySupport, system.toClassic, javasdk.impl.MetadataImpl.Empty)
+
+      val scheduler = javaScheduler()
+      adapter._internalSetTimerScheduler(Optional.of(scheduler))
+      val first = workflow.timers
+      adapter._internalSetTimerScheduler(Optional.of(scheduler))
+      workflow.timers should be theSameInstanceAs first
+
+      adapter._internalSetTimerScheduler(Optional.of(javaScheduler()))
+      workflow.timers should not be theSameInstanceAs(first)
+    }
+  }
+}
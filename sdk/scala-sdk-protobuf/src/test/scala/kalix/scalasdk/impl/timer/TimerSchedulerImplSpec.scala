@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2021-2024 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package kalix.scalasdk.impl.timer
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ConcurrentLinkedQueue
+
+import scala.concurrent.Future
+import scala.concurrent.duration._
+import scala.jdk.CollectionConverters._
+
+import akka.Done
+import akka.actor.testkit.typed.scaladsl.ScalaTestWithActorTestKit
+import akka.actor.typed.scaladsl.adapter._
+import com.google.protobuf.ByteString
+import com.google.protobuf.Descriptors
+import com.google.protobuf.any.{ Any => ScalaPbAny }
+import kalix.javasdk.impl.AnySupport
+import kalix.javasdk.impl.GrpcDeferredCall
+import kalix.javasdk.impl.MetadataImpl
+import kalix.javasdk.impl.timer.TimerCalls
+import kalix.scalasdk.DeferredCall
+import kalix.scalasdk.impl.ScalaDeferredCallAdapter
+import kalix.scalasdk.timer.TimerOperation
+import kalix.scalasdk.timer.TimerScheduler
+import kalix.timers.timers.SingleTimer
+import org.scalatest.wordspec.AnyWordSpecLike
+
+class TimerSchedulerImplSpec extends ScalaTestWithActorTestKit with AnyWordSpecLike {
+
+  private val deferredCall = ScalaDeferredCallAdapter(
+    GrpcDeferredCall(
+      ScalaPbAny("type.googleapis.com/test.Message", ByteString.EMPTY),
+      MetadataImpl.Empty,
+      "test.Service",
+      "Method",
+      _ => CompletableFuture.completedFuture(Done)))
+
+  private class StubTimerCalls extends TimerCalls {
+    val added = new ConcurrentLinkedQueue[SingleTimer]()
+
+    override def addSingle(singleTimer: SingleTimer): Future[Done] = {
+      added.add(singleTimer)
+      Future.successful(Done)
+    }
+
+    override def remove(name: String): Future[Done] =
+      Future.failed(new RuntimeException(s"failed $name"))
+  }
+
+  "TimerSchedulerImpl" should {
+
+    "start timers with their max retries and return the outcome of each operation" in {
+      val calls = new StubTimerCalls
+      val anySupport = new AnySupport(Array.empty[Descriptors.FileDescriptor], getClass.getClassLoader)
+      val scheduler = new TimerSchedulerImpl(anySupport, system.toClassic, calls)
+
+      scheduler.startSingleTimer("single", 1.minute, 3, deferredCall).futureValue shouldBe Done
+
+      val operations = Seq(
+        TimerOperation.startSingleTimer("batched", 1.minute, 5, deferredCall),
+        TimerOperation.cancel("missing"))
+      val outcomes = scheduler.execute(operations).futureValue
+
+      outcomes.map(_.operation) shouldBe operations
+      outcomes.map(_.isSuccess) shouldBe Seq(true, false)
+      calls.added.asScala.map(timer => timer.name -> timer.maxRetries).toSeq shouldBe Seq("single" -> 3, "batched" -> 5)
+    }
+  }
+
+  "The default TimerScheduler.execute" should {
+
+    "start and cancel the timers one after the other" in {
+      val started = new ConcurrentLinkedQueue[String]()
+      val scheduler = new TimerScheduler {
+        override def startSingleTimer[I, O](
+            name: String,
+            delay: FiniteDuration,
+            deferredCall: DeferredCall[I, O]): Future[Done] =
+          startSingleTimer(name, delay, 0, deferredCall)
+
+        override def startSingleTimer[I, O](
+            name: String,
+            delay: FiniteDuration,
+            maxRetries: Int,
+            deferredCall: DeferredCall[I, O]): Future[Done] = {
+          started.add(s"$name:$maxRetries")
+          Future.successful(Done)
+        }
+
+        override def cancel(name: String): Future[Done] =
+          Future.failed(new RuntimeException(s"failed $name"))
+      }
+      val operations = Seq(
+        TimerOperation.startSingleTimer("first", 1.minute, 3, deferredCall),
+        TimerOperation.cancel("cancelled"),
+        TimerOperation.startSingleTimer("second", 1.minute, deferredCall))
+
+      val outcomes = scheduler.execute(operations).futureValue
+
+      outcomes.map(_.operation) shouldBe operations
+      outcomes.map(_.isSuccess) shouldBe Seq(true, false, true)
+      outcomes(1).result.failed.get.getMessage shouldBe "failed cancelled"
+      started.asScala.toSeq shouldBe Seq("first:3", "second:0")
+    }
+  }
+}